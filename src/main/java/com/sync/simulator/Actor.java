@@ -0,0 +1,88 @@
+package com.sync.simulator;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * An actor processes the messages in its mailbox one at a time on whichever carrier thread
+ * of its {@link ActorSystem} picks it up, so its own fields need no locking. It never
+ * blocks: instead of sleeping it asks to be sent a message later.
+ */
+public abstract class Actor implements Runnable {
+    // Messages processed per turn on a carrier before the actor yields it to the next actor
+    private static final int THROUGHPUT = 32;
+
+    // Field updaters rather than atomics keep an idle actor to a few dozen bytes
+    private static final AtomicIntegerFieldUpdater<Actor> SIZE =
+            AtomicIntegerFieldUpdater.newUpdater(Actor.class, "size");
+    private static final AtomicIntegerFieldUpdater<Actor> SCHEDULED =
+            AtomicIntegerFieldUpdater.newUpdater(Actor.class, "scheduled");
+
+    protected final ActorSystem system;
+    private final int capacity;
+    private final ConcurrentLinkedQueue<Object> mailbox = new ConcurrentLinkedQueue<>();
+    private volatile int size = 0;
+    private volatile int scheduled = 0; // 1 while queued on or running on a carrier
+
+    /**
+     * @param capacity messages the mailbox holds before {@link #tell(Object)} rejects more
+     */
+    protected Actor(ActorSystem system, int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Mailbox capacity must be positive");
+        this.system = system;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Handles one message; runs on a carrier thread and must not block.
+     */
+    protected abstract void receive(Object message);
+
+    /**
+     * Enqueues a message without waiting.
+     *
+     * @return false if the mailbox was full and the message was dropped
+     */
+    public boolean tell(Object message) {
+        if (SIZE.incrementAndGet(this) > capacity) {
+            SIZE.decrementAndGet(this);
+            system.recordRejection();
+            return false;
+        }
+        mailbox.offer(message);
+        if (scheduled == 0 && SCHEDULED.compareAndSet(this, 0, 1))
+            system.execute(this);
+        return true;
+    }
+
+    /**
+     * Sends a message to an actor after a delay; a delay of 0 sends it now.
+     */
+    protected void tellLater(Actor to, Object message, int delayMs) {
+        if (delayMs <= 0)
+            to.tell(message);
+        else
+            system.schedule(to, message, delayMs);
+    }
+
+    @Override
+    public final void run() {
+        for (int i = 0; i < THROUGHPUT; i++) {
+            Object message = mailbox.poll();
+            if (message == null)
+                break;
+            SIZE.decrementAndGet(this);
+            try {
+                receive(message);
+            } catch (RuntimeException e) {
+                Logger.log("Actor " + this + " failed on " + message + ": " + e);
+            }
+            system.recordProcessed();
+        }
+        scheduled = 0;
+        // A message that arrived after the last poll saw scheduled == 1 and left it to us
+        if (!mailbox.isEmpty() && SCHEDULED.compareAndSet(this, 0, 1))
+            system.execute(this);
+    }
+}
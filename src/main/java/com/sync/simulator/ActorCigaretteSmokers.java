@@ -0,0 +1,257 @@
+package com.sync.simulator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cigarette Smokers on an {@link ActorSystem}. Ingredients are messages: each agent sends two
+ * of them to the table actor and waits for both to be taken, and the table hands a pair to an
+ * idle smoker holding the third. Smoker i holds ingredient i mod 3, so any number of smokers
+ * and agents share the three-ingredient table.
+ */
+public class ActorCigaretteSmokers implements SyncProblem, BenchmarkCapable {
+    private static final int TYPES = 3;
+    private static final String[] NAMES = { "Tobacco", "Paper", "Matches" };
+    private static final Object PLACE = "Place";
+    private static final Object TAKEN = "Taken";
+    private static final Object DONE_SMOKING = "Done Smoking";
+
+    private final int numSmokers;
+    private final int numAgents;
+    private final int carrierCount;
+    private ActorSystem system = null;
+    private PerformanceMetrics metrics = null;
+    private int smokeMs = 1000;
+
+    private static final class Offer {
+        final Agent agent;
+        final int type;
+
+        Offer(Agent agent, int type) {
+            this.agent = agent;
+            this.type = type;
+        }
+    }
+
+    private static final class Pair {
+        final Offer first;
+        final Offer second;
+
+        Pair(Offer first, Offer second) {
+            this.first = first;
+            this.second = second;
+        }
+    }
+
+    public ActorCigaretteSmokers() {
+        this(3, 1, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ActorCigaretteSmokers(int numSmokers, int numAgents, int carrierCount) {
+        if (numSmokers < TYPES)
+            throw new IllegalArgumentException("At least one smoker per ingredient is required");
+        this.numSmokers = numSmokers;
+        this.numAgents = numAgents;
+        this.carrierCount = carrierCount;
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setTiming(int smokeMs) {
+        this.smokeMs = smokeMs;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Actor Cigarette Smokers (Broken - Smokers Grab Single Ingredients)...");
+        start(true);
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Actor Cigarette Smokers (Fixed - Table Actor, " + numSmokers + " smokers, "
+                + numAgents + " agents, " + carrierCount + " carriers)...");
+        start(false);
+    }
+
+    private void start(boolean broken) {
+        if (metrics != null)
+            metrics.setActorCount(numSmokers);
+        system = new ActorSystem("Smokers", carrierCount);
+        Table table = new Table(broken);
+        for (int i = 0; i < numSmokers; i++) {
+            Smoker smoker = new Smoker(i, table);
+            table.idle.get(smoker.holds).add(smoker);
+        }
+        for (int i = 0; i < numAgents; i++) {
+            new Agent(i, table).tell(PLACE);
+        }
+    }
+
+    private class Table extends Actor {
+        private final boolean broken;
+        private final List<ArrayDeque<Smoker>> idle = new ArrayList<>(TYPES); // Idle smokers by what they hold
+        private final List<ArrayDeque<Offer>> onTable = new ArrayList<>(TYPES);
+
+        Table(boolean broken) {
+            // Two offers per agent and a ready message per smoker at most
+            super(ActorCigaretteSmokers.this.system, 2 * numAgents + numSmokers);
+            this.broken = broken;
+            for (int t = 0; t < TYPES; t++) {
+                idle.add(new ArrayDeque<>());
+                onTable.add(new ArrayDeque<>());
+            }
+        }
+
+        @Override
+        protected void receive(Object message) {
+            if (message instanceof Offer) {
+                Offer offer = (Offer) message;
+                if (broken) {
+                    grab(offer);
+                    return;
+                }
+                onTable.get(offer.type).add(offer);
+            } else {
+                Smoker smoker = (Smoker) message; // Finished smoking
+                idle.get(smoker.holds).add(smoker);
+            }
+            match();
+        }
+
+        /**
+         * Hands out complementary pairs for as long as a smoker holds the third ingredient.
+         */
+        private void match() {
+            boolean matched = true;
+            while (matched) {
+                matched = false;
+                for (int t = 0; t < TYPES; t++) {
+                    int a = (t + 1) % TYPES;
+                    int b = (t + 2) % TYPES;
+                    if (!idle.get(t).isEmpty() && !onTable.get(a).isEmpty() && !onTable.get(b).isEmpty()) {
+                        Offer first = onTable.get(a).poll();
+                        Offer second = onTable.get(b).poll();
+                        first.agent.tell(TAKEN);
+                        second.agent.tell(TAKEN);
+                        idle.get(t).poll().tell(new Pair(first, second));
+                        matched = true;
+                    }
+                }
+            }
+        }
+
+        /**
+         * BROKEN: gives the ingredient to whichever idle smoker needs it first, and the agent
+         * only hears back once a smoker has a full pair. Two smokers can each grab one half of
+         * the same pair, and then nobody smokes and the agent never places again.
+         */
+        private void grab(Offer offer) {
+            int from = ThreadLocalRandom.current().nextInt(TYPES);
+            for (int k = 0; k < TYPES; k++) {
+                int t = (from + k) % TYPES;
+                if (t == offer.type)
+                    continue;
+                for (Smoker smoker : idle.get(t)) {
+                    if (smoker.partial == null) {
+                        smoker.partial = offer;
+                        Logger.log("Smoker " + smoker.id + " grabbed " + NAMES[offer.type]);
+                        return;
+                    }
+                    if (smoker.partial.type != offer.type) {
+                        idle.get(t).remove(smoker);
+                        Offer first = smoker.partial;
+                        smoker.partial = null;
+                        first.agent.tell(TAKEN);
+                        offer.agent.tell(TAKEN);
+                        smoker.tell(new Pair(first, offer));
+                        return;
+                    }
+                }
+            }
+            onTable.get(offer.type).add(offer); // Nobody wants it; the agent never hears back
+            if (metrics != null)
+                metrics.recordEvent(CigaretteSmokers.EVENT_AGENT_STALLS);
+        }
+    }
+
+    private class Agent extends Actor {
+        private final int id;
+        private final Table table;
+        private int outstanding = 0;
+        private long roundStart;
+
+        Agent(int id, Table table) {
+            super(ActorCigaretteSmokers.this.system, 3);
+            this.id = id;
+            this.table = table;
+        }
+
+        @Override
+        protected void receive(Object message) {
+            if (message == PLACE) {
+                int skip = ThreadLocalRandom.current().nextInt(TYPES); // The ingredient left out
+                roundStart = System.nanoTime();
+                outstanding = 2;
+                Logger.log("Agent " + id + " places " + NAMES[(skip + 1) % TYPES] + " and "
+                        + NAMES[(skip + 2) % TYPES]);
+                table.tell(new Offer(this, (skip + 1) % TYPES));
+                table.tell(new Offer(this, (skip + 2) % TYPES));
+            } else if (message == TAKEN && --outstanding == 0) {
+                if (metrics != null)
+                    metrics.recordLatency(CigaretteSmokers.LATENCY_ROUND, System.nanoTime() - roundStart);
+                tell(PLACE);
+            }
+        }
+    }
+
+    private class Smoker extends Actor {
+        private final int id;
+        private final int holds;
+        private final Table table;
+        private Offer partial = null; // BROKEN mode only, owned by the table
+        private long readySince = System.nanoTime();
+        private long smokeStart;
+
+        Smoker(int id, Table table) {
+            super(ActorCigaretteSmokers.this.system, 2);
+            this.id = id;
+            this.holds = id % TYPES;
+            this.table = table;
+        }
+
+        @Override
+        protected void receive(Object message) {
+            if (message instanceof Pair) {
+                smokeStart = System.nanoTime();
+                if (metrics != null)
+                    metrics.recordWaitTimeNanos(smokeStart - readySince);
+                Logger.log("Smoker " + id + " with " + NAMES[holds] + " smokes.");
+                tellLater(this, DONE_SMOKING, smokeMs);
+            } else if (message == DONE_SMOKING) {
+                if (metrics != null) {
+                    metrics.recordActiveTime((System.nanoTime() - smokeStart) / 1_000_000L);
+                    metrics.recordOperation(id);
+                }
+                readySince = System.nanoTime();
+                table.tell(this);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Actor Cigarette Smokers...");
+        if (system != null) {
+            if (metrics != null)
+                metrics.recordEvent(ActorSystem.EVENT_MAILBOX_REJECTIONS, system.getRejectedMessages());
+            system.shutdown();
+            system = null;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.sync.simulator;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Dining Philosophers on an {@link ActorSystem}: every philosopher is an actor and forks are
+ * messages, so a table of any size runs on a handful of carrier threads. The fixed mode is
+ * the Chandy-Misra protocol of {@link DiningPhilosophers.Solution#CHANDY_MISRA} without a
+ * thread per philosopher; the broken mode turns each fork into an actor that grants it on
+ * request, and every philosopher asks for its left fork before its right one.
+ */
+public class ActorDiningPhilosophers implements SyncProblem, BenchmarkCapable {
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+    private static final int REQUEST = 0;
+    private static final int FORK = 1;
+    private static final int MAILBOX_CAPACITY = 8; // Two requests, two forks and a timer message at most
+
+    // Timer messages a philosopher sends itself
+    private static final Object HUNGRY = "Hungry";
+    private static final Object DONE_EATING = "Done Eating";
+
+    private final int numPhilosophers;
+    private final int carrierCount;
+    private ActorSystem system = null;
+    private PerformanceMetrics metrics = null;
+
+    // Think/eat durations in ms (upper bound exclusive, 0 disables the phase)
+    private int thinkMinMs = 500;
+    private int thinkMaxMs = 1000;
+    private int eatMinMs = 500;
+    private int eatMaxMs = 1000;
+
+    public ActorDiningPhilosophers() {
+        this(5, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ActorDiningPhilosophers(int numPhilosophers, int carrierCount) {
+        if (numPhilosophers < 2)
+            throw new IllegalArgumentException("At least 2 philosophers are required");
+        this.numPhilosophers = numPhilosophers;
+        this.carrierCount = carrierCount;
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setTiming(int thinkMinMs, int thinkMaxMs, int eatMinMs, int eatMaxMs) {
+        this.thinkMinMs = thinkMinMs;
+        this.thinkMaxMs = thinkMaxMs;
+        this.eatMinMs = eatMinMs;
+        this.eatMaxMs = eatMaxMs;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Actor Dining Philosophers (Broken - Left Fork First, N=" + numPhilosophers + ")...");
+        start(true);
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Actor Dining Philosophers (Fixed - Chandy-Misra, N=" + numPhilosophers + ", "
+                + carrierCount + " carriers)...");
+        start(false);
+    }
+
+    private void start(boolean broken) {
+        if (metrics != null)
+            metrics.setActorCount(numPhilosophers);
+        system = new ActorSystem("Dining", carrierCount);
+        if (broken) {
+            ForkActor[] forks = new ForkActor[numPhilosophers];
+            for (int i = 0; i < numPhilosophers; i++) {
+                forks[i] = new ForkActor(i);
+            }
+            for (int i = 0; i < numPhilosophers; i++) {
+                GreedyPhilosopher philosopher = new GreedyPhilosopher(i, forks[i], forks[rightFork(i)]);
+                philosopher.tellLater(philosopher, HUNGRY, randomBetween(thinkMinMs, thinkMaxMs));
+            }
+            return;
+        }
+        Philosopher[] table = new Philosopher[numPhilosophers];
+        for (int i = 0; i < numPhilosophers; i++) {
+            table[i] = new Philosopher(i, table);
+        }
+        for (Philosopher philosopher : table) {
+            philosopher.tellLater(philosopher, HUNGRY, randomBetween(thinkMinMs, thinkMaxMs));
+        }
+    }
+
+    private class Philosopher extends Actor {
+        private final int id;
+        private final Philosopher[] table;
+        private final int[] forkIds = new int[2];
+        private final int[] neighbours = new int[2];
+        private final boolean[] hasFork = new boolean[2];
+        private final boolean[] dirty = new boolean[2];
+        private final boolean[] hasRequestToken = new boolean[2];
+        private boolean hungry = false;
+        private boolean eating = false;
+        private long hungrySince;
+        private long eatStart;
+
+        Philosopher(int id, Philosopher[] table) {
+            super(ActorDiningPhilosophers.this.system, MAILBOX_CAPACITY);
+            this.id = id;
+            this.table = table;
+            forkIds[LEFT] = id;
+            forkIds[RIGHT] = rightFork(id);
+            neighbours[LEFT] = (id - 1 + numPhilosophers) % numPhilosophers;
+            neighbours[RIGHT] = rightFork(id);
+            for (int side = LEFT; side <= RIGHT; side++) {
+                hasFork[side] = id == Math.min(id, neighbours[side]);
+                dirty[side] = hasFork[side];
+                hasRequestToken[side] = !hasFork[side];
+            }
+        }
+
+        @Override
+        protected void receive(Object message) {
+            if (message == HUNGRY) {
+                hungry = true;
+                hungrySince = System.nanoTime();
+                for (int side = LEFT; side <= RIGHT; side++) {
+                    if (!hasFork[side] && hasRequestToken[side]) {
+                        hasRequestToken[side] = false;
+                        send(side, REQUEST);
+                    }
+                }
+                tryEat();
+            } else if (message == DONE_EATING) {
+                eating = false;
+                hungry = false;
+                dirty[LEFT] = true;
+                dirty[RIGHT] = true;
+                if (metrics != null) {
+                    metrics.recordActiveTime((System.nanoTime() - eatStart) / 1_000_000L);
+                    metrics.recordOperation(id);
+                }
+                Logger.log("Philosopher " + id + " put down forks");
+                // Honour requests deferred while the forks were clean or in use
+                for (int side = LEFT; side <= RIGHT; side++) {
+                    if (hasRequestToken[side])
+                        giveFork(side);
+                }
+                tellLater(this, HUNGRY, randomBetween(thinkMinMs, thinkMaxMs));
+            } else {
+                handle((Integer) message);
+            }
+        }
+
+        private void handle(int message) {
+            int forkId = message >> 1;
+            int side = forkId == forkIds[LEFT] ? LEFT : RIGHT;
+            if ((message & 1) == FORK) {
+                hasFork[side] = true;
+                dirty[side] = false;
+                tryEat();
+                return;
+            }
+            hasRequestToken[side] = true;
+            // A clean fork was handed over for our next meal; keep it until we have eaten
+            if (hasFork[side] && dirty[side] && !eating) {
+                giveFork(side);
+                if (hungry) {
+                    hasRequestToken[side] = false;
+                    send(side, REQUEST);
+                }
+            }
+        }
+
+        private void tryEat() {
+            if (!hungry || eating || !hasFork[LEFT] || !hasFork[RIGHT])
+                return;
+            eating = true;
+            eatStart = System.nanoTime();
+            recordHunger(eatStart - hungrySince);
+            Logger.log("Philosopher " + id + " is eating");
+            tellLater(this, DONE_EATING, randomBetween(eatMinMs, eatMaxMs));
+        }
+
+        private void giveFork(int side) {
+            hasFork[side] = false;
+            dirty[side] = false;
+            send(side, FORK);
+        }
+
+        private void send(int side, int type) {
+            table[neighbours[side]].tell((forkIds[side] << 1) | type);
+        }
+    }
+
+    /**
+     * BROKEN mode: a fork that hands itself to requesters in arrival order.
+     */
+    private class ForkActor extends Actor {
+        private final int id;
+        private final ArrayDeque<GreedyPhilosopher> queue = new ArrayDeque<>(2);
+        private GreedyPhilosopher holder = null;
+
+        ForkActor(int id) {
+            super(ActorDiningPhilosophers.this.system, MAILBOX_CAPACITY);
+            this.id = id;
+        }
+
+        @Override
+        protected void receive(Object message) {
+            GreedyPhilosopher sender = (GreedyPhilosopher) message;
+            if (sender == holder) { // A holder sending itself again is putting the fork down
+                holder = queue.poll();
+                if (holder != null)
+                    holder.tell(this);
+            } else if (holder == null) {
+                holder = sender;
+                sender.tell(this);
+            } else {
+                queue.add(sender);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Fork-" + id;
+        }
+    }
+
+    /**
+     * BROKEN mode: asks for the left fork, and only once it has it for the right one. When
+     * every philosopher holds its left fork, nobody is ever sent a right one.
+     */
+    private class GreedyPhilosopher extends Actor {
+        private final int id;
+        private final ForkActor left;
+        private final ForkActor right;
+        private long hungrySince;
+        private long eatStart;
+
+        GreedyPhilosopher(int id, ForkActor left, ForkActor right) {
+            super(ActorDiningPhilosophers.this.system, MAILBOX_CAPACITY);
+            this.id = id;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        protected void receive(Object message) {
+            if (message == HUNGRY) {
+                hungrySince = System.nanoTime();
+                left.tell(this);
+            } else if (message == left) {
+                Logger.log("Philosopher " + id + " picked up left " + left);
+                right.tell(this);
+            } else if (message == right) {
+                eatStart = System.nanoTime();
+                recordHunger(eatStart - hungrySince);
+                tellLater(this, DONE_EATING, randomBetween(eatMinMs, eatMaxMs));
+            } else if (message == DONE_EATING) {
+                if (metrics != null) {
+                    metrics.recordActiveTime((System.nanoTime() - eatStart) / 1_000_000L);
+                    metrics.recordOperation(id);
+                }
+                left.tell(this);
+                right.tell(this);
+                tellLater(this, HUNGRY, randomBetween(thinkMinMs, thinkMaxMs));
+            }
+        }
+    }
+
+    private void recordHunger(long waitNanos) {
+        if (metrics != null) {
+            metrics.recordWaitTimeNanos(waitNanos);
+            long waitMs = waitNanos / 1_000_000L;
+            if (waitMs > 100)
+                metrics.recordContention(waitMs);
+        }
+    }
+
+    private int rightFork(int id) {
+        return (id + 1) % numPhilosophers;
+    }
+
+    private static int randomBetween(int minMs, int maxMs) {
+        return maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : maxMs;
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Actor Dining Philosophers...");
+        if (system != null) {
+            if (metrics != null)
+                metrics.recordEvent(ActorSystem.EVENT_MAILBOX_REJECTIONS, system.getRejectedMessages());
+            system.shutdown();
+            system = null;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.sync.simulator;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Producer-Consumer on an {@link ActorSystem}. The buffer is an actor that owns the slots:
+ * producers send it items and consumers send it requests, and whoever cannot be served yet
+ * is parked in the buffer's own queue instead of on a semaphore. A producer does not make
+ * its next item until the buffer acknowledges the last one.
+ */
+public class ActorProducerConsumer implements SyncProblem, BenchmarkCapable {
+    private static final Object PRODUCE = "Produce";
+    private static final Object CONSUME = "Consume";
+    private static final Object ACK = "Ack";
+
+    private final int numProducers;
+    private final int numConsumers;
+    private final int bufferSize;
+    private final int carrierCount;
+    private ActorSystem system = null;
+    private PerformanceMetrics metrics = null;
+
+    // Produce/consume durations in ms (upper bound exclusive)
+    private int produceMinMs = 100;
+    private int produceMaxMs = 300;
+    private int consumeMinMs = 150;
+    private int consumeMaxMs = 400;
+
+    private static final class Put {
+        final Producer producer;
+        final int item;
+
+        Put(Producer producer, int item) {
+            this.producer = producer;
+            this.item = item;
+        }
+    }
+
+    private static final class Take {
+        final Consumer consumer;
+
+        Take(Consumer consumer) {
+            this.consumer = consumer;
+        }
+    }
+
+    private static final class Item {
+        final int value;
+
+        Item(int value) {
+            this.value = value;
+        }
+    }
+
+    public ActorProducerConsumer() {
+        this(2, 3, 5, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ActorProducerConsumer(int numProducers, int numConsumers, int bufferSize, int carrierCount) {
+        if (bufferSize < 1)
+            throw new IllegalArgumentException("Buffer size must be positive");
+        this.numProducers = numProducers;
+        this.numConsumers = numConsumers;
+        this.bufferSize = bufferSize;
+        this.carrierCount = carrierCount;
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setTiming(int produceMinMs, int produceMaxMs, int consumeMinMs, int consumeMaxMs) {
+        this.produceMinMs = produceMinMs;
+        this.produceMaxMs = produceMaxMs;
+        this.consumeMinMs = consumeMinMs;
+        this.consumeMaxMs = consumeMaxMs;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Actor Producer-Consumer (Broken - Buffer Ignores Its Capacity)...");
+        start(true);
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Actor Producer-Consumer (Fixed - Buffer Actor, " + numProducers + "P/" + numConsumers
+                + "C, " + carrierCount + " carriers)...");
+        start(false);
+    }
+
+    private void start(boolean broken) {
+        if (metrics != null)
+            metrics.setActorCount(numProducers + numConsumers); // Consumers follow the producers
+        system = new ActorSystem("ProducerConsumer", carrierCount);
+        Buffer buffer = new Buffer(broken);
+        for (int i = 0; i < numProducers; i++) {
+            Producer producer = new Producer(i, buffer);
+            producer.tellLater(producer, PRODUCE, randomBetween(produceMinMs, produceMaxMs));
+        }
+        for (int i = 0; i < numConsumers; i++) {
+            Consumer consumer = new Consumer(numProducers + i, buffer);
+            consumer.tell(CONSUME);
+        }
+    }
+
+    private class Buffer extends Actor {
+        private final boolean broken;
+        private final ArrayDeque<Integer> items = new ArrayDeque<>();
+        private final ArrayDeque<Put> blockedProducers = new ArrayDeque<>();
+        private final ArrayDeque<Consumer> waitingConsumers = new ArrayDeque<>();
+
+        Buffer(boolean broken) {
+            // Every producer and consumer has at most one message outstanding here
+            super(ActorProducerConsumer.this.system, numProducers + numConsumers);
+            this.broken = broken;
+        }
+
+        @Override
+        protected void receive(Object message) {
+            if (message instanceof Put) {
+                Put put = (Put) message;
+                if (!broken && items.size() >= bufferSize) {
+                    blockedProducers.add(put);
+                    return;
+                }
+                store(put);
+            } else {
+                Consumer consumer = ((Take) message).consumer;
+                Integer item = items.poll();
+                if (item == null) {
+                    waitingConsumers.add(consumer);
+                    return;
+                }
+                consumer.tell(new Item(item));
+                // A slot opened up for the longest-waiting producer
+                Put put = blockedProducers.poll();
+                if (put != null)
+                    store(put);
+            }
+        }
+
+        private void store(Put put) {
+            Consumer consumer = waitingConsumers.poll();
+            if (consumer != null) {
+                consumer.tell(new Item(put.item)); // Straight through, the buffer stays empty
+            } else {
+                items.add(put.item);
+                if (items.size() > bufferSize) {
+                    Logger.log("!!! VIOLATION !!! Buffer overflow! count=" + items.size());
+                    if (metrics != null)
+                        metrics.recordViolation(Violation.BUFFER_OVERFLOW);
+                }
+            }
+            if (metrics != null)
+                metrics.updateQueueLength(items.size());
+            put.producer.tell(ACK);
+        }
+    }
+
+    private class Producer extends Actor {
+        private final int id;
+        private final Buffer buffer;
+        private int item = 0;
+        private long putAt;
+
+        Producer(int id, Buffer buffer) {
+            super(ActorProducerConsumer.this.system, 2);
+            this.id = id;
+            this.buffer = buffer;
+        }
+
+        @Override
+        protected void receive(Object message) {
+            if (message == PRODUCE) {
+                putAt = System.nanoTime();
+                buffer.tell(new Put(this, ++item));
+                Logger.log("Producer " + id + " produced item " + item);
+            } else if (message == ACK) {
+                if (metrics != null) {
+                    metrics.recordWaitTimeNanos(System.nanoTime() - putAt);
+                    metrics.recordOperation(id);
+                }
+                tellLater(this, PRODUCE, randomBetween(produceMinMs, produceMaxMs));
+            }
+        }
+    }
+
+    private class Consumer extends Actor {
+        private final int id;
+        private final Buffer buffer;
+        private final Take take = new Take(this);
+        private long takeAt;
+
+        Consumer(int id, Buffer buffer) {
+            super(ActorProducerConsumer.this.system, 2);
+            this.id = id;
+            this.buffer = buffer;
+        }
+
+        @Override
+        protected void receive(Object message) {
+            if (message == CONSUME) {
+                takeAt = System.nanoTime();
+                buffer.tell(take);
+            } else if (message instanceof Item) {
+                if (metrics != null) {
+                    metrics.recordWaitTimeNanos(System.nanoTime() - takeAt);
+                    metrics.recordOperation(id);
+                }
+                Logger.log("Consumer " + (id - numProducers) + " consumed item " + ((Item) message).value);
+                tellLater(this, CONSUME, randomBetween(consumeMinMs, consumeMaxMs));
+            }
+        }
+    }
+
+    private static int randomBetween(int minMs, int maxMs) {
+        return maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : maxMs;
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Actor Producer-Consumer...");
+        if (system != null) {
+            if (metrics != null)
+                metrics.recordEvent(ActorSystem.EVENT_MAILBOX_REJECTIONS, system.getRejectedMessages());
+            system.shutdown();
+            system = null;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.sync.simulator;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sleeping Barber on an {@link ActorSystem}. The shop is an actor whose waiting-room queue
+ * holds customer messages, one per chair; barbers and customers are actors too, so an idle
+ * barber or a customer away from the shop occupies no thread. Customers come back after
+ * every haircut or balk, so the arrival rate follows the number of customers.
+ */
+public class ActorSleepingBarber implements SyncProblem, BenchmarkCapable {
+    private static final Object ARRIVE = "Arrive";
+    private static final Object HAIRCUT_DONE = "Haircut Done";
+    private static final Object BALKED = "Balked";
+
+    private final int numBarbers;
+    private final int chairs;
+    private final int numCustomers;
+    private final int carrierCount;
+    private ActorSystem system = null;
+    private PerformanceMetrics metrics = null;
+
+    // Haircut and time-away durations in ms (upper bound exclusive)
+    private int haircutMinMs = 1000;
+    private int haircutMaxMs = 3000;
+    private int returnMinMs = 2000;
+    private int returnMaxMs = 5000;
+
+    public ActorSleepingBarber() {
+        this(1, 3, 10, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ActorSleepingBarber(int numBarbers, int chairs, int numCustomers, int carrierCount) {
+        this.numBarbers = numBarbers;
+        this.chairs = chairs;
+        this.numCustomers = numCustomers;
+        this.carrierCount = carrierCount;
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setTiming(int haircutMinMs, int haircutMaxMs, int returnMinMs, int returnMaxMs) {
+        this.haircutMinMs = haircutMinMs;
+        this.haircutMaxMs = haircutMaxMs;
+        this.returnMinMs = returnMinMs;
+        this.returnMaxMs = returnMaxMs;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Actor Sleeping Barber (Broken - Shop Ignores the Chair Count)...");
+        start(true);
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Actor Sleeping Barber (Fixed - Shop Actor, " + numBarbers + " barbers, " + chairs
+                + " chairs, " + numCustomers + " customers, " + carrierCount + " carriers)...");
+        start(false);
+    }
+
+    private void start(boolean broken) {
+        if (metrics != null)
+            metrics.setActorCount(numBarbers);
+        system = new ActorSystem("Barber", carrierCount);
+        Shop shop = new Shop(broken);
+        for (int i = 0; i < numBarbers; i++) {
+            shop.idleBarbers.add(new Barber(i, shop));
+        }
+        for (int i = 0; i < numCustomers; i++) {
+            Customer customer = new Customer(i, shop);
+            customer.tellLater(customer, ARRIVE, randomBetween(returnMinMs, returnMaxMs));
+        }
+    }
+
+    private class Shop extends Actor {
+        private final boolean broken;
+        private final ArrayDeque<Barber> idleBarbers = new ArrayDeque<>();
+        private final ArrayDeque<Customer> waitingRoom = new ArrayDeque<>();
+
+        Shop(boolean broken) {
+            // At most one message in flight per customer and per barber
+            super(ActorSleepingBarber.this.system, numCustomers + numBarbers);
+            this.broken = broken;
+        }
+
+        @Override
+        protected void receive(Object message) {
+            if (message instanceof Barber) {
+                Barber barber = (Barber) message; // Finished a haircut
+                Customer next = waitingRoom.poll();
+                if (next != null)
+                    seat(barber, next);
+                else
+                    idleBarbers.add(barber); // Goes to sleep
+                return;
+            }
+            Customer customer = (Customer) message;
+            if (metrics != null)
+                metrics.recordEvent(SleepingBarber.EVENT_ARRIVALS);
+            Barber barber = idleBarbers.poll();
+            if (barber != null) {
+                seat(barber, customer); // Wakes a sleeping barber
+            } else if (broken || waitingRoom.size() < chairs) {
+                waitingRoom.add(customer);
+                if (waitingRoom.size() > chairs) {
+                    Logger.log("!!! VIOLATION !!! " + waitingRoom.size() + " customers seated on " + chairs
+                            + " chairs");
+                    if (metrics != null)
+                        metrics.recordViolation(Violation.CHAIR_OVERCOUNT);
+                }
+            } else {
+                Logger.log("Customer " + customer.id + " left (Wait room full).");
+                if (metrics != null)
+                    metrics.recordEvent(SleepingBarber.EVENT_BALKS);
+                customer.tell(BALKED);
+                return;
+            }
+            if (metrics != null)
+                metrics.updateQueueLength(waitingRoom.size());
+        }
+
+        private void seat(Barber barber, Customer customer) {
+            if (metrics != null) {
+                long waitNanos = System.nanoTime() - customer.arrivedAt;
+                metrics.recordWaitTimeNanos(waitNanos);
+                metrics.recordLatency(SleepingBarber.LATENCY_QUEUE, waitNanos);
+            }
+            barber.tell(customer);
+        }
+    }
+
+    private class Barber extends Actor {
+        private final int id;
+        private final Shop shop;
+        private Customer current = null;
+        private long cutStart;
+
+        Barber(int id, Shop shop) {
+            super(ActorSleepingBarber.this.system, 2);
+            this.id = id;
+            this.shop = shop;
+        }
+
+        @Override
+        protected void receive(Object message) {
+            if (message instanceof Customer) {
+                current = (Customer) message;
+                cutStart = System.nanoTime();
+                Logger.log("Barber " + id + " is cutting hair of customer " + current.id);
+                tellLater(this, HAIRCUT_DONE, randomBetween(haircutMinMs, haircutMaxMs));
+            } else if (message == HAIRCUT_DONE) {
+                if (metrics != null) {
+                    metrics.recordActiveTime((System.nanoTime() - cutStart) / 1_000_000L);
+                    metrics.recordOperation(id);
+                }
+                current.tell(HAIRCUT_DONE);
+                current = null;
+                shop.tell(this);
+            }
+        }
+    }
+
+    private class Customer extends Actor {
+        private final int id;
+        private final Shop shop;
+        private long arrivedAt; // Written before the customer is sent to the shop, read by the shop
+
+        Customer(int id, Shop shop) {
+            super(ActorSleepingBarber.this.system, 2);
+            this.id = id;
+            this.shop = shop;
+        }
+
+        @Override
+        protected void receive(Object message) {
+            if (message == ARRIVE) {
+                Logger.log("Customer " + id + " arrived.");
+                arrivedAt = System.nanoTime();
+                shop.tell(this);
+            } else {
+                // Served or balked, come back later either way
+                tellLater(this, ARRIVE, randomBetween(returnMinMs, returnMaxMs));
+            }
+        }
+    }
+
+    private static int randomBetween(int minMs, int maxMs) {
+        return maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : maxMs;
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Actor Sleeping Barber...");
+        if (system != null) {
+            if (metrics != null)
+                metrics.recordEvent(ActorSystem.EVENT_MAILBOX_REJECTIONS, system.getRejectedMessages());
+            system.shutdown();
+            system = null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.sync.simulator;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs any number of {@link Actor}s on a small fixed pool of carrier threads, plus one timer
+ * thread for delayed messages. An actor with an empty mailbox costs no thread at all.
+ */
+public class ActorSystem {
+    public static final String EVENT_MAILBOX_REJECTIONS = "Mailbox Rejections";
+
+    private final int carrierCount;
+    private final ThreadPoolExecutor carriers;
+    private final ScheduledThreadPoolExecutor timer;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile boolean running = true;
+
+    public ActorSystem(String name, int carrierCount) {
+        this.carrierCount = carrierCount;
+        // One FIFO run queue for every carrier. A work-stealing pool would run an actor that
+        // reschedules itself from its carrier's local queue ahead of actors woken by the timer.
+        AtomicInteger carrierIds = new AtomicInteger(0);
+        this.carriers = new ThreadPoolExecutor(carrierCount, carrierCount, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> new Thread(r, name + "-Carrier-" + carrierIds.getAndIncrement()));
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, name + "-Timer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public int getCarrierCount() {
+        return carrierCount;
+    }
+
+    void execute(Actor actor) {
+        try {
+            carriers.execute(actor);
+        } catch (RejectedExecutionException e) {
+            if (running)
+                throw e;
+        }
+    }
+
+    void schedule(Actor to, Object message, int delayMs) {
+        try {
+            timer.schedule(() -> to.tell(message), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (running)
+                throw e;
+        }
+    }
+
+    void recordProcessed() {
+        processed.increment();
+    }
+
+    void recordRejection() {
+        rejected.increment();
+    }
+
+    public long getProcessedMessages() {
+        return processed.sum();
+    }
+
+    /**
+     * Messages dropped because the receiving mailbox was full.
+     */
+    public long getRejectedMessages() {
+        return rejected.sum();
+    }
+
+    /**
+     * Stops the timer and the carriers; queued messages are discarded.
+     */
+    public void shutdown() {
+        running = false;
+        timer.shutdownNow();
+        carriers.shutdownNow();
+        try {
+            carriers.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.sync.simulator;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cigarette Smokers in continuation style, on {@link AsyncSemaphore}s. The fixed mode is the
+ * pusher solution: one pusher per ingredient notes what is on the table under a mutex and
+ * signals the smoker type that holds the missing third. Smoker i holds ingredient i mod 3,
+ * and several agents may be placing at once, so the table keeps counts rather than flags.
+ * The broken mode has smokers take their two ingredients straight off the table one at a
+ * time, and two smokers each holding half a pair stall every agent.
+ */
+public class AsyncCigaretteSmokers implements SyncProblem, BenchmarkCapable {
+    private static final int TYPES = 3;
+    private static final String[] NAMES = { "Tobacco", "Paper", "Matches" };
+
+    private final int numSmokers;
+    private final int numAgents;
+    private final int threadCount;
+    private ContinuationExecutor executor = null;
+    private PerformanceMetrics metrics = null;
+    private int smokeMs = 1000;
+
+    private AsyncSemaphore agentSem; // One permit per agent with nothing on the table
+    private AsyncSemaphore mutex;
+    private final AsyncSemaphore[] ingredients = new AsyncSemaphore[TYPES];
+    private final AsyncSemaphore[] smokerSems = new AsyncSemaphore[TYPES]; // By the ingredient held
+    private final int[] onTable = new int[TYPES]; // Guarded by mutex
+
+    public AsyncCigaretteSmokers() {
+        this(3, 1, Runtime.getRuntime().availableProcessors());
+    }
+
+    public AsyncCigaretteSmokers(int numSmokers, int numAgents, int threadCount) {
+        if (numSmokers < TYPES)
+            throw new IllegalArgumentException("At least one smoker per ingredient is required");
+        this.numSmokers = numSmokers;
+        this.numAgents = numAgents;
+        this.threadCount = threadCount;
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setTiming(int smokeMs) {
+        this.smokeMs = smokeMs;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Async Cigarette Smokers (Broken - Smokers Take One Ingredient at a Time)...");
+        start(true);
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Async Cigarette Smokers (Fixed - Pushers, " + numSmokers + " smokers, " + numAgents
+                + " agents, " + threadCount + " threads)...");
+        start(false);
+    }
+
+    private void start(boolean broken) {
+        if (metrics != null)
+            metrics.setActorCount(numSmokers);
+        agentSem = new AsyncSemaphore(numAgents);
+        mutex = new AsyncSemaphore(1);
+        for (int t = 0; t < TYPES; t++) {
+            ingredients[t] = new AsyncSemaphore(0);
+            smokerSems[t] = new AsyncSemaphore(0);
+            onTable[t] = 0;
+        }
+        executor = new ContinuationExecutor("Smokers", threadCount);
+        for (int i = 0; i < numAgents; i++) {
+            place(executor, i);
+        }
+        if (!broken) {
+            for (int t = 0; t < TYPES; t++) {
+                push(executor, t);
+            }
+        }
+        for (int i = 0; i < numSmokers; i++) {
+            smoke(executor, i, broken);
+        }
+    }
+
+    private void place(ContinuationExecutor executor, int id) {
+        if (!executor.isRunning())
+            return;
+        agentSem.acquireAsync()
+                .thenRunAsync(() -> {
+                    int skip = ThreadLocalRandom.current().nextInt(TYPES); // The ingredient left out
+                    Logger.log("Agent " + id + " places " + NAMES[(skip + 1) % TYPES] + " and "
+                            + NAMES[(skip + 2) % TYPES]);
+                    ingredients[(skip + 1) % TYPES].release();
+                    ingredients[(skip + 2) % TYPES].release();
+                    place(executor, id);
+                }, executor);
+    }
+
+    /**
+     * Pairs ingredient {@code type} with whatever complementary ingredient is already on the
+     * table, or leaves it there for the next pusher.
+     */
+    private void push(ContinuationExecutor executor, int type) {
+        if (!executor.isRunning())
+            return;
+        ingredients[type].acquireAsync()
+                .thenComposeAsync(v -> mutex.acquireAsync(), executor)
+                .thenRunAsync(() -> {
+                    int a = (type + 1) % TYPES;
+                    int b = (type + 2) % TYPES;
+                    if (onTable[a] > 0) {
+                        onTable[a]--;
+                        smokerSems[b].release(); // Holds the third ingredient
+                    } else if (onTable[b] > 0) {
+                        onTable[b]--;
+                        smokerSems[a].release();
+                    } else {
+                        onTable[type]++;
+                    }
+                    mutex.release();
+                    push(executor, type);
+                }, executor);
+    }
+
+    private void smoke(ContinuationExecutor executor, int id, boolean broken) {
+        if (!executor.isRunning())
+            return;
+        int holds = id % TYPES;
+        long readySince = System.nanoTime();
+        CompletableFuture<Void> pair;
+        if (broken) {
+            // BROKEN: grabs one needed ingredient, then waits for the other
+            pair = ingredients[(holds + 1) % TYPES].acquireAsync()
+                    .thenComposeAsync(v -> ingredients[(holds + 2) % TYPES].acquireAsync(), executor);
+        } else {
+            pair = smokerSems[holds].acquireAsync();
+        }
+        long[] smokeStart = new long[1];
+        pair.thenComposeAsync(v -> {
+            smokeStart[0] = System.nanoTime();
+            if (metrics != null)
+                metrics.recordWaitTimeNanos(smokeStart[0] - readySince);
+            Logger.log("Smoker " + id + " with " + NAMES[holds] + " smokes.");
+            agentSem.release(); // The table is clear for an agent
+            return executor.delay(smokeMs);
+        }, executor).thenRunAsync(() -> {
+            if (metrics != null) {
+                metrics.recordActiveTime((System.nanoTime() - smokeStart[0]) / 1_000_000L);
+                metrics.recordOperation(id);
+            }
+            smoke(executor, id, broken);
+        }, executor);
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Async Cigarette Smokers...");
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.sync.simulator;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Dining Philosophers in continuation style: forks are {@link AsyncSemaphore}s and each
+ * philosopher is a chain of futures on a {@link ContinuationExecutor}, so a hungry
+ * philosopher waiting for a fork holds no thread. The fixed mode is the asymmetric order
+ * (even philosophers take the left fork first, odd ones the right), which keeps wait chains
+ * to two philosophers; with FIFO fork handoff a resource hierarchy lets chains grow around
+ * the whole table. The broken mode takes the left fork first and deadlocks just as the
+ * blocking version does, only with zero threads parked.
+ */
+public class AsyncDiningPhilosophers implements SyncProblem, BenchmarkCapable {
+    private final int numPhilosophers;
+    private final int threadCount;
+    private ContinuationExecutor executor = null;
+    private PerformanceMetrics metrics = null;
+
+    // Think/eat durations in ms (upper bound exclusive)
+    private int thinkMinMs = 500;
+    private int thinkMaxMs = 1000;
+    private int eatMinMs = 500;
+    private int eatMaxMs = 1000;
+
+    public AsyncDiningPhilosophers() {
+        this(5, Runtime.getRuntime().availableProcessors());
+    }
+
+    public AsyncDiningPhilosophers(int numPhilosophers, int threadCount) {
+        if (numPhilosophers < 2)
+            throw new IllegalArgumentException("At least 2 philosophers are required");
+        this.numPhilosophers = numPhilosophers;
+        this.threadCount = threadCount;
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setTiming(int thinkMinMs, int thinkMaxMs, int eatMinMs, int eatMaxMs) {
+        this.thinkMinMs = thinkMinMs;
+        this.thinkMaxMs = thinkMaxMs;
+        this.eatMinMs = eatMinMs;
+        this.eatMaxMs = eatMaxMs;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Async Dining Philosophers (Broken - Left Fork First, N=" + numPhilosophers + ")...");
+        start(true);
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Async Dining Philosophers (Fixed - Asymmetric, N=" + numPhilosophers + ", "
+                + threadCount + " threads)...");
+        start(false);
+    }
+
+    private void start(boolean broken) {
+        if (metrics != null)
+            metrics.setActorCount(numPhilosophers);
+        executor = new ContinuationExecutor("Dining", threadCount);
+        AsyncSemaphore[] forks = new AsyncSemaphore[numPhilosophers];
+        for (int i = 0; i < numPhilosophers; i++) {
+            forks[i] = new AsyncSemaphore(1);
+        }
+        for (int i = 0; i < numPhilosophers; i++) {
+            int left = i;
+            int right = (i + 1) % numPhilosophers;
+            if (broken)
+                dine(executor, i, forks[left], forks[right]);
+            else if (i % 2 == 0)
+                dine(executor, i, forks[left], forks[right]);
+            else
+                dine(executor, i, forks[right], forks[left]);
+        }
+    }
+
+    /**
+     * One think-eat cycle; the last step starts the next one.
+     */
+    private void dine(ContinuationExecutor executor, int id, AsyncSemaphore first, AsyncSemaphore second) {
+        if (!executor.isRunning())
+            return;
+        long[] hungrySince = new long[1];
+        executor.delay(randomBetween(thinkMinMs, thinkMaxMs))
+                .thenComposeAsync(v -> {
+                    hungrySince[0] = System.nanoTime();
+                    return first.acquireAsync();
+                }, executor)
+                .thenComposeAsync(v -> {
+                    Logger.log("Philosopher " + id + " picked up first fork");
+                    return second.acquireAsync();
+                }, executor)
+                .thenComposeAsync(v -> {
+                    long eatStart = System.nanoTime();
+                    if (metrics != null)
+                        metrics.recordWaitTimeNanos(eatStart - hungrySince[0]);
+                    Logger.log("Philosopher " + id + " is eating");
+                    return executor.delay(randomBetween(eatMinMs, eatMaxMs)).thenApply(w -> eatStart);
+                }, executor)
+                .thenAcceptAsync(eatStart -> {
+                    second.release();
+                    first.release();
+                    if (metrics != null) {
+                        metrics.recordActiveTime((System.nanoTime() - eatStart) / 1_000_000L);
+                        metrics.recordOperation(id);
+                    }
+                    dine(executor, id, first, second);
+                }, executor);
+    }
+
+    private static int randomBetween(int minMs, int maxMs) {
+        return maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : maxMs;
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Async Dining Philosophers...");
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+}
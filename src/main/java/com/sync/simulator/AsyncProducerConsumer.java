@@ -0,0 +1,146 @@
+package com.sync.simulator;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Producer-Consumer in continuation style: the classic empty/full/mutex semaphores become
+ * {@link AsyncSemaphore}s, and a producer facing a full buffer is a pending future instead of
+ * a parked thread. The broken mode skips the empty-slot semaphore and overflows the buffer.
+ */
+public class AsyncProducerConsumer implements SyncProblem, BenchmarkCapable {
+    private final int numProducers;
+    private final int numConsumers;
+    private final int bufferSize;
+    private final int threadCount;
+    private final ArrayDeque<Integer> buffer = new ArrayDeque<>(); // Guarded by mutex
+    private ContinuationExecutor executor = null;
+    private PerformanceMetrics metrics = null;
+    private AsyncSemaphore mutex;
+    private AsyncSemaphore empty;
+    private AsyncSemaphore full;
+
+    // Produce/consume durations in ms (upper bound exclusive)
+    private int produceMinMs = 100;
+    private int produceMaxMs = 300;
+    private int consumeMinMs = 150;
+    private int consumeMaxMs = 400;
+
+    public AsyncProducerConsumer() {
+        this(2, 3, 5, Runtime.getRuntime().availableProcessors());
+    }
+
+    public AsyncProducerConsumer(int numProducers, int numConsumers, int bufferSize, int threadCount) {
+        if (bufferSize < 1)
+            throw new IllegalArgumentException("Buffer size must be positive");
+        this.numProducers = numProducers;
+        this.numConsumers = numConsumers;
+        this.bufferSize = bufferSize;
+        this.threadCount = threadCount;
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setTiming(int produceMinMs, int produceMaxMs, int consumeMinMs, int consumeMaxMs) {
+        this.produceMinMs = produceMinMs;
+        this.produceMaxMs = produceMaxMs;
+        this.consumeMinMs = consumeMinMs;
+        this.consumeMaxMs = consumeMaxMs;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Async Producer-Consumer (Broken - No Empty-Slot Semaphore)...");
+        start(true);
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Async Producer-Consumer (Fixed - Async Semaphores, " + numProducers + "P/"
+                + numConsumers + "C, " + threadCount + " threads)...");
+        start(false);
+    }
+
+    private void start(boolean broken) {
+        if (metrics != null)
+            metrics.setActorCount(numProducers + numConsumers); // Consumers follow the producers
+        buffer.clear();
+        mutex = new AsyncSemaphore(1);
+        empty = new AsyncSemaphore(bufferSize);
+        full = new AsyncSemaphore(0);
+        executor = new ContinuationExecutor("ProducerConsumer", threadCount);
+        for (int i = 0; i < numProducers; i++) {
+            produce(executor, i, 0, broken);
+        }
+        for (int i = 0; i < numConsumers; i++) {
+            consume(executor, numProducers + i);
+        }
+    }
+
+    private void produce(ContinuationExecutor executor, int id, int item, boolean broken) {
+        if (!executor.isRunning())
+            return;
+        long[] putAt = new long[1];
+        executor.delay(randomBetween(produceMinMs, produceMaxMs))
+                .thenComposeAsync(v -> {
+                    putAt[0] = System.nanoTime();
+                    // BROKEN: never waits for a free slot
+                    return broken ? executor.delay(0) : empty.acquireAsync();
+                }, executor)
+                .thenComposeAsync(v -> mutex.acquireAsync(), executor)
+                .thenRunAsync(() -> {
+                    buffer.add(item);
+                    int count = buffer.size();
+                    mutex.release();
+                    full.release();
+                    Logger.log("Producer " + id + " produced item " + item + ". Count: " + count);
+                    if (count > bufferSize) {
+                        Logger.log("!!! VIOLATION !!! Buffer overflow! count=" + count);
+                        if (metrics != null)
+                            metrics.recordViolation(Violation.BUFFER_OVERFLOW);
+                    }
+                    if (metrics != null) {
+                        metrics.recordWaitTimeNanos(System.nanoTime() - putAt[0]);
+                        metrics.updateQueueLength(count);
+                        metrics.recordOperation(id);
+                    }
+                    produce(executor, id, item + 1, broken);
+                }, executor);
+    }
+
+    private void consume(ContinuationExecutor executor, int id) {
+        if (!executor.isRunning())
+            return;
+        long takeAt = System.nanoTime();
+        full.acquireAsync()
+                .thenComposeAsync(v -> mutex.acquireAsync(), executor)
+                .thenComposeAsync(v -> {
+                    Integer item = buffer.poll();
+                    mutex.release();
+                    empty.release();
+                    if (metrics != null) {
+                        metrics.recordWaitTimeNanos(System.nanoTime() - takeAt);
+                        metrics.recordOperation(id);
+                    }
+                    Logger.log("Consumer " + (id - numProducers) + " consumed item " + item);
+                    return executor.delay(randomBetween(consumeMinMs, consumeMaxMs));
+                }, executor)
+                .thenRunAsync(() -> consume(executor, id), executor);
+    }
+
+    private static int randomBetween(int minMs, int maxMs) {
+        return maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : maxMs;
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Async Producer-Consumer...");
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+}
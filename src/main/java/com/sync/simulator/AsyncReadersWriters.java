@@ -0,0 +1,188 @@
+package com.sync.simulator;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Readers-Writers in continuation style: the READER_PRIORITY mutex/wrt pair of
+ * {@link ReadersWriters} on {@link AsyncSemaphore}s. The first reader in takes wrt for the
+ * whole group and the last one out hands it back; a writer waiting behind them is a pending
+ * future. The broken mode has readers skip wrt entirely.
+ */
+public class AsyncReadersWriters implements SyncProblem, BenchmarkCapable {
+    private final int numReaders;
+    private final int numWriters;
+    private final int threadCount;
+    private ContinuationExecutor executor = null;
+    private PerformanceMetrics metrics = null;
+    private AsyncSemaphore mutex;
+    private AsyncSemaphore wrt;
+    private int readCount = 0; // Guarded by mutex
+    private int sharedData = 0; // Guarded by wrt
+    private final AtomicInteger activeReaders = new AtomicInteger(0);
+    private final AtomicInteger activeWriters = new AtomicInteger(0);
+
+    // Read/write and idle durations in ms (idle upper bound exclusive)
+    private int readMs = 500;
+    private int writeMs = 500;
+    private int idleMinMs = 500;
+    private int idleMaxMs = 1500;
+
+    public AsyncReadersWriters() {
+        this(5, 2, Runtime.getRuntime().availableProcessors());
+    }
+
+    public AsyncReadersWriters(int numReaders, int numWriters, int threadCount) {
+        this.numReaders = numReaders;
+        this.numWriters = numWriters;
+        this.threadCount = threadCount;
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setTiming(int readMs, int writeMs, int idleMinMs, int idleMaxMs) {
+        this.readMs = readMs;
+        this.writeMs = writeMs;
+        this.idleMinMs = idleMinMs;
+        this.idleMaxMs = idleMaxMs;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Async Readers-Writers (Broken - Readers Ignore the Writer Lock)...");
+        start(true);
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Async Readers-Writers (Fixed - Reader Priority, " + numReaders + " readers, "
+                + numWriters + " writers, " + threadCount + " threads)...");
+        start(false);
+    }
+
+    private void start(boolean broken) {
+        if (metrics != null)
+            metrics.setActorCount(numReaders + numWriters); // Writers follow the readers
+        mutex = new AsyncSemaphore(1);
+        wrt = new AsyncSemaphore(1);
+        readCount = 0;
+        activeReaders.set(0);
+        activeWriters.set(0);
+        executor = new ContinuationExecutor("ReadersWriters", threadCount);
+        for (int i = 0; i < numReaders; i++) {
+            read(executor, i, broken);
+        }
+        for (int i = 0; i < numWriters; i++) {
+            write(executor, numReaders + i);
+        }
+    }
+
+    private void read(ContinuationExecutor executor, int id, boolean broken) {
+        if (!executor.isRunning())
+            return;
+        long[] waitStart = new long[1];
+        executor.delay(randomBetween(idleMinMs, idleMaxMs))
+                .thenComposeAsync(v -> {
+                    waitStart[0] = System.nanoTime();
+                    return broken ? executor.delay(0) : enterRead(executor);
+                }, executor)
+                .thenComposeAsync(v -> {
+                    long readStart = System.nanoTime();
+                    if (metrics != null) {
+                        metrics.recordWaitTimeNanos(readStart - waitStart[0]);
+                        metrics.recordLatency(ReadersWriters.LATENCY_READER_WAIT, readStart - waitStart[0]);
+                    }
+                    activeReaders.incrementAndGet();
+                    if (activeWriters.get() > 0) {
+                        Logger.log("!!! VIOLATION !!! Reader " + id + " is reading while Writer is writing!");
+                        if (metrics != null)
+                            metrics.recordViolation(Violation.READER_WRITER_OVERLAP);
+                    }
+                    Logger.log("Reader " + id + " is reading data: " + sharedData);
+                    return executor.delay(readMs);
+                }, executor)
+                .thenComposeAsync(v -> {
+                    activeReaders.decrementAndGet();
+                    if (metrics != null) {
+                        metrics.recordOperation(id);
+                        metrics.recordEvent(ReadersWriters.EVENT_READS);
+                    }
+                    return broken ? executor.delay(0) : exitRead(executor);
+                }, executor)
+                .thenRunAsync(() -> read(executor, id, broken), executor);
+    }
+
+    private CompletableFuture<Void> enterRead(ContinuationExecutor executor) {
+        return mutex.acquireAsync().thenComposeAsync(v -> {
+            if (++readCount > 1) {
+                mutex.release();
+                return executor.delay(0);
+            }
+            // First reader in waits for the writer on behalf of the group, still holding mutex
+            return wrt.acquireAsync().thenRun(mutex::release);
+        }, executor);
+    }
+
+    private CompletableFuture<Void> exitRead(ContinuationExecutor executor) {
+        return mutex.acquireAsync().thenRunAsync(() -> {
+            if (--readCount == 0)
+                wrt.release();
+            mutex.release();
+        }, executor);
+    }
+
+    private void write(ContinuationExecutor executor, int id) {
+        if (!executor.isRunning())
+            return;
+        long[] waitStart = new long[1];
+        long[] writeStart = new long[1];
+        executor.delay(randomBetween(idleMinMs, idleMaxMs))
+                .thenComposeAsync(v -> {
+                    waitStart[0] = System.nanoTime();
+                    return wrt.acquireAsync();
+                }, executor)
+                .thenComposeAsync(v -> {
+                    writeStart[0] = System.nanoTime();
+                    if (metrics != null) {
+                        metrics.recordWaitTimeNanos(writeStart[0] - waitStart[0]);
+                        metrics.recordLatency(ReadersWriters.LATENCY_WRITER_WAIT, writeStart[0] - waitStart[0]);
+                    }
+                    activeWriters.incrementAndGet();
+                    if (activeReaders.get() > 0 || activeWriters.get() > 1) {
+                        Logger.log("!!! VIOLATION !!! Writer " + id + " is writing while others are active!");
+                        if (metrics != null)
+                            metrics.recordViolation(Violation.READER_WRITER_OVERLAP);
+                    }
+                    sharedData++;
+                    Logger.log("Writer " + id + " updated data to: " + sharedData);
+                    return executor.delay(writeMs);
+                }, executor)
+                .thenRunAsync(() -> {
+                    activeWriters.decrementAndGet();
+                    wrt.release();
+                    if (metrics != null) {
+                        metrics.recordLatency(ReadersWriters.LATENCY_WRITE, System.nanoTime() - writeStart[0]);
+                        metrics.recordOperation(id);
+                        metrics.recordEvent(ReadersWriters.EVENT_WRITES);
+                    }
+                    write(executor, id);
+                }, executor);
+    }
+
+    private static int randomBetween(int minMs, int maxMs) {
+        return maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : maxMs;
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Async Readers-Writers...");
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+}
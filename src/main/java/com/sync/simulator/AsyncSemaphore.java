@@ -0,0 +1,67 @@
+package com.sync.simulator;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A counting semaphore that never blocks the caller: {@link #acquireAsync()} returns a future
+ * that completes once a permit is granted. Waiters are served in FIFO order, and a release
+ * hands its permit straight to the oldest waiter, so a waiting actor holds no thread.
+ * <p>
+ * The granted future is completed on the releasing thread. Callers that chain further work
+ * should continue with the {@code *Async} variants on their own executor, otherwise a
+ * release runs the waiter's continuation inline.
+ */
+public class AsyncSemaphore {
+    private static final CompletableFuture<Void> GRANTED = CompletableFuture.completedFuture(null);
+
+    private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private int permits;
+
+    public AsyncSemaphore(int permits) {
+        if (permits < 0)
+            throw new IllegalArgumentException("Permits must not be negative");
+        this.permits = permits;
+    }
+
+    public CompletableFuture<Void> acquireAsync() {
+        CompletableFuture<Void> waiter;
+        synchronized (this) {
+            if (permits > 0 && waiters.isEmpty()) {
+                permits--;
+                return GRANTED;
+            }
+            waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+        }
+        return waiter;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (permits > 0 && waiters.isEmpty()) {
+            permits--;
+            return true;
+        }
+        return false;
+    }
+
+    public void release() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            next = waiters.poll();
+            if (next == null) {
+                permits++;
+                return;
+            }
+        }
+        next.complete(null); // Outside the lock: this may run the waiter's continuation
+    }
+
+    public synchronized int availablePermits() {
+        return permits;
+    }
+
+    public synchronized int getQueueLength() {
+        return waiters.size();
+    }
+}
@@ -0,0 +1,158 @@
+package com.sync.simulator;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sleeping Barber in continuation style. The customers/mutex pair of the semaphore solution
+ * becomes {@link AsyncSemaphore}s, and a seated customer waits on a zero-permit semaphore of
+ * its own that the barber releases when it calls them. A sleeping barber and a waiting
+ * customer each cost one pending future. Customers come back after every haircut or balk.
+ * The broken mode ignores the chair count.
+ */
+public class AsyncSleepingBarber implements SyncProblem, BenchmarkCapable {
+    private final int numBarbers;
+    private final int chairs;
+    private final int numCustomers;
+    private final int threadCount;
+    private ContinuationExecutor executor = null;
+    private PerformanceMetrics metrics = null;
+    private AsyncSemaphore mutex;
+    private AsyncSemaphore customers;
+    private final ArrayDeque<AsyncSemaphore> waitingRoom = new ArrayDeque<>(); // Guarded by mutex
+
+    // Haircut and time-away durations in ms (upper bound exclusive)
+    private int haircutMinMs = 1000;
+    private int haircutMaxMs = 3000;
+    private int returnMinMs = 2000;
+    private int returnMaxMs = 5000;
+
+    public AsyncSleepingBarber() {
+        this(1, 3, 10, Runtime.getRuntime().availableProcessors());
+    }
+
+    public AsyncSleepingBarber(int numBarbers, int chairs, int numCustomers, int threadCount) {
+        this.numBarbers = numBarbers;
+        this.chairs = chairs;
+        this.numCustomers = numCustomers;
+        this.threadCount = threadCount;
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setTiming(int haircutMinMs, int haircutMaxMs, int returnMinMs, int returnMaxMs) {
+        this.haircutMinMs = haircutMinMs;
+        this.haircutMaxMs = haircutMaxMs;
+        this.returnMinMs = returnMinMs;
+        this.returnMaxMs = returnMaxMs;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Async Sleeping Barber (Broken - Chair Count Ignored)...");
+        start(true);
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Async Sleeping Barber (Fixed - Async Semaphores, " + numBarbers + " barbers, "
+                + chairs + " chairs, " + numCustomers + " customers, " + threadCount + " threads)...");
+        start(false);
+    }
+
+    private void start(boolean broken) {
+        if (metrics != null)
+            metrics.setActorCount(numBarbers);
+        waitingRoom.clear();
+        mutex = new AsyncSemaphore(1);
+        customers = new AsyncSemaphore(0);
+        executor = new ContinuationExecutor("Barber", threadCount);
+        for (int i = 0; i < numBarbers; i++) {
+            cutHair(executor, i);
+        }
+        for (int i = 0; i < numCustomers; i++) {
+            visit(executor, i, broken);
+        }
+    }
+
+    private void cutHair(ContinuationExecutor executor, int id) {
+        if (!executor.isRunning())
+            return;
+        long[] cutStart = new long[1];
+        customers.acquireAsync() // Sleeps until a customer is seated
+                .thenComposeAsync(v -> mutex.acquireAsync(), executor)
+                .thenComposeAsync(v -> {
+                    AsyncSemaphore customer = waitingRoom.poll();
+                    mutex.release();
+                    customer.release(); // Calls the customer to the chair
+                    cutStart[0] = System.nanoTime();
+                    Logger.log("Barber " + id + " is cutting hair");
+                    return executor.delay(randomBetween(haircutMinMs, haircutMaxMs));
+                }, executor)
+                .thenRunAsync(() -> {
+                    if (metrics != null) {
+                        metrics.recordActiveTime((System.nanoTime() - cutStart[0]) / 1_000_000L);
+                        metrics.recordOperation(id);
+                    }
+                    cutHair(executor, id);
+                }, executor);
+    }
+
+    private void visit(ContinuationExecutor executor, int id, boolean broken) {
+        if (!executor.isRunning())
+            return;
+        AsyncSemaphore called = new AsyncSemaphore(0);
+        long[] arrivedAt = new long[1];
+        executor.delay(randomBetween(returnMinMs, returnMaxMs))
+                .thenComposeAsync(v -> {
+                    arrivedAt[0] = System.nanoTime();
+                    return mutex.acquireAsync();
+                }, executor)
+                .thenComposeAsync(v -> {
+                    if (metrics != null)
+                        metrics.recordEvent(SleepingBarber.EVENT_ARRIVALS);
+                    if (!broken && waitingRoom.size() >= chairs) {
+                        mutex.release();
+                        Logger.log("Customer " + id + " left (Wait room full).");
+                        if (metrics != null)
+                            metrics.recordEvent(SleepingBarber.EVENT_BALKS);
+                        return executor.delay(0);
+                    }
+                    waitingRoom.add(called);
+                    int seated = waitingRoom.size();
+                    mutex.release();
+                    customers.release(); // Wakes a barber
+                    if (seated > chairs) {
+                        Logger.log("!!! VIOLATION !!! " + seated + " customers seated on " + chairs + " chairs");
+                        if (metrics != null)
+                            metrics.recordViolation(Violation.CHAIR_OVERCOUNT);
+                    }
+                    if (metrics != null)
+                        metrics.updateQueueLength(seated);
+                    return called.acquireAsync().thenRun(() -> {
+                        if (metrics != null) {
+                            long waitNanos = System.nanoTime() - arrivedAt[0];
+                            metrics.recordWaitTimeNanos(waitNanos);
+                            metrics.recordLatency(SleepingBarber.LATENCY_QUEUE, waitNanos);
+                        }
+                    });
+                }, executor)
+                .thenRunAsync(() -> visit(executor, id, broken), executor);
+    }
+
+    private static int randomBetween(int minMs, int maxMs) {
+        return maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : maxMs;
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Async Sleeping Barber...");
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+}
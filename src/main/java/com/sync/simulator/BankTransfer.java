@@ -0,0 +1,278 @@
+package com.sync.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transfers between arbitrary accounts: the Dining Philosophers two-resource problem without
+ * the ring. Every transfer locks its source and destination account, picked uniformly or from
+ * a Zipfian distribution, and moves a random amount if the source can cover it. Money is never
+ * created or destroyed, so the total balance is audited when the run stops.
+ * <p>
+ * The broken mode locks the source and then the destination, and two opposite transfers
+ * between the same pair deadlock. Its locks are tracked for the watchdog, which costs a few
+ * hundred bytes per account, so keep broken runs to small tables.
+ */
+public class BankTransfer implements SyncProblem, BenchmarkCapable, DeadlockDetectable, WorkloadCapable {
+    public static final String EVENT_DECLINED = "Declined Transfers";
+    public static final String EVENT_BACKOFFS = "Backoffs";
+    public static final String LATENCY_TRANSFER = "Transfer Latency";
+
+    /**
+     * Solutions used by {@link #runFixed()}.
+     */
+    public enum Solution {
+        ORDERED, // Per-account locks, always taken lowest account id first
+        STRIPED, // Account k is guarded by stripe k % stripeCount; stripes taken lowest first
+        TRY_LOCK_BACKOFF, // Source then destination, but drop the source and back off if the destination is busy
+        GLOBAL_LOCK // One lock for the whole bank
+    }
+
+    private static final long INITIAL_BALANCE = 1000;
+    private static final int MAX_AMOUNT = 100;
+    private static final long MIN_BACKOFF_NANOS = 1_000; // 1 us
+    private static final long MAX_BACKOFF_NANOS = 1_000_000; // 1 ms
+
+    private final Solution solution;
+    private final KeyDistribution accounts;
+    private final int numTellers;
+    private final long[] balances; // Guarded by the lock(s) covering each account
+    private final Semaphore[] stripes;
+    private final Semaphore globalLock = new Semaphore(1);
+    private Semaphore[] accountLocks = null; // Only allocated by the modes that lock accounts
+    private final WaitForGraph waitForGraph = new WaitForGraph();
+
+    private final List<Thread> activeThreads = new ArrayList<>();
+    private PerformanceMetrics metrics = null;
+    private Workload workload = Workload.sleep();
+
+    // Time spent holding the locks and between transfers in ms (idle upper bound exclusive)
+    private int holdMs = 200;
+    private int idleMinMs = 500;
+    private int idleMaxMs = 1500;
+
+    public BankTransfer() {
+        this(Solution.ORDERED, KeyDistribution.uniform(10), 4, 4);
+    }
+
+    /**
+     * @param accounts    picks the accounts of each transfer; its key count is the number of accounts
+     * @param stripeCount lock stripes for {@link Solution#STRIPED}
+     */
+    public BankTransfer(Solution solution, KeyDistribution accounts, int numTellers, int stripeCount) {
+        if (accounts.getKeyCount() < 2)
+            throw new IllegalArgumentException("A transfer needs at least two accounts");
+        this.solution = solution;
+        this.accounts = accounts;
+        this.numTellers = numTellers;
+        this.balances = new long[accounts.getKeyCount()];
+        this.stripes = new Semaphore[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Semaphore(1);
+        }
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void setWorkload(Workload workload) {
+        this.workload = workload;
+    }
+
+    public void setTiming(int holdMs, int idleMinMs, int idleMaxMs) {
+        this.holdMs = holdMs;
+        this.idleMinMs = idleMinMs;
+        this.idleMaxMs = idleMaxMs;
+    }
+
+    @Override
+    public WaitForGraph getWaitForGraph() {
+        return waitForGraph;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Bank Transfer (Broken - Source Then Destination, Deadlock Prone)...");
+        // Tracked locks let a watchdog name who holds which account once transfers lock up
+        accountLocks = new Semaphore[balances.length];
+        for (int i = 0; i < balances.length; i++) {
+            accountLocks[i] = new TrackedSemaphore("Account-" + i, 1, true, waitForGraph);
+        }
+        startThreads(true);
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Bank Transfer (Fixed - " + solution + ", " + balances.length + " accounts, "
+                + accounts + ", " + numTellers + " tellers)...");
+        if (solution == Solution.ORDERED || solution == Solution.TRY_LOCK_BACKOFF) {
+            accountLocks = new Semaphore[balances.length];
+            for (int i = 0; i < balances.length; i++) {
+                accountLocks[i] = new Semaphore(1);
+            }
+        }
+        startThreads(false);
+    }
+
+    private void startThreads(boolean broken) {
+        if (metrics != null)
+            metrics.setActorCount(numTellers);
+        for (int i = 0; i < balances.length; i++) {
+            balances[i] = INITIAL_BALANCE;
+        }
+        for (int i = 0; i < numTellers; i++) {
+            final int id = i;
+            Thread t = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        transfer(id, broken);
+                        workload.run(randomBetween(idleMinMs, idleMaxMs));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Teller-" + id);
+            t.start();
+            activeThreads.add(t);
+        }
+    }
+
+    private void transfer(int id, boolean broken) throws InterruptedException {
+        int from = accounts.nextKey();
+        int to = accounts.nextKey();
+        while (to == from) {
+            to = accounts.nextKey();
+        }
+        int amount = ThreadLocalRandom.current().nextInt(1, MAX_AMOUNT + 1);
+
+        Semaphore first;
+        Semaphore second;
+        if (broken || solution == Solution.TRY_LOCK_BACKOFF) {
+            // BROKEN unless backing off: the lock order depends on the direction of the transfer
+            first = accountLocks[from];
+            second = accountLocks[to];
+        } else if (solution == Solution.ORDERED) {
+            first = accountLocks[Math.min(from, to)];
+            second = accountLocks[Math.max(from, to)];
+        } else if (solution == Solution.STRIPED) {
+            int a = from % stripes.length;
+            int b = to % stripes.length;
+            first = stripes[Math.min(a, b)];
+            second = a == b ? null : stripes[Math.max(a, b)];
+        } else {
+            first = globalLock;
+            second = null;
+        }
+
+        long waitStart = System.nanoTime();
+        if (!broken && solution == Solution.TRY_LOCK_BACKOFF)
+            acquireWithBackoff(first, second);
+        else
+            acquireBoth(first, second);
+        long lockedAt = System.nanoTime();
+        try {
+            if (metrics != null)
+                metrics.recordWaitTimeNanos(lockedAt - waitStart);
+            workload.run(holdMs);
+            // Debit and credit together, with nothing in between that can be interrupted
+            if (balances[from] >= amount) {
+                balances[from] -= amount;
+                balances[to] += amount;
+                Logger.log("Teller " + id + " moved " + amount + " from Account " + from + " to Account " + to);
+            } else {
+                Logger.log("Teller " + id + " declined " + amount + " from Account " + from + " (insufficient funds)");
+                if (metrics != null)
+                    metrics.recordEvent(EVENT_DECLINED);
+            }
+        } finally {
+            if (second != null)
+                second.release();
+            first.release();
+        }
+        if (metrics != null) {
+            metrics.recordLatency(LATENCY_TRANSFER, System.nanoTime() - waitStart);
+            metrics.recordOperation(id);
+        }
+    }
+
+    private static void acquireBoth(Semaphore first, Semaphore second) throws InterruptedException {
+        first.acquire();
+        if (second == null)
+            return;
+        try {
+            second.acquire();
+        } catch (InterruptedException e) {
+            first.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Holds nothing while blocking on the first lock, and never blocks on the second while
+     * holding the first, so no wait-for cycle can form. Backoff is randomized and doubles on
+     * each failure so two tellers after the same pair stop colliding.
+     */
+    private void acquireWithBackoff(Semaphore first, Semaphore second) throws InterruptedException {
+        long backoffNanos = MIN_BACKOFF_NANOS;
+        while (true) {
+            first.acquire();
+            if (second.tryAcquire())
+                return;
+            first.release();
+            if (metrics != null)
+                metrics.recordEvent(EVENT_BACKOFFS);
+            LockSupport.parkNanos(1 + ThreadLocalRandom.current().nextLong(backoffNanos));
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            backoffNanos = Math.min(MAX_BACKOFF_NANOS, backoffNanos * 2);
+        }
+    }
+
+    private static int randomBetween(int minMs, int maxMs) {
+        return maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : maxMs;
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Bank Transfer...");
+        for (Thread t : activeThreads) {
+            if (t != null && t.isAlive()) {
+                t.interrupt();
+            }
+        }
+        boolean quiescent = true;
+        for (Thread t : activeThreads) {
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            quiescent &= !t.isAlive();
+        }
+        activeThreads.clear();
+        accountLocks = null;
+        if (!quiescent) {
+            Logger.log("A teller did not stop; skipping the balance audit");
+            return;
+        }
+
+        long total = 0;
+        for (long balance : balances) {
+            total += balance;
+        }
+        long expected = INITIAL_BALANCE * balances.length;
+        if (total != expected) {
+            Logger.log("!!! VIOLATION !!! Total balance is " + total + ", expected " + expected);
+            if (metrics != null)
+                metrics.recordViolation(Violation.LOST_UPDATE);
+        } else {
+            Logger.log("Total balance conserved: " + total);
+        }
+    }
+}
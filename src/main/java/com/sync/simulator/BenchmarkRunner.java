@@ -1,13 +1,62 @@
 package com.sync.simulator;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Runs benchmarks for synchronization problems and aggregates results
  */
 public class BenchmarkRunner {
     private static final int BENCHMARK_DURATION_MS = 10000; // 10 seconds per benchmark
+    private static final int SCALING_DURATION_MS = 5000; // 5 seconds per configuration in sweeps
+    private static final int[] DINING_TABLE_SIZES = { 5, 100, 1000, 10000 };
+    private static final int[] DINING_CONTENTION_SIZES = { 5, 100 };
+    // Reader and writer thread counts for read:write ratios of 100:1, 10:1, 4:1 and 1:1
+    private static final int[][] READ_WRITE_MIXES = { { 100, 1 }, { 20, 2 }, { 8, 2 }, { 4, 4 } };
+    private static final int[] SNAPSHOT_READER_COUNTS = { 1, 4, 16, 64, 128 };
+    private static final int[] SNAPSHOT_STATE_SIZES = { 16, 4096, 262144 };
+    private static final int SHARDED_KEYSPACE = 1_000_000;
+    private static final int[] SHARDED_STRIPE_COUNTS = { 1, 16, 256, 4096 };
+    private static final double[] SHARDED_SKEWS = { 0.0, 0.5, 0.99 };
+    private static final int[] BARBER_POOL_SIZES = { 1, 2, 4, 8, 16 };
+    private static final double[] OPEN_LOOP_LOAD_FACTORS = { 0.5, 0.8, 0.9, 1.0, 1.1, 1.5 };
+    private static final int OPEN_LOOP_CLIENTS = 256;
+    private static final double[] HANDOFF_RATES = { 2000, 5000, 10000 };
+    private static final double[] SERVICE_CLASS_LOAD_FACTORS = { 0.8, 1.0, 1.2 };
+    private static final int[] MATCHING_INGREDIENT_TYPES = { 3, 6, 12, 24 };
+    private static final int[] MATCHING_SMOKER_COUNTS = { 3, 30, 300 };
+    private static final int MATCHING_AGENTS = 4;
+    private static final int[] LOCK_THREAD_COUNTS = { 2, 8, 32 };
+    private static final int[] LOCK_TABLE_SIZES = { 5, 32 };
+    private static final int[] COMBINING_THREAD_COUNTS = { 8, 16, 32, 64 };
+    private static final int[] COUNTER_THREAD_COUNTS = { 1, 2, 4, 8, 16 };
+    private static final int[] WAKEUP_WAITER_COUNTS = { 10, 100, 1000, 10000 };
+    private static final int[] ACTOR_TABLE_SIZES = { 5, 1000, 10000, 100000 };
+    private static final int MAX_THREAD_ACTORS = 1000; // Larger thread-per-actor runs take minutes just to start
+    private static final int[] ASYNC_ACTOR_COUNTS = { 1000, 10000, 50000 };
+    private static final int[] STM_TABLE_SIZES = { 5, 32, 128 };
+    private static final int[] STM_INGREDIENT_TYPES = { 3, 6, 12 };
+    private static final int STM_SMOKERS = 30;
+    private static final int[] BARRIER_WORKER_COUNTS = { 4, 16, 64, 256 };
+    private static final int[] BANK_ACCOUNT_COUNTS = { 1000, 1_000_000 };
+    private static final int BANK_TELLERS = 16;
+    private static final int BANK_STRIPES = 64;
+    private static final String EVENT_PEAK_THREADS = "Peak Threads";
+    private static final String EVENT_HEAP_GROWTH_KB = "Heap Growth KB";
+    private static final String EVENT_RSS_GROWTH_KB = "RSS Growth KB";
 
     private static String repeat(String str, int count) {
         StringBuilder sb = new StringBuilder();
@@ -17,10 +66,157 @@ public class BenchmarkRunner {
         return sb.toString();
     }
 
+    private static void printBanner(String title) {
+        printBanner(title, 70);
+    }
+
+    /**
+     * A title between two rules of '=' the given width, after a blank line.
+     */
+    private static void printBanner(String title, int width) {
+        System.out.println("\n" + repeat("=", width));
+        System.out.println(title);
+        System.out.println(repeat("=", width));
+    }
+
+    /**
+     * A results table's title banner, its column headings and a '-' rule under them.
+     */
+    private static void printTableHeader(String title, int width, String columnFormat, Object... columns) {
+        printBanner(title, width);
+        System.out.printf(columnFormat, columns);
+        System.out.println(repeat("-", width));
+    }
+
+    /**
+     * Runs a suite's benchmarks with logging off, since per-step logging would dominate the
+     * runs, and restores the previous setting afterwards.
+     */
+    private static void withLoggingDisabled(Runnable benchmarks) {
+        boolean logging = Logger.isEnabled();
+        Logger.setEnabled(false);
+        try {
+            benchmarks.run();
+        } finally {
+            Logger.setEnabled(logging);
+        }
+    }
+
+    /**
+     * What percentage of whole part is, or 0 when there was nothing to count.
+     */
+    private static double percentOf(long part, long whole) {
+        return whole > 0 ? 100.0 * part / whole : 0.0;
+    }
+
+    /**
+     * Prints the suite's banner and runs its configurations with logging off.
+     *
+     * @return the runs in the order the configurations added them
+     */
+    private static List<PerformanceMetrics> sweep(String title, Consumer<Sweep> configurations) {
+        printBanner(title);
+        Sweep sweep = new Sweep();
+        withLoggingDisabled(() -> configurations.accept(sweep));
+        return sweep.runs;
+    }
+
+    /**
+     * The runs of one suite, one table row each.
+     */
+    private static final class Sweep {
+        private final List<PerformanceMetrics> runs = new ArrayList<>();
+
+        /**
+         * Runs the fixed solution for the scaling duration.
+         */
+        PerformanceMetrics run(SyncProblem problem, String name) {
+            return add(benchmarkProblem(problem, name, true, SCALING_DURATION_MS));
+        }
+
+        /**
+         * Runs the broken version for the scaling duration, as a baseline row.
+         */
+        PerformanceMetrics runBroken(SyncProblem problem, String name) {
+            return add(benchmarkProblem(problem, name, false, SCALING_DURATION_MS));
+        }
+
+        PerformanceMetrics add(PerformanceMetrics metrics) {
+            runs.add(metrics);
+            return metrics;
+        }
+    }
+
+    /**
+     * A results table with one row per run. Each column has a heading, the printf conversion
+     * for its values (plus any literal suffix such as "%%") and the value for a run; the
+     * headings are aligned to the conversions and the rules span the row.
+     */
+    private static final class ResultTable {
+        private static final Pattern CONVERSION = Pattern.compile("%(-?)(\\d+)(\\.\\d+)?[a-z]");
+
+        /**
+         * A value that also depends on the run's position, for suites that keep per-run
+         * details in a list alongside the metrics.
+         */
+        interface Cell {
+            Object value(PerformanceMetrics m, int row);
+        }
+
+        private final String title;
+        private final List<String> headings = new ArrayList<>();
+        private final List<String> formats = new ArrayList<>();
+        private final List<Cell> cells = new ArrayList<>();
+
+        ResultTable(String title) {
+            this.title = title;
+        }
+
+        ResultTable column(String heading, String format, Function<PerformanceMetrics, Object> value) {
+            return column(heading, format, (m, row) -> value.apply(m));
+        }
+
+        ResultTable column(String heading, String format, Cell value) {
+            headings.add(heading);
+            formats.add(format);
+            cells.add(value);
+            return this;
+        }
+
+        void print(List<PerformanceMetrics> runs) {
+            StringBuilder headingFormat = new StringBuilder();
+            StringBuilder rowFormat = new StringBuilder();
+            int width = 0;
+            for (String format : formats) {
+                Matcher conversion = CONVERSION.matcher(format);
+                if (!conversion.lookingAt())
+                    throw new IllegalArgumentException("Column format needs a width: " + format);
+                int cellWidth = Integer.parseInt(conversion.group(2))
+                        + format.substring(conversion.end()).replace("%%", "%").length();
+                if (width > 0) {
+                    headingFormat.append(' ');
+                    rowFormat.append(' ');
+                    width++;
+                }
+                headingFormat.append('%').append(conversion.group(1)).append(cellWidth).append('s');
+                rowFormat.append(format);
+                width += cellWidth;
+            }
+            printTableHeader(title, width, headingFormat.append('\n').toString(), headings.toArray());
+            String rowLine = rowFormat.append('\n').toString();
+            for (int row = 0; row < runs.size(); row++) {
+                Object[] values = new Object[cells.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = cells.get(i).value(runs.get(row), row);
+                }
+                System.out.printf(rowLine, values);
+            }
+            System.out.println(repeat("=", width));
+        }
+    }
+
     public static void runAllBenchmarks() {
-        System.out.println("\n" + repeat("=", 70));
-        System.out.println("PERFORMANCE BENCHMARK MODE");
-        System.out.println(repeat("=", 70));
+        printBanner("PERFORMANCE BENCHMARK MODE");
         System.out.println("Running each problem for " + (BENCHMARK_DURATION_MS / 1000) + " seconds...\n");
 
         List<PerformanceMetrics> allMetrics = new ArrayList<>();
@@ -55,7 +251,29 @@ public class BenchmarkRunner {
     }
 
     private static PerformanceMetrics benchmarkProblem(SyncProblem problem, String name, boolean runFixed) {
+        return benchmarkProblem(problem, name, runFixed, BENCHMARK_DURATION_MS);
+    }
+
+    private static PerformanceMetrics benchmarkProblem(SyncProblem problem, String name, boolean runFixed,
+            int durationMs) {
+        return benchmarkProblem(problem, name, runFixed, durationMs, false);
+    }
+
+    /**
+     * With {@code footprint} set, also records the peak live thread count and how much the
+     * heap (after a GC) and the process RSS grew between start and stop, as events.
+     */
+    private static PerformanceMetrics benchmarkProblem(SyncProblem problem, String name, boolean runFixed,
+            int durationMs, boolean footprint) {
         PerformanceMetrics metrics = new PerformanceMetrics(name, runFixed);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long heapBefore = 0;
+        long rssBefore = 0;
+        if (footprint) {
+            heapBefore = usedHeapAfterGc();
+            rssBefore = readRssKb();
+            threads.resetPeakThreadCount();
+        }
 
         // Set metrics in problem if it supports benchmarking
         if (problem instanceof BenchmarkCapable) {
@@ -63,6 +281,7 @@ public class BenchmarkRunner {
         }
 
         System.out.println("  Running " + name + " (" + (runFixed ? "Fixed" : "Broken") + ")...");
+        SchedulerStats scheduler = SchedulerStats.begin();
 
         // Start the problem
         if (runFixed) {
@@ -71,12 +290,34 @@ public class BenchmarkRunner {
             problem.runBroken();
         }
 
-        // Let it run for the benchmark duration
+        // Let it run for the benchmark duration, or until it deadlocks
+        DeadlockWatchdog watchdog = null;
+        if (problem instanceof DeadlockDetectable) {
+            watchdog = new DeadlockWatchdog(((DeadlockDetectable) problem).getWaitForGraph(), metrics);
+            watchdog.start();
+        }
         try {
-            Thread.sleep(BENCHMARK_DURATION_MS);
+            if (watchdog != null && watchdog.awaitDetection(durationMs)) {
+                System.out.println("  Deadlock after " + metrics.getTimeToDeadlock() + " ms, ending run early: "
+                        + metrics.getDeadlockReport());
+            } else if (watchdog == null) {
+                Thread.sleep(durationMs);
+            }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
+        if (watchdog != null)
+            watchdog.stop();
+        if (footprint) {
+            metrics.recordEvent(EVENT_PEAK_THREADS, threads.getPeakThreadCount());
+            metrics.recordEvent(EVENT_HEAP_GROWTH_KB, Math.max(0, usedHeapAfterGc() - heapBefore) / 1024);
+            long rssAfter = readRssKb();
+            if (rssBefore >= 0 && rssAfter >= 0)
+                metrics.recordEvent(EVENT_RSS_GROWTH_KB, Math.max(0, rssAfter - rssBefore));
+        }
+
+        // Sampled while the problem's threads are still alive to be read
+        scheduler.recordProblemThreads(metrics, Collections.singleton(DeadlockWatchdog.THREAD_NAME));
 
         // Stop the problem
         problem.stop();
@@ -94,61 +335,1011 @@ public class BenchmarkRunner {
         return metrics;
     }
 
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Resident set size of this process in KB, which unlike the heap includes thread stacks,
+     * or -1 where /proc is not available.
+     */
+    private static long readRssKb() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:"))
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+
+    /**
+     * Runs every deadlock-free Dining Philosophers solution on increasingly large tables
+     * to show which one degrades least as the ring grows.
+     */
+    public static void runDiningPhilosophersScaling() {
+        List<PerformanceMetrics> runs = sweep("DINING PHILOSOPHERS SCALING BENCHMARK", sweep -> {
+            System.out.println("Running each solution for " + (SCALING_DURATION_MS / 1000) + " seconds per table size...\n");
+            for (int size : DINING_TABLE_SIZES) {
+                for (DiningPhilosophers.Solution solution : DiningPhilosophers.Solution.values()) {
+                    DiningPhilosophers problem = new DiningPhilosophers(size, solution);
+                    problem.setTiming(5, 10, 5, 10);
+                    sweep.run(problem, "Dining " + solution + " N=" + size);
+                }
+            }
+        });
+
+        new ResultTable("DINING PHILOSOPHERS SCALING RESULTS")
+                .column("Configuration", "%-36s", PerformanceMetrics::getProblemName)
+                .column("Meals", "%10d", PerformanceMetrics::getCompletedOperations)
+                .column("Meals/sec", "%12.2f", PerformanceMetrics::getThroughput)
+                .column("P99 Wait", "%10.2f", m -> m.getWaitTimePercentile(99))
+                .column("Fairness", "%10.3f", PerformanceMetrics::getFairnessIndex)
+                .print(runs);
+    }
+
+    /**
+     * Compares the blocking solutions with TIMED_BACKOFF when think time is zero, so every
+     * philosopher is hungry almost all the time.
+     */
+    public static void runDiningPhilosophersContention() {
+        List<PerformanceMetrics> runs = sweep("DINING PHILOSOPHERS CONTENTION BENCHMARK (think time = 0)", sweep -> {
+            for (int size : DINING_CONTENTION_SIZES) {
+                for (DiningPhilosophers.Solution solution : DiningPhilosophers.Solution.values()) {
+                    DiningPhilosophers problem = new DiningPhilosophers(size, solution);
+                    problem.setTiming(0, 0, 1, 1);
+                    sweep.run(problem, "Dining " + solution + " N=" + size);
+                }
+            }
+        });
+
+        new ResultTable("DINING PHILOSOPHERS CONTENTION RESULTS")
+                .column("Configuration", "%-34s", PerformanceMetrics::getProblemName)
+                .column("Meals/sec", "%12.2f", PerformanceMetrics::getThroughput)
+                .column("P99 Wait", "%10.2f", m -> m.getWaitTimePercentile(99))
+                .column("Retries/Meal", "%12.3f", m -> m.getEventsPerOperation(DiningPhilosophers.EVENT_RETRIES))
+                .column("Wasted Hold", "%10d ms", m -> m.getEventCount(DiningPhilosophers.EVENT_WASTED_HOLD_US) / 1000)
+                .column("Fairness", "%10.3f", PerformanceMetrics::getFairnessIndex)
+                .print(runs);
+    }
+
+    /**
+     * Runs every Readers-Writers solution across read:write ratios, reporting read throughput
+     * and how long writers wait (p99) or starve (max) under each policy.
+     */
+    public static void runReadersWritersPolicies() {
+        List<PerformanceMetrics> runs = sweep("READERS-WRITERS POLICY BENCHMARK", sweep -> {
+            for (int[] mix : READ_WRITE_MIXES) {
+                for (ReadersWriters.Solution solution : ReadersWriters.Solution.values()) {
+                    ReadersWriters problem = new ReadersWriters(mix[0], mix[1], solution);
+                    problem.setTiming(2, 2, 1, 3);
+                    sweep.run(problem, "RW " + solution + " " + (mix[0] / mix[1]) + ":1");
+                }
+            }
+        });
+
+        new ResultTable("READERS-WRITERS POLICY RESULTS")
+                .column("Configuration", "%-32s", PerformanceMetrics::getProblemName)
+                .column("Reads/sec", "%12.2f", m -> m.getEventRate(ReadersWriters.EVENT_READS))
+                .column("Writes/sec", "%12.2f", m -> m.getEventRate(ReadersWriters.EVENT_WRITES))
+                .column("Writer P99 ms", "%14.2f", m -> m.getLatencyPercentile(ReadersWriters.LATENCY_WRITER_WAIT, 99))
+                .column("Writer Max ms", "%16.2f", m -> m.getMaxLatency(ReadersWriters.LATENCY_WRITER_WAIT))
+                .print(runs);
+    }
+
+    /**
+     * Compares copy-on-write snapshots with the reader-priority semaphores as readers scale
+     * and the shared state grows, to find where copying on every write stops being cheap.
+     */
+    public static void runReadersWritersSnapshotScaling() {
+        ReadersWriters.Solution[] solutions = {
+                ReadersWriters.Solution.READER_PRIORITY, ReadersWriters.Solution.COPY_ON_WRITE };
+        List<PerformanceMetrics> runs = sweep("READERS-WRITERS SNAPSHOT SCALING BENCHMARK", sweep -> {
+            for (int size : SNAPSHOT_STATE_SIZES) {
+                for (int readers : SNAPSHOT_READER_COUNTS) {
+                    for (ReadersWriters.Solution solution : solutions) {
+                        ReadersWriters problem = new ReadersWriters(readers, 1, solution, size);
+                        problem.setTiming(0, 0, 1, 2);
+                        sweep.run(problem, "RW " + solution + " R=" + readers + " S=" + size);
+                    }
+                }
+            }
+        });
+
+        new ResultTable("READERS-WRITERS SNAPSHOT SCALING RESULTS")
+                .column("Configuration", "%-38s", PerformanceMetrics::getProblemName)
+                .column("Reads/sec", "%12.2f", m -> m.getEventRate(ReadersWriters.EVENT_READS))
+                .column("Writes/sec", "%12.2f", m -> m.getEventRate(ReadersWriters.EVENT_WRITES))
+                .column("Write P99 ms", "%14.3f", m -> m.getLatencyPercentile(ReadersWriters.LATENCY_WRITE, 99))
+                .column("Write Max ms", "%12.3f", m -> m.getMaxLatency(ReadersWriters.LATENCY_WRITE))
+                .print(runs);
+    }
+
+    /**
+     * Sweeps stripe count against key skew: uniform keys should scale with stripes, while a
+     * Zipfian hot key pins most traffic to one stripe no matter how many there are.
+     */
+    public static void runShardedReadersWriters() {
+        List<PerformanceMetrics> runs = sweep("SHARDED READERS-WRITERS BENCHMARK (" + SHARDED_KEYSPACE + " keys)",
+                sweep -> {
+                    for (double skew : SHARDED_SKEWS) {
+                        KeyDistribution keys = skew == 0 ? KeyDistribution.uniform(SHARDED_KEYSPACE)
+                                : KeyDistribution.zipfian(SHARDED_KEYSPACE, skew);
+                        for (int stripes : SHARDED_STRIPE_COUNTS) {
+                            ShardedReadersWriters problem = new ShardedReadersWriters(16, 4, keys, stripes);
+                            problem.setTiming(1, 1, 0, 2);
+                            sweep.run(problem, "Sharded " + keys + " stripes=" + stripes);
+                        }
+                    }
+                });
+
+        new ResultTable("SHARDED READERS-WRITERS RESULTS")
+                .column("Configuration", "%-36s", PerformanceMetrics::getProblemName)
+                .column("Ops/sec", "%12.2f", PerformanceMetrics::getThroughput)
+                .column("Writes/sec", "%12.2f", m -> m.getEventRate(ShardedReadersWriters.EVENT_WRITES))
+                .column("P99 Wait", "%10.2f", m -> m.getWaitTimePercentile(99))
+                .column("Stripe Balance", "%16.3f", PerformanceMetrics::getFairnessIndex)
+                .print(runs);
+    }
+
+    /**
+     * Sizes a barber pool: for each dispatch policy and pool size M (with 2M chairs and 4M
+     * returning customers, roughly saturating the pool) reports utilization, balking and
+     * queueing delay.
+     */
+    public static void runBarberPoolSizing() {
+        SleepingBarber.Solution[] solutions = { SleepingBarber.Solution.SHARED_QUEUE,
+                SleepingBarber.Solution.WORK_STEALING, SleepingBarber.Solution.JOIN_SHORTEST_QUEUE };
+        List<double[]> utilizations = new ArrayList<>(); // Per barber, for each run
+        List<PerformanceMetrics> runs = sweep("SLEEPING BARBER POOL SIZING BENCHMARK", sweep -> {
+            for (int barbers : BARBER_POOL_SIZES) {
+                for (SleepingBarber.Solution solution : solutions) {
+                    SleepingBarber problem = new SleepingBarber(barbers, 2 * barbers, 4 * barbers, solution);
+                    problem.setTiming(5, 15, 10, 30);
+                    sweep.run(problem, "Barber " + solution + " M=" + barbers);
+                    utilizations.add(problem.getBarberUtilization());
+                }
+            }
+        });
+
+        new ResultTable("SLEEPING BARBER POOL SIZING RESULTS")
+                .column("Configuration", "%-34s", PerformanceMetrics::getProblemName)
+                .column("Cuts/sec", "%10.2f", PerformanceMetrics::getThroughput)
+                .column("Util Avg", "%9.1f%%", (m, row) -> Arrays.stream(utilizations.get(row)).average().orElse(0) * 100)
+                .column("Util Min", "%9.1f%%", (m, row) -> Arrays.stream(utilizations.get(row)).min().orElse(0) * 100)
+                .column("Util Max", "%9.1f%%", (m, row) -> Arrays.stream(utilizations.get(row)).max().orElse(0) * 100)
+                .column("Balk %", "%9.2f%%", m -> percentOf(m.getEventCount(SleepingBarber.EVENT_BALKS),
+                        m.getEventCount(SleepingBarber.EVENT_ARRIVALS)))
+                .column("Queue P99", "%12.2f", m -> m.getLatencyPercentile(SleepingBarber.LATENCY_QUEUE, 99))
+                .print(runs);
+    }
+
+    private static PerformanceMetrics benchmarkOpenLoop(OpenLoopCapable problem, String name,
+            OpenLoopLoadGenerator.ArrivalProcess process, double ratePerSecond, int durationMs) {
+        PerformanceMetrics metrics = new PerformanceMetrics(name, true);
+        if (problem instanceof BenchmarkCapable) {
+            ((BenchmarkCapable) problem).setMetrics(metrics);
+        }
+        OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(problem, process, ratePerSecond,
+                OPEN_LOOP_CLIENTS);
+        generator.setMetrics(metrics);
+
+        System.out.println("  Running " + name + "...");
+        problem.startServers();
+        generator.start();
+        try {
+            Thread.sleep(durationMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        generator.stop();
+        if (problem instanceof SyncProblem) {
+            ((SyncProblem) problem).stop();
+        }
+        metrics.finish();
+
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("  Completed: " + metrics.getEventCount(OpenLoopLoadGenerator.EVENT_COMPLETED)
+                + " requests");
+        return metrics;
+    }
+
+    /**
+     * Drives the request side open-loop at fixed fractions of nominal capacity, past
+     * saturation, and reports offered vs achieved rate and latency measured from the
+     * intended arrival time.
+     */
+    public static void runOpenLoopLoadCurves() {
+        List<PerformanceMetrics> runs = sweep("OPEN-LOOP LOAD CURVES", sweep -> {
+            // 2 barbers x 10 ms haircuts = 200 customers/sec capacity
+            double barberCapacity = 200;
+            for (OpenLoopLoadGenerator.ArrivalProcess process : OpenLoopLoadGenerator.ArrivalProcess.values()) {
+                for (double load : OPEN_LOOP_LOAD_FACTORS) {
+                    SleepingBarber problem = new SleepingBarber(2, 50, 0, SleepingBarber.Solution.SHARED_QUEUE);
+                    problem.setTiming(10, 11, 0, 0);
+                    String name = String.format("Barber %s %.0f%%", process, load * 100);
+                    sweep.add(benchmarkOpenLoop(problem, name, process, barberCapacity * load, SCALING_DURATION_MS));
+                }
+            }
+
+            // 3 consumers x 10 ms = 300 items/sec capacity
+            double consumerCapacity = 300;
+            for (double load : OPEN_LOOP_LOAD_FACTORS) {
+                ProducerConsumer problem = new ProducerConsumer();
+                problem.setTiming(0, 0, 10, 11);
+                String name = String.format("Producer-Consumer POISSON %.0f%%", load * 100);
+                sweep.add(benchmarkOpenLoop(problem, name, OpenLoopLoadGenerator.ArrivalProcess.POISSON,
+                        consumerCapacity * load, SCALING_DURATION_MS));
+            }
+        });
+
+        new ResultTable("OPEN-LOOP LOAD CURVE RESULTS (latency in ms from intended arrival)")
+                .column("Configuration", "%-34s", PerformanceMetrics::getProblemName)
+                .column("Offered/s", "%10.2f", m -> m.getEventRate(OpenLoopLoadGenerator.EVENT_OFFERED))
+                .column("Served/s", "%10.2f", m -> m.getEventRate(OpenLoopLoadGenerator.EVENT_COMPLETED))
+                .column("Reject %", "%8.2f%%", m -> percentOf(m.getEventCount(OpenLoopLoadGenerator.EVENT_REJECTED),
+                        m.getEventCount(OpenLoopLoadGenerator.EVENT_OFFERED)))
+                .column("P50", "%10.2f", m -> m.getLatencyPercentile(OpenLoopLoadGenerator.LATENCY_RESPONSE, 50))
+                .column("P99", "%10.2f", m -> m.getLatencyPercentile(OpenLoopLoadGenerator.LATENCY_RESPONSE, 99))
+                .column("Max", "%10.2f", m -> m.getMaxLatency(OpenLoopLoadGenerator.LATENCY_RESPONSE))
+                .column("P99 (naive)", "%12.2f", m -> m.getLatencyPercentile(OpenLoopLoadGenerator.LATENCY_SERVICE, 99))
+                .print(runs);
+    }
+
+    /**
+     * Times the bare handoff of a customer to a barber, with zero-length haircuts, for each
+     * queueing solution at increasing Poisson arrival rates.
+     */
+    public static void runBarberHandoff() {
+        SleepingBarber.Solution[] solutions = { SleepingBarber.Solution.SEMAPHORES,
+                SleepingBarber.Solution.SHARED_QUEUE, SleepingBarber.Solution.LOCK_FREE_PARKING,
+                SleepingBarber.Solution.SYNCHRONOUS_QUEUE, SleepingBarber.Solution.EXCHANGER };
+        List<PerformanceMetrics> runs = sweep("SLEEPING BARBER HANDOFF BENCHMARK", sweep -> {
+            // Zero-length haircuts leave only the cost of seating a customer and handing them over
+            for (double rate : HANDOFF_RATES) {
+                for (SleepingBarber.Solution solution : solutions) {
+                    SleepingBarber problem = new SleepingBarber(2, 64, 0, solution);
+                    problem.setTiming(0, 0, 0, 0);
+                    String name = String.format("Barber %s %.0f/s", solution, rate);
+                    sweep.add(benchmarkOpenLoop(problem, name, OpenLoopLoadGenerator.ArrivalProcess.POISSON,
+                            rate, SCALING_DURATION_MS));
+                }
+            }
+        });
+
+        new ResultTable("SLEEPING BARBER HANDOFF RESULTS (latency in ms)")
+                .column("Configuration", "%-38s", PerformanceMetrics::getProblemName)
+                .column("Offered/s", "%10.2f", m -> m.getEventRate(OpenLoopLoadGenerator.EVENT_OFFERED))
+                .column("Served/s", "%10.2f", m -> m.getEventRate(OpenLoopLoadGenerator.EVENT_COMPLETED))
+                .column("Balk %", "%8.2f%%", m -> percentOf(m.getEventCount(SleepingBarber.EVENT_BALKS),
+                        m.getEventCount(SleepingBarber.EVENT_ARRIVALS)))
+                .column("Resp P99", "%10.3f", m -> m.getLatencyPercentile(OpenLoopLoadGenerator.LATENCY_RESPONSE, 99))
+                .column("Queue P50", "%10.3f", m -> m.getLatencyPercentile(SleepingBarber.LATENCY_QUEUE, 50))
+                .column("Queue P99", "%10.3f", m -> m.getLatencyPercentile(SleepingBarber.LATENCY_QUEUE, 99))
+                .print(runs);
+    }
+
+    /**
+     * Runs priority and earliest-deadline-first scheduling against a shared FIFO queue for three
+     * customer classes, with and without admission control, from light load to overload.
+     */
+    public static void runBarberServiceClasses() {
+        printBanner("SLEEPING BARBER SERVICE CLASS BENCHMARK");
+
+        SleepingBarber.Solution[] solutions = { SleepingBarber.Solution.SHARED_QUEUE,
+                SleepingBarber.Solution.PRIORITY_QUEUE, SleepingBarber.Solution.EARLIEST_DEADLINE_FIRST };
+        List<PerformanceMetrics> allMetrics = new ArrayList<>();
+        List<List<SleepingBarber.CustomerClass>> allClasses = new ArrayList<>();
+        withLoggingDisabled(() -> {
+            // 2 barbers x 10 ms haircuts = 200 customers/sec capacity
+            double capacity = 200;
+            for (double load : SERVICE_CLASS_LOAD_FACTORS) {
+                for (SleepingBarber.Solution solution : solutions) {
+                    for (boolean admission : new boolean[] { false, true }) {
+                        SleepingBarber problem = new SleepingBarber(2, 50, 0, solution);
+                        problem.setTiming(10, 11, 0, 0);
+                        problem.setCustomerClasses(
+                                new SleepingBarber.CustomerClass("Premium", 0, 30, 0.2),
+                                new SleepingBarber.CustomerClass("Standard", 1, 100, 0.5),
+                                new SleepingBarber.CustomerClass("Economy", 2, 500, 0.3));
+                        problem.setAdmissionControl(admission);
+                        String name = String.format("%s%s %.0f%%", solution, admission ? "+AC" : "", load * 100);
+                        allMetrics.add(benchmarkOpenLoop(problem, name, OpenLoopLoadGenerator.ArrivalProcess.POISSON,
+                                capacity * load, SCALING_DURATION_MS));
+                        allClasses.add(problem.getCustomerClasses());
+                    }
+                }
+            }
+        });
+
+        printTableHeader("SLEEPING BARBER SERVICE CLASS RESULTS (queue latency in ms, rates as % of class arrivals)", 112,
+                "%-34s %-9s %9s %10s %10s %10s %9s %9s %9s\n",
+                "Configuration", "Class", "Arrivals", "P50", "P99", "Max", "Miss %", "Balk %", "Reject %");
+        for (int i = 0; i < allMetrics.size(); i++) {
+            PerformanceMetrics m = allMetrics.get(i);
+            for (SleepingBarber.CustomerClass c : allClasses.get(i)) {
+                long arrivals = m.getEventCount(c.metric(SleepingBarber.EVENT_ARRIVALS));
+                double denominator = Math.max(1, arrivals) / 100.0;
+                String latency = c.metric(SleepingBarber.LATENCY_QUEUE);
+                System.out.printf("%-34s %-9s %9d %10.2f %10.2f %10.2f %8.2f%% %8.2f%% %8.2f%%\n",
+                        m.getProblemName(),
+                        c.getName(),
+                        arrivals,
+                        m.getLatencyPercentile(latency, 50),
+                        m.getLatencyPercentile(latency, 99),
+                        m.getMaxLatency(latency),
+                        m.getEventCount(c.metric(SleepingBarber.EVENT_DEADLINE_MISSES)) / denominator,
+                        m.getEventCount(c.metric(SleepingBarber.EVENT_BALKS)) / denominator,
+                        m.getEventCount(c.metric(SleepingBarber.EVENT_ADMISSION_REJECTS)) / denominator);
+            }
+        }
+        System.out.println(repeat("=", 112));
+    }
+
+    /**
+     * Compares how each Cigarette Smokers solution matches ingredients to a smoker once smoking
+     * takes no time.
+     */
+    public static void runSmokersTableState() {
+        List<PerformanceMetrics> runs = sweep("CIGARETTE SMOKERS TABLE STATE BENCHMARK", sweep -> {
+            // Zero-length smoking leaves only the cost of matching ingredients to a smoker
+            for (CigaretteSmokers.Solution solution : CigaretteSmokers.Solution.values()) {
+                CigaretteSmokers problem = new CigaretteSmokers(solution);
+                problem.setTiming(0);
+                sweep.run(problem, "Smokers " + solution);
+            }
+        });
+
+        new ResultTable("CIGARETTE SMOKERS TABLE STATE RESULTS (round latency in ms)")
+                .column("Configuration", "%-30s", PerformanceMetrics::getProblemName)
+                .column("Rounds/sec", "%12.2f", PerformanceMetrics::getThroughput)
+                .column("P50", "%10.4f", m -> m.getLatencyPercentile(CigaretteSmokers.LATENCY_ROUND, 50))
+                .column("P99", "%10.4f", m -> m.getLatencyPercentile(CigaretteSmokers.LATENCY_ROUND, 99))
+                .column("Max", "%10.4f", m -> m.getMaxLatency(CigaretteSmokers.LATENCY_ROUND))
+                .column("CPU us/Round", "%14.2f", m -> m.getEventsPerOperation(CigaretteSmokers.EVENT_CPU_MICROS))
+                .print(runs);
+    }
+
+    /**
+     * Scales the matching engine over more ingredient types and more smokers per type.
+     */
+    public static void runSmokersMatchingScaling() {
+        List<PerformanceMetrics> runs = sweep("CIGARETTE SMOKERS MATCHING ENGINE SCALING BENCHMARK", sweep -> {
+            // Two ingredients per cigarette, so K types give K(K-1)/2 distinct needs
+            for (int types : MATCHING_INGREDIENT_TYPES) {
+                for (int smokers : MATCHING_SMOKER_COUNTS) {
+                    CigaretteSmokers problem = new CigaretteSmokers(CigaretteSmokers.Solution.MATCHING_ENGINE,
+                            types, smokers, MATCHING_AGENTS);
+                    problem.setTiming(0);
+                    problem.setMatching(2, 4);
+                    sweep.run(problem, "Matching K=" + types + " S=" + smokers);
+                }
+            }
+        });
+
+        new ResultTable("MATCHING ENGINE SCALING RESULTS (match latency in ms)")
+                .column("Configuration", "%-28s", PerformanceMetrics::getProblemName)
+                .column("Matches/sec", "%12.2f", PerformanceMetrics::getThroughput)
+                .column("P50", "%10.4f", m -> m.getLatencyPercentile(CigaretteSmokers.LATENCY_MATCH, 50))
+                .column("P99", "%10.4f", m -> m.getLatencyPercentile(CigaretteSmokers.LATENCY_MATCH, 99))
+                .column("Max", "%10.4f", m -> m.getMaxLatency(CigaretteSmokers.LATENCY_MATCH))
+                .column("Stalls/Match", "%12.4f", m -> m.getEventsPerOperation(CigaretteSmokers.EVENT_AGENT_STALLS))
+                .column("Fairness", "%10.4f", PerformanceMetrics::getFairnessIndex)
+                .print(runs);
+    }
+
+    /**
+     * Repeats a few Dining, Readers-Writers and Producer-Consumer runs with sleeping and with
+     * CPU-bound work, to show where sleeping hides contention for cores.
+     */
+    public static void runWorkloadComparison() {
+        Workload[] workloads = { Workload.sleep(), Workload.hashing(64), Workload.cacheLines(16, false),
+                Workload.cacheLines(16, true) };
+        List<Workload> usedWorkloads = new ArrayList<>(); // For each run
+        List<PerformanceMetrics> runs = sweep("SLEEP VS CPU-BOUND WORKLOAD BENCHMARK", sweep -> {
+            for (Workload workload : workloads) {
+                for (DiningPhilosophers.Solution solution : new DiningPhilosophers.Solution[] {
+                        DiningPhilosophers.Solution.ASYMMETRIC, DiningPhilosophers.Solution.WAITER }) {
+                    DiningPhilosophers problem = new DiningPhilosophers(16, solution);
+                    problem.setTiming(1, 3, 1, 3);
+                    problem.setWorkload(workload);
+                    sweep.run(problem, "Dining " + solution + " N=16");
+                    usedWorkloads.add(workload);
+                }
+                for (ReadersWriters.Solution solution : new ReadersWriters.Solution[] {
+                        ReadersWriters.Solution.FAIR, ReadersWriters.Solution.READ_WRITE_LOCK }) {
+                    ReadersWriters problem = new ReadersWriters(8, 2, solution);
+                    problem.setTiming(1, 1, 0, 2);
+                    problem.setWorkload(workload);
+                    sweep.run(problem, "Readers-Writers " + solution);
+                    usedWorkloads.add(workload);
+                }
+                ProducerConsumer problem = new ProducerConsumer();
+                problem.setTiming(0, 1, 1, 2);
+                problem.setWorkload(workload);
+                sweep.run(problem, "Producer-Consumer");
+                usedWorkloads.add(workload);
+            }
+        });
+
+        new ResultTable("WORKLOAD COMPARISON RESULTS")
+                .column("Configuration", "%-32s", PerformanceMetrics::getProblemName)
+                .column("Workload", "%-18s", (m, row) -> usedWorkloads.get(row))
+                .column("Ops/sec", "%12.2f", PerformanceMetrics::getThroughput)
+                .column("Avg Wait", "%12.3f", PerformanceMetrics::getAverageWaitTime)
+                .column("P99 Wait", "%12.3f", m -> m.getWaitTimePercentile(99))
+                .column("Fairness", "%10.4f", PerformanceMetrics::getFairnessIndex)
+                .print(runs);
+    }
+
+    /**
+     * Puts every mutex implementation behind the Producer-Consumer buffer and the Dining forks,
+     * with no work inside or outside the lock, across thread counts and table sizes.
+     */
+    public static void runLockComparison() {
+        List<String> lockWaits = new ArrayList<>(); // Latency holding each run's lock wait, or null for hunger
+        List<PerformanceMetrics> runs = sweep("LOCK PRIMITIVE BENCHMARK", sweep -> {
+            // No produce/consume or think/eat time: every operation is a trip through the lock
+            for (LockType lockType : LockType.values()) {
+                for (int threads : LOCK_THREAD_COUNTS) {
+                    ProducerConsumer problem = new ProducerConsumer(threads / 2, threads / 2, 64);
+                    problem.setTiming(0, 0, 0, 0);
+                    problem.setLockType(lockType);
+                    sweep.run(problem, "PC mutex " + lockType + " T=" + threads);
+                    lockWaits.add(ProducerConsumer.LATENCY_MUTEX_WAIT);
+                }
+                for (int philosophers : LOCK_TABLE_SIZES) {
+                    DiningPhilosophers problem = new DiningPhilosophers(philosophers,
+                            DiningPhilosophers.Solution.ASYMMETRIC);
+                    problem.setTiming(0, 0, 0, 0);
+                    problem.setLockType(lockType);
+                    sweep.run(problem, "Forks " + lockType + " N=" + philosophers);
+                    lockWaits.add(null); // Hunger (both forks) is the wait time
+                }
+            }
+        });
+
+        new ResultTable("LOCK PRIMITIVE RESULTS (wait in ms: mutex wait for PC, hunger for forks)")
+                .column("Configuration", "%-34s", PerformanceMetrics::getProblemName)
+                .column("Ops/sec", "%12.2f", PerformanceMetrics::getThroughput)
+                .column("Wait P50", "%12.4f", (m, row) -> lockWaits.get(row) != null
+                        ? m.getLatencyPercentile(lockWaits.get(row), 50) : m.getWaitTimePercentile(50))
+                .column("Wait P99", "%12.4f", (m, row) -> lockWaits.get(row) != null
+                        ? m.getLatencyPercentile(lockWaits.get(row), 99) : m.getWaitTimePercentile(99))
+                .column("Wait Max", "%12.4f", (m, row) -> lockWaits.get(row) != null
+                        ? m.getMaxLatency(lockWaits.get(row)) : m.getMaxWaitTime())
+                .column("Fairness", "%10.4f", PerformanceMetrics::getFairnessIndex)
+                .print(runs);
+    }
+
+    /**
+     * Compares a flat-combining lock with a plain mutex for Producer-Consumer, and with
+     * reader-priority semaphores for Readers-Writers, as threads are added.
+     */
+    public static void runFlatCombining() {
+        List<String> latencies = new ArrayList<>(); // The latency reported for each run
+        List<PerformanceMetrics> runs = sweep("FLAT COMBINING BENCHMARK", sweep -> {
+            // Zero-length sections, so each operation is little more than its trip through the lock
+            for (int threads : COMBINING_THREAD_COUNTS) {
+                for (boolean combining : new boolean[] { false, true }) {
+                    ProducerConsumer problem = new ProducerConsumer(threads / 2, threads / 2, 64);
+                    problem.setTiming(0, 0, 0, 0);
+                    problem.setFlatCombining(combining);
+                    sweep.run(problem, "PC " + (combining ? "combining" : "mutex") + " T=" + threads);
+                    latencies.add(ProducerConsumer.LATENCY_CRITICAL_SECTION);
+                }
+                for (ReadersWriters.Solution solution : new ReadersWriters.Solution[] {
+                        ReadersWriters.Solution.READER_PRIORITY, ReadersWriters.Solution.FLAT_COMBINING }) {
+                    ReadersWriters problem = new ReadersWriters(threads * 3 / 4, threads / 4, solution);
+                    problem.setTiming(0, 0, 0, 0);
+                    sweep.run(problem, "RW " + solution + " T=" + threads);
+                    latencies.add(ReadersWriters.LATENCY_READER_WAIT);
+                }
+            }
+        });
+
+        new ResultTable("FLAT COMBINING RESULTS (PC: critical section incl. wait, RW: reader wait; ms)")
+                .column("Configuration", "%-32s", PerformanceMetrics::getProblemName)
+                .column("Ops/sec", "%12.2f", PerformanceMetrics::getThroughput)
+                .column("P50", "%12.4f", (m, row) -> m.getLatencyPercentile(latencies.get(row), 50))
+                .column("P99", "%12.4f", (m, row) -> m.getLatencyPercentile(latencies.get(row), 99))
+                // Without combining every critical section is its own handoff
+                .column("Lock Handoffs", "%14s", m -> {
+                    long rounds = m.getEventCount(ProducerConsumer.EVENT_COMBINING_ROUNDS);
+                    return rounds > 0 ? String.valueOf(rounds) : "per op";
+                })
+                .column("Reqs/Handoff", "%14s", m -> {
+                    long rounds = m.getEventCount(ProducerConsumer.EVENT_COMBINING_ROUNDS);
+                    long combined = m.getEventCount(ProducerConsumer.EVENT_COMBINED_REQUESTS);
+                    return rounds > 0 ? String.format("%.2f", (double) combined / rounds) : "1.00";
+                })
+                .print(runs);
+    }
+
+    /**
+     * Runs every shared counter implementation across thread counts, then the unsynchronized
+     * counter to show its lost updates.
+     */
+    public static void runCounterShootout() {
+        List<PerformanceMetrics> runs = sweep("SHARED COUNTER PRIMITIVE BENCHMARK", sweep -> {
+            for (int threads : COUNTER_THREAD_COUNTS) {
+                for (SharedCounter.Solution solution : SharedCounter.Solution.values()) {
+                    sweep.run(new SharedCounter(solution, threads), solution + " T=" + threads);
+                }
+                sweep.runBroken(new SharedCounter(SharedCounter.Solution.SYNCHRONIZED, threads),
+                        "UNSYNCHRONIZED T=" + threads);
+            }
+        });
+
+        new ResultTable("SHARED COUNTER RESULTS (per-increment latency in ns, sampled once per 64 increments)")
+                .column("Configuration", "%-28s", PerformanceMetrics::getProblemName)
+                .column("Ops/sec", "%14.0f", PerformanceMetrics::getThroughput)
+                .column("P50", "%10.0f", m -> m.getLatencyPercentile(SharedCounter.LATENCY_INCREMENT, 50) * 1_000_000)
+                .column("P99", "%10.0f", m -> m.getLatencyPercentile(SharedCounter.LATENCY_INCREMENT, 99) * 1_000_000)
+                .column("P99.9", "%10.0f",
+                        m -> m.getLatencyPercentile(SharedCounter.LATENCY_INCREMENT, 99.9) * 1_000_000)
+                .column("CAS Retry/op", "%12.4f", m -> m.getEventsPerOperation(SharedCounter.EVENT_CAS_RETRIES))
+                .column("Lost Updates", "%14d", m -> m.getViolationCount(Violation.LOST_UPDATE))
+                .column("Fairness", "%10.4f", PerformanceMetrics::getFairnessIndex)
+                .print(runs);
+    }
+
+    /**
+     * Compares the condition wakeup strategies as waiters are added, then the broken waiter that
+     * checks its condition with if rather than while.
+     */
+    public static void runConditionWakeup() {
+        List<PerformanceMetrics> runs = sweep("CONDITION WAKEUP BENCHMARK", sweep -> {
+            for (int waiters : WAKEUP_WAITER_COUNTS) {
+                for (ConditionWakeup.Solution solution : ConditionWakeup.Solution.values()) {
+                    sweep.run(new ConditionWakeup(waiters, solution), solution + " W=" + waiters);
+                }
+            }
+            sweep.runBroken(new ConditionWakeup(WAKEUP_WAITER_COUNTS[1], ConditionWakeup.Solution.SIGNAL_ALL),
+                    "IF_NOT_WHILE W=" + WAKEUP_WAITER_COUNTS[1]);
+        });
+
+        // Every wakeup is a park/unpark pair, i.e. a context switch into the waiter
+        new ResultTable("CONDITION WAKEUP RESULTS (wakeup latency in ms from the grant to the waiter running)")
+                .column("Configuration", "%-32s", PerformanceMetrics::getProblemName)
+                .column("Waits/sec", "%12.2f", PerformanceMetrics::getThroughput)
+                .column("Wakeups/op", "%12.2f", m -> m.getEventsPerOperation(ConditionWakeup.EVENT_WAKEUPS))
+                .column("Spurious/op", "%12.2f", m -> m.getEventsPerOperation(ConditionWakeup.EVENT_SPURIOUS_WAKEUPS))
+                .column("Relays/op", "%12.2f", m -> m.getEventsPerOperation(ConditionWakeup.EVENT_RELAYED_SIGNALS))
+                .column("P50", "%10.4f", m -> m.getLatencyPercentile(ConditionWakeup.LATENCY_WAKEUP, 50))
+                .column("P99", "%10.4f", m -> m.getLatencyPercentile(ConditionWakeup.LATENCY_WAKEUP, 99))
+                .column("Violations", "%12d", m -> m.getViolationCount(Violation.PREMATURE_WAKEUP))
+                .print(runs);
+    }
+
+    /**
+     * Runs the actor versions of the classic problems against their thread-per-actor
+     * counterparts, and grows the Dining table to 100k philosophers on the actor engine
+     * alone.
+     */
+    public static void runActorComparison() {
+        printBanner("ACTOR ENGINE VS THREAD PER ACTOR BENCHMARK");
+
+        int carriers = Runtime.getRuntime().availableProcessors();
+        List<PerformanceMetrics> allMetrics = new ArrayList<>();
+        List<Integer> actorCounts = new ArrayList<>();
+        withLoggingDisabled(() -> {
+            for (int size : ACTOR_TABLE_SIZES) {
+                ActorDiningPhilosophers actors = new ActorDiningPhilosophers(size, carriers);
+                actors.setTiming(10, 20, 10, 20);
+                allMetrics.add(benchmarkProblem(actors, "Actor Dining N=" + size, true, SCALING_DURATION_MS, true));
+                actorCounts.add(size);
+                if (size > MAX_THREAD_ACTORS)
+                    continue;
+                DiningPhilosophers threads = new DiningPhilosophers(size, DiningPhilosophers.Solution.CHANDY_MISRA);
+                threads.setTiming(10, 20, 10, 20);
+                allMetrics.add(benchmarkProblem(threads, "Thread Dining N=" + size, true, SCALING_DURATION_MS, true));
+                actorCounts.add(size);
+            }
+
+            ActorProducerConsumer actorBuffer = new ActorProducerConsumer(500, 500, 100, carriers);
+            actorBuffer.setTiming(10, 20, 10, 20);
+            allMetrics.add(benchmarkProblem(actorBuffer, "Actor Producer-Consumer 500P/500C", true,
+                    SCALING_DURATION_MS, true));
+            actorCounts.add(1000);
+            ProducerConsumer threadBuffer = new ProducerConsumer(500, 500, 100);
+            threadBuffer.setTiming(10, 20, 10, 20);
+            allMetrics.add(benchmarkProblem(threadBuffer, "Thread Producer-Consumer 500P/500C", true,
+                    SCALING_DURATION_MS, true));
+            actorCounts.add(1000);
+
+            ActorSleepingBarber actorShop = new ActorSleepingBarber(4, 16, 1000, carriers);
+            actorShop.setTiming(1, 3, 100, 500);
+            allMetrics.add(benchmarkProblem(actorShop, "Actor Barber 4B/1000C", true, SCALING_DURATION_MS, true));
+            actorCounts.add(1004);
+            SleepingBarber threadShop = new SleepingBarber(4, 16, 1000, SleepingBarber.Solution.SHARED_QUEUE);
+            threadShop.setTiming(1, 3, 100, 500);
+            allMetrics.add(benchmarkProblem(threadShop, "Thread Barber 4B/1000C", true, SCALING_DURATION_MS, true));
+            actorCounts.add(1004);
+
+            ActorCigaretteSmokers actorTable = new ActorCigaretteSmokers(300, 100, carriers);
+            actorTable.setTiming(10);
+            allMetrics.add(benchmarkProblem(actorTable, "Actor Smokers 300S/100A", true, SCALING_DURATION_MS, true));
+            actorCounts.add(400);
+            CigaretteSmokers threadTable = new CigaretteSmokers(CigaretteSmokers.Solution.MATCHING_ENGINE, 3, 300, 100);
+            threadTable.setTiming(10);
+            allMetrics.add(benchmarkProblem(threadTable, "Thread Smokers 300S/100A", true, SCALING_DURATION_MS, true));
+            actorCounts.add(400);
+        });
+
+        printFootprintResults("ACTOR ENGINE RESULTS (" + carriers + " carrier threads)", allMetrics, actorCounts);
+    }
+
+    /**
+     * Runs the continuation-style versions of every problem, on a pool of one thread per CPU,
+     * from a thousand to tens of thousands of actors, next to the blocking thread-per-actor
+     * solution wherever that still starts in reasonable time.
+     */
+    public static void runAsyncComparison() {
+        printBanner("ASYNC SEMAPHORES VS BLOCKING THREADS BENCHMARK");
+
+        int poolSize = Runtime.getRuntime().availableProcessors();
+        List<PerformanceMetrics> allMetrics = new ArrayList<>();
+        List<Integer> actorCounts = new ArrayList<>();
+        withLoggingDisabled(() -> {
+            for (int n : ASYNC_ACTOR_COUNTS) {
+                AsyncDiningPhilosophers async = new AsyncDiningPhilosophers(n, poolSize);
+                async.setTiming(10, 20, 10, 20);
+                allMetrics.add(benchmarkProblem(async, "Async Dining N=" + n, true, SCALING_DURATION_MS, true));
+                actorCounts.add(n);
+                if (n > MAX_THREAD_ACTORS)
+                    continue;
+                DiningPhilosophers blocking = new DiningPhilosophers(n, DiningPhilosophers.Solution.ASYMMETRIC);
+                blocking.setTiming(10, 20, 10, 20);
+                allMetrics.add(benchmarkProblem(blocking, "Blocking Dining N=" + n, true, SCALING_DURATION_MS, true));
+                actorCounts.add(n);
+            }
+            for (int n : ASYNC_ACTOR_COUNTS) {
+                AsyncProducerConsumer async = new AsyncProducerConsumer(n / 2, n / 2, 100, poolSize);
+                async.setTiming(10, 20, 10, 20);
+                allMetrics.add(benchmarkProblem(async, "Async Producer-Consumer N=" + n, true,
+                        SCALING_DURATION_MS, true));
+                actorCounts.add(n);
+                if (n > MAX_THREAD_ACTORS)
+                    continue;
+                ProducerConsumer blocking = new ProducerConsumer(n / 2, n / 2, 100);
+                blocking.setTiming(10, 20, 10, 20);
+                allMetrics.add(benchmarkProblem(blocking, "Blocking Producer-Consumer N=" + n, true,
+                        SCALING_DURATION_MS, true));
+                actorCounts.add(n);
+            }
+            for (int n : ASYNC_ACTOR_COUNTS) {
+                AsyncSleepingBarber async = new AsyncSleepingBarber(4, 16, n, poolSize);
+                async.setTiming(1, 3, 100, 500);
+                allMetrics.add(benchmarkProblem(async, "Async Barber 4B/" + n + "C", true, SCALING_DURATION_MS, true));
+                actorCounts.add(n + 4);
+                if (n > MAX_THREAD_ACTORS)
+                    continue;
+                SleepingBarber blocking = new SleepingBarber(4, 16, n, SleepingBarber.Solution.SHARED_QUEUE);
+                blocking.setTiming(1, 3, 100, 500);
+                allMetrics.add(benchmarkProblem(blocking, "Blocking Barber 4B/" + n + "C", true,
+                        SCALING_DURATION_MS, true));
+                actorCounts.add(n + 4);
+            }
+            for (int n : ASYNC_ACTOR_COUNTS) {
+                AsyncCigaretteSmokers async = new AsyncCigaretteSmokers(n, n / 10, poolSize);
+                async.setTiming(10);
+                allMetrics.add(benchmarkProblem(async, "Async Smokers " + n + "S/" + (n / 10) + "A", true,
+                        SCALING_DURATION_MS, true));
+                actorCounts.add(n + n / 10);
+                if (n > MAX_THREAD_ACTORS)
+                    continue;
+                CigaretteSmokers blocking = new CigaretteSmokers(CigaretteSmokers.Solution.MATCHING_ENGINE, 3, n,
+                        n / 10);
+                blocking.setTiming(10);
+                allMetrics.add(benchmarkProblem(blocking, "Blocking Smokers " + n + "S/" + (n / 10) + "A", true,
+                        SCALING_DURATION_MS, true));
+                actorCounts.add(n + n / 10);
+            }
+            for (int n : ASYNC_ACTOR_COUNTS) {
+                int writers = n / 100;
+                AsyncReadersWriters async = new AsyncReadersWriters(n - writers, writers, poolSize);
+                async.setTiming(5, 5, 10, 20);
+                allMetrics.add(benchmarkProblem(async, "Async Readers-Writers N=" + n, true,
+                        SCALING_DURATION_MS, true));
+                actorCounts.add(n);
+                if (n > MAX_THREAD_ACTORS)
+                    continue;
+                ReadersWriters blocking = new ReadersWriters(n - writers, writers,
+                        ReadersWriters.Solution.READER_PRIORITY);
+                blocking.setTiming(5, 5, 10, 20);
+                allMetrics.add(benchmarkProblem(blocking, "Blocking Readers-Writers N=" + n, true,
+                        SCALING_DURATION_MS, true));
+                actorCounts.add(n);
+            }
+        });
+
+        printFootprintResults("ASYNC SEMAPHORE RESULTS (" + poolSize + " pool threads)", allMetrics, actorCounts);
+    }
+
+    /**
+     * Runs the STM solutions against lock-based ones as the number of resources and the
+     * contention for them grow: Dining tables of increasing size with and without think
+     * time, and smokers needing ever more ingredients per cigarette with no smoking time.
+     */
+    public static void runStmComparison() {
+        List<PerformanceMetrics> runs = sweep("SOFTWARE TRANSACTIONAL MEMORY BENCHMARK", sweep -> {
+            for (int thinkMs : new int[] { 5, 0 }) {
+                for (int size : STM_TABLE_SIZES) {
+                    for (DiningPhilosophers.Solution solution : new DiningPhilosophers.Solution[] {
+                            DiningPhilosophers.Solution.ASYMMETRIC, DiningPhilosophers.Solution.RESOURCE_HIERARCHY,
+                            DiningPhilosophers.Solution.STM }) {
+                        DiningPhilosophers problem = new DiningPhilosophers(size, solution);
+                        problem.setTiming(thinkMs, thinkMs * 2, 1, 2);
+                        sweep.run(problem, "Dining " + solution + " N=" + size + (thinkMs == 0 ? " hot" : ""));
+                    }
+                }
+            }
+            for (int types : STM_INGREDIENT_TYPES) {
+                for (CigaretteSmokers.Solution solution : new CigaretteSmokers.Solution[] {
+                        CigaretteSmokers.Solution.MATCHING_ENGINE, CigaretteSmokers.Solution.STM }) {
+                    CigaretteSmokers problem = new CigaretteSmokers(solution, types, STM_SMOKERS, MATCHING_AGENTS);
+                    problem.setTiming(0);
+                    sweep.run(problem, "Smokers " + solution + " K=" + types);
+                }
+            }
+        });
+
+        // "hot" rows have no think time; K is the number of ingredient types, each cigarette needs K-1
+        new ResultTable("STM RESULTS (abort rate is aborted attempts over all attempts)")
+                .column("Configuration", "%-38s", PerformanceMetrics::getProblemName)
+                .column("Ops/sec", "%12.2f", PerformanceMetrics::getThroughput)
+                .column("Commits/sec", "%12.2f", m -> m.getEventRate(Stm.EVENT_COMMITS))
+                .column("Abort %", "%10.2f", m -> percentOf(m.getEventCount(Stm.EVENT_ABORTS),
+                        m.getEventCount(Stm.EVENT_COMMITS) + m.getEventCount(Stm.EVENT_ABORTS)))
+                .column("Retries/op", "%10.3f", m -> m.getEventsPerOperation(Stm.EVENT_RETRIES))
+                .column("P99 Wait", "%10.2f", m -> m.getWaitTimePercentile(99))
+                .column("Fairness", "%10.3f", PerformanceMetrics::getFairnessIndex)
+                .print(runs);
+    }
+
+    /**
+     * Scales every barrier from 4 to 256 workers, with no work between phases (pure barrier
+     * cost) and with a short sleep that staggers arrivals, then runs the broken counter.
+     */
+    public static void runBarrierScaling() {
+        List<PerformanceMetrics> runs = sweep("BARRIER SCALING BENCHMARK", sweep -> {
+            for (int workMaxMs : new int[] { 0, 2 }) {
+                for (int workers : BARRIER_WORKER_COUNTS) {
+                    for (PhaseBarrier.Solution solution : PhaseBarrier.Solution.values()) {
+                        PhaseBarrier problem = new PhaseBarrier(workers, solution);
+                        problem.setTiming(0, workMaxMs);
+                        sweep.run(problem, solution + " N=" + workers + (workMaxMs == 0 ? " hot" : ""));
+                    }
+                }
+            }
+            PhaseBarrier problem = new PhaseBarrier(BARRIER_WORKER_COUNTS[1], PhaseBarrier.Solution.SENSE_REVERSING);
+            problem.setTiming(0, 2);
+            sweep.runBroken(problem, "RACY_COUNTER N=" + BARRIER_WORKER_COUNTS[1]);
+        });
+
+        // Release is last arrival to worker 0 leaving; phase is worker 0's departure to departure
+        new ResultTable("BARRIER RESULTS (latencies in ms; \"hot\" rows do no work between phases)")
+                .column("Configuration", "%-30s", PerformanceMetrics::getProblemName)
+                .column("Phases/sec", "%12.2f", m -> m.getEventRate(PhaseBarrier.EVENT_PHASES))
+                .column("Rel P50", "%10.4f", m -> m.getLatencyPercentile(PhaseBarrier.LATENCY_RELEASE, 50))
+                .column("Rel P99", "%10.4f", m -> m.getLatencyPercentile(PhaseBarrier.LATENCY_RELEASE, 99))
+                .column("Rel Max", "%10.4f", m -> m.getMaxLatency(PhaseBarrier.LATENCY_RELEASE))
+                .column("Rel SD", "%10.4f", m -> m.getLatencyStdDev(PhaseBarrier.LATENCY_RELEASE))
+                .column("Phase P99", "%10.4f", m -> m.getLatencyPercentile(PhaseBarrier.LATENCY_PHASE, 99))
+                .column("Phase SD", "%10.4f", m -> m.getLatencyStdDev(PhaseBarrier.LATENCY_PHASE))
+                .column("Violations", "%10d", PerformanceMetrics::getTotalViolations)
+                .print(runs);
+    }
+
+    /**
+     * Runs every transfer strategy over small and large account tables, with uniform and
+     * Zipfian account choice, then the naive lock order on the small skewed table.
+     */
+    public static void runBankTransfers() {
+        List<PerformanceMetrics> runs = sweep("BANK TRANSFER BENCHMARK", sweep -> {
+            for (int accounts : BANK_ACCOUNT_COUNTS) {
+                for (KeyDistribution keys : new KeyDistribution[] { KeyDistribution.uniform(accounts),
+                        KeyDistribution.zipfian(accounts, 0.99) }) {
+                    for (BankTransfer.Solution solution : BankTransfer.Solution.values()) {
+                        BankTransfer problem = new BankTransfer(solution, keys, BANK_TELLERS, BANK_STRIPES);
+                        problem.setTiming(1, 0, 0);
+                        sweep.run(problem, solution + " " + accounts + " " + keys);
+                    }
+                }
+            }
+            KeyDistribution skewed = KeyDistribution.zipfian(BANK_ACCOUNT_COUNTS[0], 0.99);
+            BankTransfer problem = new BankTransfer(BankTransfer.Solution.ORDERED, skewed, BANK_TELLERS, BANK_STRIPES);
+            problem.setTiming(1, 0, 0);
+            sweep.runBroken(problem, "NAIVE " + BANK_ACCOUNT_COUNTS[0] + " " + skewed);
+        });
+
+        // Each transfer holds its locks for 1 ms; violations are audits where the total balance changed
+        new ResultTable("BANK TRANSFER RESULTS (" + BANK_TELLERS + " tellers, " + BANK_STRIPES
+                + " stripes, latency in ms from first lock request to release)")
+                .column("Configuration", "%-36s", PerformanceMetrics::getProblemName)
+                .column("Transfers/sec", "%14.2f", PerformanceMetrics::getThroughput)
+                .column("P50", "%10.3f", m -> m.getLatencyPercentile(BankTransfer.LATENCY_TRANSFER, 50))
+                .column("P99", "%10.3f", m -> m.getLatencyPercentile(BankTransfer.LATENCY_TRANSFER, 99))
+                .column("Backoffs/op", "%12.3f", m -> m.getEventsPerOperation(BankTransfer.EVENT_BACKOFFS))
+                .column("Declined/op", "%12.3f", m -> m.getEventsPerOperation(BankTransfer.EVENT_DECLINED))
+                .column("Deadlock", "%10s", m -> m.isDeadlocked() ? m.getTimeToDeadlock() + " ms" : "-")
+                .column("Violations", "%10d", PerformanceMetrics::getTotalViolations)
+                .print(runs);
+    }
+
+    /**
+     * Measures each problem in the mix alone, then starts every tenant at once with metrics of
+     * its own and compares. Degradation is how much slower a tenant ran than its problem did
+     * solo; normalized progress adds up co-run over solo throughput across tenants, so a mix
+     * of N tenants that shared the machine perfectly would score N.
+     */
+    public static void runCoRun(TenantMix mix) {
+        printBanner("MULTI-TENANT CO-RUN BENCHMARK (" + mix + ")");
+
+        Map<TenantMix.Kind, PerformanceMetrics> solo = new LinkedHashMap<>();
+        List<PerformanceMetrics> tenantMetrics = new ArrayList<>();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int[] peakThreads = new int[1]; // Assigned inside the lambda
+        withLoggingDisabled(() -> {
+            for (TenantMix.Kind kind : mix.getKinds()) {
+                solo.put(kind, benchmarkProblem(TenantMix.newTenant(kind), kind + " solo", true,
+                        SCALING_DURATION_MS));
+            }
+
+            List<SyncProblem> tenants = new ArrayList<>();
+            for (TenantMix.Kind kind : mix.getTenants()) {
+                tenants.add(TenantMix.newTenant(kind));
+            }
+            System.out.println("  Running " + tenants.size() + " tenants together...");
+            threads.resetPeakThreadCount();
+            for (int i = 0; i < tenants.size(); i++) {
+                PerformanceMetrics metrics = new PerformanceMetrics(mix.getTenants().get(i) + " #" + (i + 1), true);
+                ((BenchmarkCapable) tenants.get(i)).setMetrics(metrics);
+                tenantMetrics.add(metrics);
+                tenants.get(i).runFixed();
+            }
+            try {
+                Thread.sleep(SCALING_DURATION_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            peakThreads[0] = threads.getPeakThreadCount();
+            for (int i = 0; i < tenants.size(); i++) {
+                tenants.get(i).stop();
+                tenantMetrics.get(i).finish();
+            }
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        double soloTotal = 0;
+        double coRunTotal = 0;
+        double progress = 0;
+        printTableHeader("CO-RUN RESULTS (" + Runtime.getRuntime().availableProcessors() + " cores, peak "
+                + peakThreads[0] + " live threads)", 112, "%-28s %12s %12s %14s %12s %12s %12s\n",
+                "Tenant", "Solo Ops/s", "Co-run Ops/s", "Degradation", "Solo P99", "Co-run P99", "Violations");
+        for (int i = 0; i < tenantMetrics.size(); i++) {
+            PerformanceMetrics m = tenantMetrics.get(i);
+            PerformanceMetrics alone = solo.get(mix.getTenants().get(i));
+            soloTotal += alone.getThroughput();
+            coRunTotal += m.getThroughput();
+            if (alone.getThroughput() > 0)
+                progress += m.getThroughput() / alone.getThroughput();
+            System.out.printf("%-28s %12.2f %12.2f %14s %12.3f %12.3f %12d\n",
+                    m.getProblemName(),
+                    alone.getThroughput(),
+                    m.getThroughput(),
+                    percentChange(alone.getThroughput(), m.getThroughput(), -1),
+                    alone.getWaitTimePercentile(99),
+                    m.getWaitTimePercentile(99),
+                    m.getTotalViolations());
+        }
+        System.out.println(repeat("-", 112));
+        System.out.printf("%-28s %12.2f %12.2f %14s\n", "System (sum of tenants)", soloTotal, coRunTotal,
+                percentChange(soloTotal, coRunTotal, -1));
+        System.out.printf("Normalized progress: %.2f of %d\n", progress, tenantMetrics.size());
+        System.out.println(repeat("=", 112));
+    }
+
+    /**
+     * Throughput, wait and footprint table for runs made with footprint sampling; memory per
+     * actor is heap (live state) and RSS (which also counts thread stacks) growth divided by
+     * the actor count of each run.
+     */
+    private static void printFootprintResults(String title, List<PerformanceMetrics> allMetrics,
+            List<Integer> actorCounts) {
+        printTableHeader(title + ", memory per actor in bytes", 116, "%-36s %12s %10s %10s %10s %12s %12s %10s\n",
+                "Configuration", "Ops/sec", "P99 Wait", "Fairness", "Threads", "Heap/Actor", "RSS/Actor", "Rejected");
+        for (int i = 0; i < allMetrics.size(); i++) {
+            PerformanceMetrics m = allMetrics.get(i);
+            int actors = actorCounts.get(i);
+            System.out.printf("%-36s %12.2f %10.2f %10.3f %10d %12d %12d %10d\n",
+                    m.getProblemName(),
+                    m.getThroughput(),
+                    m.getWaitTimePercentile(99),
+                    m.getFairnessIndex(),
+                    m.getEventCount(EVENT_PEAK_THREADS),
+                    m.getEventCount(EVENT_HEAP_GROWTH_KB) * 1024 / actors,
+                    m.getEventCount(EVENT_RSS_GROWTH_KB) * 1024 / actors,
+                    m.getEventCount(ActorSystem.EVENT_MAILBOX_REJECTIONS));
+        }
+        System.out.println(repeat("=", 116));
+    }
+
+    /**
+     * Relative change from one value to another (sign -1 reports a reduction), or "n/a" when
+     * there is no baseline to divide by.
+     */
+    private static String percentChange(double from, double to, int sign) {
+        if (from == 0)
+            return to == 0 ? "0.00%" : "n/a (baseline is 0)";
+        return String.format("%.2f%%", sign * (to - from) / from * 100);
+    }
+
     private static void printBenchmarkSummary(List<PerformanceMetrics> allMetrics) {
-        System.out.println("\n" + repeat("=", 70));
-        System.out.println("BENCHMARK RESULTS SUMMARY");
-        System.out.println(repeat("=", 70));
+        printBanner("BENCHMARK RESULTS SUMMARY");
 
         for (PerformanceMetrics metrics : allMetrics) {
             System.out.println("\n" + metrics.toString());
         }
 
         // Comparative analysis
-        System.out.println("\n" + repeat("=", 70));
-        System.out.println("COMPARATIVE ANALYSIS");
-        System.out.println(repeat("=", 70));
+        printBanner("COMPARATIVE ANALYSIS");
 
         // Group by problem type
-        for (int i = 0; i < allMetrics.size(); i += 2) {
+        for (int i = 0; i + 1 < allMetrics.size(); i += 2) {
             PerformanceMetrics broken = allMetrics.get(i);
             PerformanceMetrics fixed = allMetrics.get(i + 1);
 
             System.out.println("\n" + broken.getProblemName() + ":");
 
-            double throughputImprovement = ((fixed.getThroughput() - broken.getThroughput()) / broken.getThroughput())
-                    * 100;
-            System.out.printf("  Throughput Improvement: %.2f%%\n", throughputImprovement);
-
-            double waitTimeReduction = ((broken.getAverageWaitTime() - fixed.getAverageWaitTime())
-                    / broken.getAverageWaitTime()) * 100;
-            System.out.printf("  Wait Time Reduction: %.2f%%\n", waitTimeReduction);
-
-            double contentionReduction = ((broken.getContentionRate() - fixed.getContentionRate())
-                    / broken.getContentionRate()) * 100;
-            System.out.printf("  Contention Reduction: %.2f%%\n", contentionReduction);
+            System.out.printf("  Broken: %.2f ops/sec vs %.2f violations/sec%s\n",
+                    broken.getThroughput(), broken.getViolationRate(),
+                    broken.isDeadlocked() ? " (deadlocked after " + broken.getTimeToDeadlock() + " ms)" : "");
+            System.out.printf("  Fixed:  %.2f ops/sec vs %.2f violations/sec\n",
+                    fixed.getThroughput(), fixed.getViolationRate());
+            System.out.println("  Throughput Change: "
+                    + percentChange(broken.getThroughput(), fixed.getThroughput(), 1));
+            System.out.println("  Wait Time Reduction: "
+                    + percentChange(broken.getAverageWaitTime(), fixed.getAverageWaitTime(), -1));
+            System.out.println("  Contention Reduction: "
+                    + percentChange(broken.getContentionRate(), fixed.getContentionRate(), -1));
 
             System.out.printf("  CPU Utilization (Broken): %.2f%% -> (Fixed): %.2f%%\n",
                     broken.getCpuUtilization(), fixed.getCpuUtilization());
         }
 
         // Overall comparison table
-        System.out.println("\n" + repeat("=", 70));
-        System.out.println("PERFORMANCE COMPARISON TABLE");
-        System.out.println(repeat("=", 70));
-        System.out.printf("%-25s %-10s %10s %12s %12s %10s\n",
-                "Problem", "Mode", "Ops", "Throughput", "Avg Wait", "CPU %");
-        System.out.println(repeat("-", 70));
+        printTableHeader("PERFORMANCE COMPARISON TABLE", 134, "%-25s %-10s %10s %12s %12s %12s %10s %10s %10s %14s\n",
+                "Problem", "Mode", "Ops", "Throughput", "Violations/s", "Avg Wait", "CPU %", "CtxSw/op",
+                "RunQ/op", "Deadlock (ms)");
 
         for (PerformanceMetrics m : allMetrics) {
-            System.out.printf("%-25s %-10s %10d %12.2f %12.2f %10.2f\n",
+            System.out.printf("%-25s %-10s %10d %12.2f %12.2f %12.2f %10.2f %10.2f %10.3f %14s\n",
                     m.getProblemName(),
                     m.isFixed() ? "Fixed" : "Broken",
                     m.getCompletedOperations(),
                     m.getThroughput(),
+                    m.getViolationRate(),
                     m.getAverageWaitTime(),
-                    m.getCpuUtilization());
+                    m.getCpuUtilization(),
+                    m.getContextSwitchesPerOperation(),
+                    m.getRunQueueDelayPerOperation(),
+                    m.isDeadlocked() ? String.valueOf(m.getTimeToDeadlock()) : "-");
         }
 
-        System.out.println(repeat("=", 70));
+        System.out.println(repeat("=", 134));
     }
 }
@@ -1,26 +1,50 @@
 package com.sync.simulator;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CigaretteSmokers implements SyncProblem, BenchmarkCapable, DeadlockDetectable, WorkloadCapable {
+    public static final String EVENT_CPU_MICROS = "CPU Time (us)";
+    public static final String EVENT_TABLE_CAS_RETRIES = "Table CAS Retries";
+    public static final String EVENT_AGENT_STALLS = "Agent Stalls";
+    public static final String LATENCY_ROUND = "Round Latency";
+    public static final String LATENCY_MATCH = "Match Latency";
+
+    private static final int ALL_INGREDIENTS = 0b111;
+    private static final long AGENT_STALL_NANOS = 1_000_000L; // How long an agent waits on a full table
+
+    /**
+     * How {@link #runFixed()} matches ingredients on the table to a smoker.
+     */
+    public enum Solution {
+        PUSHERS, // One pusher thread per ingredient updates three booleans under a global mutex
+        ATOMIC_BITMASK, // The table is one atomic bitmask; the depositing CAS detects the pair itself
+        MATCHING_ENGINE, // K ingredients, many agents and smokers, matched by a ResourceMatcher
+        STM // Same configurations as MATCHING_ENGINE; smokers take all their ingredients in one transaction
+    }
 
-public class CigaretteSmokers implements SyncProblem, BenchmarkCapable {
     // Ingredients: 0=Tobacco, 1=Paper, 2=Matches
     // Smokers: 0=Has Tobacco (needs P+M), 1=Has Paper (needs T+M), 2=Has Matches
     // (needs T+P)
 
-    // Semaphores for Agent to signal presence of ingredients on table
-    private final Semaphore tobacco = new Semaphore(0);
-    private final Semaphore paper = new Semaphore(0);
-    private final Semaphore matches = new Semaphore(0);
+    // Semaphores for Agent to signal presence of ingredients on table (tracked in broken mode)
+    private Semaphore tobacco = new Semaphore(0);
+    private Semaphore paper = new Semaphore(0);
+    private Semaphore matches = new Semaphore(0);
+    private final WaitForGraph waitForGraph = new WaitForGraph();
 
     // Semaphores for Smokers to wait on their specific combination
     private final Semaphore[] smokerSemaphores = new Semaphore[] {
             new Semaphore(0), new Semaphore(0), new Semaphore(0)
     };
 
-    private final Semaphore agentSemaphore = new Semaphore(1); // Agent waits for smoker to finish
+    // Agent waits for smoker to finish (tracked in broken mode)
+    private Semaphore agentSemaphore = new Semaphore(1);
     private final Semaphore mutex = new Semaphore(1); // Protects booleans
 
     // Booleans to track what's on the table (for Pushers)
@@ -28,25 +52,97 @@ public class CigaretteSmokers implements SyncProblem, BenchmarkCapable {
     private boolean isPaper = false;
     private boolean isMatches = false;
 
+    // Atomic bitmask solution: bit i set means ingredient i is on the table
+    private final AtomicInteger table = new AtomicInteger(0);
+
+    private final Stm stm = new Stm(); // STM solution
+
+    private final Solution solution;
+    private volatile long roundStartNanos;
+    private int smokeMs = 1000;
+    private Workload workload = Workload.sleep();
+
+    // Matching engine solution
+    private final int ingredientTypes;
+    private final int numSmokers;
+    private final int numAgents;
+    private int ingredientsPerCigarette;
+    private int tableCapacity = 1;
+
     private final List<Thread> activeThreads = new ArrayList<>();
     private PerformanceMetrics metrics = null;
 
+    public CigaretteSmokers() {
+        this(Solution.PUSHERS);
+    }
+
+    public CigaretteSmokers(Solution solution) {
+        this(solution, 3, 3, 1);
+    }
+
+    /**
+     * Only {@link Solution#MATCHING_ENGINE} and {@link Solution#STM} support other than 3
+     * ingredients, 3 smokers and 1 agent.
+     */
+    public CigaretteSmokers(Solution solution, int ingredientTypes, int numSmokers, int numAgents) {
+        boolean general = solution == Solution.MATCHING_ENGINE || solution == Solution.STM;
+        if (!general && (ingredientTypes != 3 || numSmokers != 3 || numAgents != 1))
+            throw new IllegalArgumentException(solution + " is hard-wired to 3 ingredients, 3 smokers and 1 agent");
+        if (ingredientTypes < 2 || ingredientTypes > ResourceMatcher.MAX_TYPES)
+            throw new IllegalArgumentException("Ingredient types must be in [2, " + ResourceMatcher.MAX_TYPES + "]");
+        this.solution = solution;
+        this.ingredientTypes = ingredientTypes;
+        this.numSmokers = numSmokers;
+        this.numAgents = numAgents;
+        this.ingredientsPerCigarette = ingredientTypes - 1;
+    }
+
     @Override
     public void setMetrics(PerformanceMetrics metrics) {
         this.metrics = metrics;
     }
 
+    @Override
+    public WaitForGraph getWaitForGraph() {
+        return waitForGraph;
+    }
+
+    @Override
+    public void setWorkload(Workload workload) {
+        this.workload = workload;
+    }
+
+    public void setTiming(int smokeMs) {
+        this.smokeMs = smokeMs;
+    }
+
+    /**
+     * Matching engine and STM only: how many distinct ingredients each cigarette needs (and each agent
+     * puts down per round), and how many units of each ingredient the table holds.
+     */
+    public void setMatching(int ingredientsPerCigarette, int tableCapacity) {
+        if (ingredientsPerCigarette < 1 || ingredientsPerCigarette > ingredientTypes)
+            throw new IllegalArgumentException("Ingredients per cigarette must be in [1, " + ingredientTypes + "]");
+        this.ingredientsPerCigarette = ingredientsPerCigarette;
+        this.tableCapacity = tableCapacity;
+    }
+
     @Override
     public void runBroken() {
         Logger.log("Starting Cigarette Smokers (Broken - Deadlock)...");
         // Broken: Naive implementation where smokers grab one item then wait for the
-        // other. Agent blindly puts items.
+        // other. Once two smokers split a pair, nobody smokes, the table is never cleared
+        // and the agent waits forever: a permanent stall the watchdog can report.
+        // Ingredients are consumed, never handed back, so they are signals rather than locks
+        tobacco = new TrackedSemaphore("Tobacco", 0, false, waitForGraph);
+        paper = new TrackedSemaphore("Paper", 0, false, waitForGraph);
+        matches = new TrackedSemaphore("Matches", 0, false, waitForGraph);
+        agentSemaphore = new TrackedSemaphore("Table Clear", 1, false, waitForGraph);
 
         Thread agent = new Thread(() -> {
             try {
-                // In Broken mode, Agent doesn't wait for "Table Clear". This causes buildup and
-                // confusion
                 while (!Thread.currentThread().isInterrupted()) {
+                    agentSemaphore.acquire(); // Wait for table to be empty
                     int rand = ThreadLocalRandom.current().nextInt(3);
                     Logger.log("Agent puts ingredients on table.");
                     if (rand == 0) { // Tobacco + Paper -> Needs Match-Smoker
@@ -72,11 +168,14 @@ public class CigaretteSmokers implements SyncProblem, BenchmarkCapable {
         Thread t0 = new Thread(() -> {
             try {
                 while (!Thread.currentThread().isInterrupted()) {
-                    paper.acquire();
+                    awaitIngredient(paper);
                     Logger.log("Smoker w/ Tobacco picked up Paper. Waiting for Matches...");
                     Thread.sleep(100); // Deadlock window
-                    matches.acquire(); // This might never happen if another smoker took matches
+                    awaitIngredient(matches); // This might never happen if another smoker took matches
                     Logger.log("Smoker w/ Tobacco smoking...");
+                    if (metrics != null)
+                        metrics.recordOperation();
+                    agentSemaphore.release();
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -89,11 +188,14 @@ public class CigaretteSmokers implements SyncProblem, BenchmarkCapable {
         Thread t1 = new Thread(() -> {
             try {
                 while (!Thread.currentThread().isInterrupted()) {
-                    tobacco.acquire();
+                    awaitIngredient(tobacco);
                     Logger.log("Smoker w/ Paper picked up Tobacco. Waiting for Matches...");
                     Thread.sleep(100);
-                    matches.acquire();
+                    awaitIngredient(matches);
                     Logger.log("Smoker w/ Paper smoking...");
+                    if (metrics != null)
+                        metrics.recordOperation();
+                    agentSemaphore.release();
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -106,11 +208,14 @@ public class CigaretteSmokers implements SyncProblem, BenchmarkCapable {
         Thread t2 = new Thread(() -> {
             try {
                 while (!Thread.currentThread().isInterrupted()) {
-                    tobacco.acquire();
+                    awaitIngredient(tobacco);
                     Logger.log("Smoker w/ Matches picked up Tobacco. Waiting for Paper...");
                     Thread.sleep(100);
-                    paper.acquire();
+                    awaitIngredient(paper);
                     Logger.log("Smoker w/ Matches smoking...");
+                    if (metrics != null)
+                        metrics.recordOperation();
+                    agentSemaphore.release();
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -120,8 +225,27 @@ public class CigaretteSmokers implements SyncProblem, BenchmarkCapable {
         activeThreads.add(t2);
     }
 
+    private void awaitIngredient(Semaphore ingredient) throws InterruptedException {
+        long waitStart = System.currentTimeMillis();
+        ingredient.acquire();
+        if (metrics != null)
+            metrics.recordWaitTime(System.currentTimeMillis() - waitStart);
+    }
+
     @Override
     public void runFixed() {
+        if (solution == Solution.ATOMIC_BITMASK) {
+            runAtomicBitmask();
+            return;
+        }
+        if (solution == Solution.MATCHING_ENGINE) {
+            runMatchingEngine();
+            return;
+        }
+        if (solution == Solution.STM) {
+            runStm();
+            return;
+        }
         Logger.log("Starting Cigarette Smokers (Fixed - Pushers)...");
 
         // Agent Thread
@@ -130,6 +254,7 @@ public class CigaretteSmokers implements SyncProblem, BenchmarkCapable {
                 while (!Thread.currentThread().isInterrupted()) {
                     agentSemaphore.acquire(); // Wait for table to be empty
                     int rand = ThreadLocalRandom.current().nextInt(3);
+                    roundStartNanos = System.nanoTime();
                     if (rand == 0) { // Agent offering Tobacco + Paper (Needs Match Smoker 2)
                         Logger.log("Agent put Tobacco and Paper.");
                         tobacco.release();
@@ -162,6 +287,261 @@ public class CigaretteSmokers implements SyncProblem, BenchmarkCapable {
         createSmoker(2, "has Matches");
     }
 
+    /**
+     * No pushers and no mutex: the agent deposits each ingredient with a CAS on the table
+     * bitmask, and whichever deposit completes a pair clears the table and wakes the smoker
+     * holding the third ingredient.
+     */
+    private void runAtomicBitmask() {
+        Logger.log("Starting Cigarette Smokers (Fixed - Atomic Bitmask)...");
+        table.set(0);
+
+        Thread agent = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    agentSemaphore.acquire(); // Wait for table to be empty
+                    int missing = ThreadLocalRandom.current().nextInt(3);
+                    int first = (missing + 1) % 3;
+                    int second = (missing + 2) % 3;
+                    Logger.log("Agent puts " + ingredientName(first) + " and " + ingredientName(second) + ".");
+                    roundStartNanos = System.nanoTime();
+                    deposit(first);
+                    deposit(second);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "Agent");
+        agent.start();
+        activeThreads.add(agent);
+
+        createSmoker(0, "has Tobacco");
+        createSmoker(1, "has Paper");
+        createSmoker(2, "has Matches");
+    }
+
+    private void deposit(int ingredient) {
+        int bit = 1 << ingredient;
+        while (true) {
+            int current = table.get();
+            int next = current | bit;
+            boolean pair = Integer.bitCount(next) == 2;
+            if (table.compareAndSet(current, pair ? 0 : next)) {
+                if (pair) {
+                    // The smoker who owns the one ingredient not on the table
+                    int smoker = Integer.numberOfTrailingZeros(ALL_INGREDIENTS & ~next);
+                    smokerSemaphores[smoker].release();
+                }
+                return;
+            }
+            if (metrics != null)
+                metrics.recordEvent(EVENT_TABLE_CAS_RETRIES);
+        }
+    }
+
+    /**
+     * Agents no longer wait for the table to clear after every round: they keep supplying
+     * ingredients and only wait while everything they offer is already at table capacity.
+     */
+    private void runMatchingEngine() {
+        Logger.log("Starting Cigarette Smokers (Fixed - Matching Engine, " + ingredientTypes + " ingredients, "
+                + numSmokers + " smokers, " + numAgents + " agents)...");
+        ResourceMatcher matcher = new ResourceMatcher(ingredientTypes, tableCapacity);
+        if (metrics != null)
+            metrics.setActorCount(numSmokers);
+
+        for (int a = 0; a < numAgents; a++) {
+            Thread agent = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        int offer = randomIngredients(ingredientsPerCigarette);
+                        if (matcher.supply(offer, AGENT_STALL_NANOS) == 0) {
+                            if (metrics != null)
+                                metrics.recordEvent(EVENT_AGENT_STALLS);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Agent-" + a);
+            agent.start();
+            activeThreads.add(agent);
+        }
+
+        int[] needs = smokerNeeds();
+        for (int i = 0; i < numSmokers; i++) {
+            final int id = i;
+            final int need = needs[i];
+            Thread t = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        long waitStart = System.nanoTime();
+                        matcher.acquire(need);
+                        long waitNanos = System.nanoTime() - waitStart;
+                        if (metrics != null) {
+                            metrics.recordWaitTimeNanos(waitNanos);
+                            metrics.recordLatency(LATENCY_MATCH, waitNanos);
+                        }
+                        Logger.log("Smoker " + id + " got ingredients " + Integer.toBinaryString(need)
+                                + " and smokes.");
+                        long workStart = System.currentTimeMillis();
+                        workload.run(smokeMs);
+                        if (metrics != null) {
+                            metrics.recordActiveTime(System.currentTimeMillis() - workStart);
+                            metrics.recordOperation(id);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Smoker-" + i);
+            t.start();
+            activeThreads.add(t);
+        }
+    }
+
+    /**
+     * The table is one TVar per ingredient type holding its unclaimed count. An agent adds
+     * whatever part of its offer is below capacity in one transaction, and a smoker takes
+     * one of each ingredient it needs in one transaction, retrying until all are there.
+     */
+    private void runStm() {
+        Logger.log("Starting Cigarette Smokers (Fixed - STM, " + ingredientTypes + " ingredients, "
+                + numSmokers + " smokers, " + numAgents + " agents)...");
+        @SuppressWarnings("unchecked")
+        TVar<Integer>[] stock = (TVar<Integer>[]) new TVar<?>[ingredientTypes];
+        for (int t = 0; t < ingredientTypes; t++) {
+            stock[t] = new TVar<>(0);
+        }
+        if (metrics != null)
+            metrics.setActorCount(numSmokers);
+
+        for (int a = 0; a < numAgents; a++) {
+            Thread agent = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        int offer = randomIngredients(ingredientsPerCigarette);
+                        // Puts down whatever part of the offer is below capacity; returns how much
+                        Stm.Transaction<Integer> supply = txn -> {
+                            int supplied = 0;
+                            for (int t = 0; t < ingredientTypes; t++) {
+                                if ((offer & (1 << t)) == 0)
+                                    continue;
+                                int count = txn.read(stock[t]);
+                                if (count < tableCapacity) {
+                                    txn.write(stock[t], count + 1);
+                                    supplied++;
+                                }
+                            }
+                            return supplied;
+                        };
+                        if (stm.atomically(supply) == 0) {
+                            // Every ingredient offered is at capacity: wait for a smoker to take one
+                            if (metrics != null)
+                                metrics.recordEvent(EVENT_AGENT_STALLS);
+                            stm.atomically(txn -> {
+                                if (supply.run(txn) == 0)
+                                    txn.retry();
+                                return null;
+                            });
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Agent-" + a);
+            agent.start();
+            activeThreads.add(agent);
+        }
+
+        int[] needs = smokerNeeds();
+        for (int i = 0; i < numSmokers; i++) {
+            final int id = i;
+            final int need = needs[i];
+            Thread t = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        long waitStart = System.nanoTime();
+                        stm.atomically(txn -> {
+                            for (int k = 0; k < ingredientTypes; k++) {
+                                if ((need & (1 << k)) != 0 && txn.read(stock[k]) == 0)
+                                    txn.retry();
+                            }
+                            for (int k = 0; k < ingredientTypes; k++) {
+                                if ((need & (1 << k)) != 0)
+                                    txn.write(stock[k], txn.read(stock[k]) - 1);
+                            }
+                            return null;
+                        });
+                        long waitNanos = System.nanoTime() - waitStart;
+                        if (metrics != null) {
+                            metrics.recordWaitTimeNanos(waitNanos);
+                            metrics.recordLatency(LATENCY_MATCH, waitNanos);
+                        }
+                        Logger.log("Smoker " + id + " got ingredients " + Integer.toBinaryString(need)
+                                + " and smokes.");
+                        long workStart = System.currentTimeMillis();
+                        workload.run(smokeMs);
+                        if (metrics != null) {
+                            metrics.recordActiveTime(System.currentTimeMillis() - workStart);
+                            metrics.recordOperation(id);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Smoker-" + i);
+            t.start();
+            activeThreads.add(t);
+        }
+    }
+
+    /**
+     * With K-1 ingredients per cigarette, smoker i holds ingredient i mod K and needs the rest,
+     * as in the classic problem. Otherwise smokers cycle through every subset of that size.
+     */
+    private int[] smokerNeeds() {
+        int all = (1 << ingredientTypes) - 1;
+        int[] needs = new int[numSmokers];
+        if (ingredientsPerCigarette == ingredientTypes - 1) {
+            for (int i = 0; i < numSmokers; i++) {
+                needs[i] = all & ~(1 << (i % ingredientTypes));
+            }
+            return needs;
+        }
+        int first = (1 << ingredientsPerCigarette) - 1;
+        int mask = first;
+        for (int i = 0; i < numSmokers; i++) {
+            needs[i] = mask;
+            // Gosper's hack: next larger integer with the same number of bits set
+            int lowest = mask & -mask;
+            int ripple = mask + lowest;
+            mask = (((ripple ^ mask) >>> 2) / lowest) | ripple;
+            if ((mask & ~all) != 0)
+                mask = first;
+        }
+        return needs;
+    }
+
+    private int randomIngredients(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int mask = 0;
+        // Floyd's sampling of count distinct ingredients
+        for (int j = ingredientTypes - count; j < ingredientTypes; j++) {
+            int pick = random.nextInt(j + 1);
+            mask |= (mask & (1 << pick)) == 0 ? 1 << pick : 1 << j;
+        }
+        return mask;
+    }
+
+    private static String ingredientName(int ingredient) {
+        if (ingredient == 0)
+            return "Tobacco";
+        if (ingredient == 1)
+            return "Paper";
+        return "Matches";
+    }
+
     private void createPusher(Semaphore ingredient, String name, int type, int other1, int other2) {
         Thread t = new Thread(() -> {
             try {
@@ -220,12 +600,14 @@ public class CigaretteSmokers implements SyncProblem, BenchmarkCapable {
                 while (!Thread.currentThread().isInterrupted()) {
                     long waitStart = System.currentTimeMillis();
                     smokerSemaphores[id].acquire();
-                    if (metrics != null)
+                    if (metrics != null) {
                         metrics.recordWaitTime(System.currentTimeMillis() - waitStart);
+                        metrics.recordLatency(LATENCY_ROUND, System.nanoTime() - roundStartNanos);
+                    }
 
                     Logger.log("Smoker (" + desc + ") makes cigarette and smokes.");
                     long workStart = System.currentTimeMillis();
-                    Thread.sleep(1000);
+                    workload.run(smokeMs);
                     if (metrics != null) {
                         metrics.recordActiveTime(System.currentTimeMillis() - workStart);
                         metrics.recordOperation();
@@ -244,6 +626,12 @@ public class CigaretteSmokers implements SyncProblem, BenchmarkCapable {
     @Override
     public void stop() {
         Logger.log("Stopping Cigarette Smokers...");
+        recordCpuTime();
+        if (solution == Solution.STM && metrics != null) {
+            metrics.recordEvent(Stm.EVENT_COMMITS, stm.getCommits());
+            metrics.recordEvent(Stm.EVENT_ABORTS, stm.getAborts());
+            metrics.recordEvent(Stm.EVENT_RETRIES, stm.getRetries());
+        }
         for (Thread t : activeThreads) {
             if (t != null && t.isAlive()) {
                 t.interrupt();
@@ -251,4 +639,18 @@ public class CigaretteSmokers implements SyncProblem, BenchmarkCapable {
         }
         activeThreads.clear();
     }
+
+    // Sampled before the threads are interrupted, since a dead thread has no CPU time to report
+    private void recordCpuTime() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (metrics == null || !threads.isThreadCpuTimeSupported())
+            return;
+        long totalNanos = 0;
+        for (Thread t : activeThreads) {
+            long cpu = threads.getThreadCpuTime(t.getId());
+            if (cpu > 0)
+                totalNanos += cpu;
+        }
+        metrics.recordEvent(EVENT_CPU_MICROS, totalNanos / 1000);
+    }
 }
@@ -0,0 +1,54 @@
+package com.sync.simulator;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Craig, Landin and Hagersten queue lock: each waiter spins on its predecessor's node, so a
+ * release touches one waiter's cache line only. The releaser recycles its predecessor's node.
+ */
+public class ClhLock extends SpinLock {
+    private static final class Node {
+        volatile boolean locked;
+
+        Node(boolean locked) {
+            this.locked = locked;
+        }
+    }
+
+    private final AtomicReference<Node> tail = new AtomicReference<>(new Node(false));
+    private final ThreadLocal<Node> myNode = ThreadLocal.withInitial(() -> new Node(false));
+    private final ThreadLocal<Node> myPredecessor = new ThreadLocal<>();
+
+    @Override
+    protected void lock() {
+        Node node = myNode.get();
+        node.locked = true;
+        Node predecessor = tail.getAndSet(node);
+        myPredecessor.set(predecessor);
+        for (int i = 0; predecessor.locked; i++) {
+            spinWait(i);
+        }
+    }
+
+    @Override
+    protected boolean tryLock() {
+        Node predecessor = tail.get();
+        if (predecessor.locked)
+            return false;
+        Node node = myNode.get();
+        node.locked = true;
+        if (tail.compareAndSet(predecessor, node)) {
+            myPredecessor.set(predecessor);
+            return true;
+        }
+        node.locked = false;
+        return false;
+    }
+
+    @Override
+    protected void unlock() {
+        Node node = myNode.get();
+        node.locked = false;
+        myNode.set(myPredecessor.get());
+    }
+}
@@ -0,0 +1,258 @@
+package com.sync.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The condition-variable example at the repository root, scaled up: many waiters each wait
+ * for their own predicate ("I have been granted") and a notifier grants one waiter at a time,
+ * chosen at random, then waits for it to go through. Any other waiter that wakes up for a
+ * grant has woken for nothing.
+ */
+public class ConditionWakeup implements SyncProblem, BenchmarkCapable {
+    public static final String EVENT_WAKEUPS = "Wakeups";
+    public static final String EVENT_SPURIOUS_WAKEUPS = "Spurious Wakeups";
+    public static final String EVENT_RELAYED_SIGNALS = "Relayed Signals";
+    public static final String LATENCY_WAKEUP = "Wakeup Latency";
+
+    /**
+     * Solutions used by {@link #runFixed()}.
+     */
+    public enum Solution {
+        SIGNAL_ALL, // One shared condition, broadcast on every grant
+        SIGNAL, // One shared condition, a single signal relayed until it reaches the granted waiter
+        SPECIFIC_NOTIFICATION // Every waiter registers its own condition; only the granted one is signalled
+    }
+
+    private final int numWaiters;
+    private final Solution solution;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition(); // Shared condition for SIGNAL_ALL and SIGNAL
+    private final Condition notifierTurn = lock.newCondition(); // Notifier waits for a waiter to grant
+    private final Condition[] registered; // Each waiter's own condition, for SPECIFIC_NOTIFICATION
+
+    // Guarded by lock
+    private final boolean[] granted;
+    private final long[] grantedAt; // nanoTime of each waiter's grant
+    private final int[] waiting; // Ids of waiters that have not been granted yet, unordered
+    private final int[] waitingIndex; // Position of each waiter in waiting, -1 if absent
+    private int waitingCount = 0;
+    private boolean grantPending = false; // The last grant has not been picked up yet
+
+    private final List<Thread> activeThreads = new ArrayList<>();
+    private PerformanceMetrics metrics = null;
+
+    public ConditionWakeup() {
+        this(7, Solution.SIGNAL_ALL);
+    }
+
+    public ConditionWakeup(int numWaiters, Solution solution) {
+        if (numWaiters < 1)
+            throw new IllegalArgumentException("Waiter count must be positive");
+        this.numWaiters = numWaiters;
+        this.solution = solution;
+        this.registered = new Condition[numWaiters];
+        this.granted = new boolean[numWaiters];
+        this.grantedAt = new long[numWaiters];
+        this.waiting = new int[numWaiters];
+        this.waitingIndex = new int[numWaiters];
+        for (int i = 0; i < numWaiters; i++) {
+            registered[i] = lock.newCondition();
+            waitingIndex[i] = -1;
+        }
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Condition Wakeup (Broken - if Instead of while, signalAll)...");
+        startThreads(true);
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Condition Wakeup (Fixed - " + solution + ", " + numWaiters + " waiters)...");
+        startThreads(false);
+    }
+
+    private void startThreads(boolean broken) {
+        if (metrics != null)
+            metrics.setActorCount(numWaiters);
+        for (int i = 0; i < numWaiters; i++) {
+            final int id = i;
+            Thread t = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        if (broken)
+                            awaitGrantOnce(id);
+                        else
+                            awaitGrant(id);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Waiter-" + id);
+            t.start();
+            activeThreads.add(t);
+        }
+
+        Thread notifier = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    grant(broken ? Solution.SIGNAL_ALL : solution);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "Notifier");
+        notifier.start();
+        activeThreads.add(notifier);
+    }
+
+    /**
+     * Grants a random waiting waiter and wakes whoever the solution wakes for it.
+     */
+    private void grant(Solution mode) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (grantPending || waitingCount == 0) {
+                notifierTurn.await();
+            }
+            int id = waiting[ThreadLocalRandom.current().nextInt(waitingCount)];
+            leave(id);
+            granted[id] = true;
+            grantPending = true;
+            grantedAt[id] = System.nanoTime();
+            switch (mode) {
+                case SIGNAL_ALL:
+                    changed.signalAll();
+                    break;
+                case SIGNAL:
+                    changed.signal();
+                    break;
+                default:
+                    registered[id].signal();
+                    break;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitGrant(int id) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            join(id);
+            try {
+                while (!granted[id]) {
+                    if (solution == Solution.SPECIFIC_NOTIFICATION)
+                        registered[id].await();
+                    else
+                        changed.await();
+                    if (metrics != null)
+                        metrics.recordEvent(EVENT_WAKEUPS);
+                    if (!granted[id]) {
+                        if (metrics != null)
+                            metrics.recordEvent(EVENT_SPURIOUS_WAKEUPS);
+                        relay();
+                    }
+                }
+            } finally {
+                leave(id); // No-op once granted; drops an interrupted waiter from the draw
+            }
+            pass(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * BROKEN: checks the predicate once, so any broadcast sends every waiter on its way.
+     */
+    private void awaitGrantOnce(int id) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            join(id);
+            if (!granted[id]) {
+                changed.await();
+                if (metrics != null)
+                    metrics.recordEvent(EVENT_WAKEUPS);
+            }
+            if (!granted[id]) {
+                Logger.log("!!! VIOLATION !!! Waiter " + id + " proceeded without being granted");
+                if (metrics != null)
+                    metrics.recordViolation(Violation.PREMATURE_WAKEUP);
+                leave(id);
+                return;
+            }
+            pass(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void join(int id) {
+        waitingIndex[id] = waitingCount;
+        waiting[waitingCount++] = id;
+        notifierTurn.signal();
+    }
+
+    private void leave(int id) {
+        int index = waitingIndex[id];
+        if (index < 0)
+            return;
+        int last = waiting[--waitingCount];
+        waiting[index] = last;
+        waitingIndex[last] = index;
+        waitingIndex[id] = -1;
+    }
+
+    private void pass(int id) {
+        granted[id] = false;
+        grantPending = false;
+        notifierTurn.signal();
+        if (metrics != null) {
+            metrics.recordLatency(LATENCY_WAKEUP, System.nanoTime() - grantedAt[id]);
+            metrics.recordOperation(id);
+        }
+        Logger.log("Waiter " + id + " was granted and went through");
+    }
+
+    /**
+     * With a single signal the woken waiter may not be the granted one, so it passes the
+     * signal on while the grant is still waiting to be picked up.
+     */
+    private void relay() {
+        if (solution == Solution.SIGNAL && grantPending) {
+            changed.signal();
+            if (metrics != null)
+                metrics.recordEvent(EVENT_RELAYED_SIGNALS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Condition Wakeup...");
+        for (Thread t : activeThreads) {
+            if (t != null && t.isAlive()) {
+                t.interrupt();
+            }
+        }
+        for (Thread t : activeThreads) {
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        activeThreads.clear();
+    }
+}
@@ -0,0 +1,75 @@
+package com.sync.simulator;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A small fixed pool that runs continuation-style actors. A delay is a timer callback rather
+ * than a sleeping thread, so an actor that is thinking, waiting on an {@link AsyncSemaphore}
+ * or between steps costs one pending future and no thread.
+ */
+public class ContinuationExecutor implements Executor {
+    private final int threadCount;
+    private final ScheduledThreadPoolExecutor pool;
+    private volatile boolean running = true;
+
+    public ContinuationExecutor(String name, int threadCount) {
+        this.threadCount = threadCount;
+        AtomicInteger threadIds = new AtomicInteger(0);
+        this.pool = new ScheduledThreadPoolExecutor(threadCount,
+                r -> new Thread(r, name + "-Continuation-" + threadIds.getAndIncrement()));
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        try {
+            pool.execute(command);
+        } catch (RejectedExecutionException e) {
+            if (running)
+                throw e;
+        }
+    }
+
+    /**
+     * A future completed on this executor after {@code delayMs}. Even a zero delay goes through
+     * the pool, so a loop of continuations never grows the stack.
+     */
+    public CompletableFuture<Void> delay(int delayMs) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        try {
+            if (delayMs <= 0)
+                pool.execute(() -> done.complete(null));
+            else
+                pool.schedule(() -> done.complete(null), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (running)
+                throw e;
+        }
+        return done;
+    }
+
+    /**
+     * Stops the pool; pending delays are dropped, so every actor chain simply never resumes.
+     */
+    public void shutdown() {
+        running = false;
+        pool.shutdownNow();
+        try {
+            pool.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
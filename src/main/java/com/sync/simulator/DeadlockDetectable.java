@@ -0,0 +1,9 @@
+package com.sync.simulator;
+
+/**
+ * Interface for problems whose primitives report to a {@link WaitForGraph}, so a
+ * {@link DeadlockWatchdog} can tell when a run has deadlocked.
+ */
+public interface DeadlockDetectable {
+    WaitForGraph getWaitForGraph();
+}
@@ -0,0 +1,143 @@
+package com.sync.simulator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls a {@link WaitForGraph} for cycles and permanent stalls, and cross-checks
+ * {@link ThreadMXBean#findDeadlockedThreads()}, which only sees monitors and ownable
+ * synchronizers such as ReentrantLock, never plain semaphores.
+ */
+public class DeadlockWatchdog {
+    public static final String THREAD_NAME = "Deadlock-Watchdog";
+    private static final long SCAN_INTERVAL_MS = 50;
+
+    private final WaitForGraph graph;
+    private final PerformanceMetrics metrics;
+    private final CountDownLatch detected = new CountDownLatch(1);
+    private long stallTimeoutMs = 1000;
+    private long startNanos;
+    private volatile String report = null;
+    private Thread thread;
+
+    /**
+     * @param metrics receives the time to deadlock; may be null to only log the report
+     */
+    public DeadlockWatchdog(WaitForGraph graph, PerformanceMetrics metrics) {
+        this.graph = graph;
+        this.metrics = metrics;
+    }
+
+    /**
+     * How long every participant must have been blocked before a stall without a cycle counts.
+     */
+    public void setStallTimeoutMs(long stallTimeoutMs) {
+        this.stallTimeoutMs = stallTimeoutMs;
+    }
+
+    public void start() {
+        startNanos = System.nanoTime();
+        thread = new Thread(() -> {
+            List<Thread> previousCycle = new ArrayList<>();
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.sleep(SCAN_INTERVAL_MS);
+                    // A cycle seen on two scans in a row is not an artefact of a racy snapshot
+                    List<Thread> cycle = graph.findCycle();
+                    if (!cycle.isEmpty() && sameThreads(cycle, previousCycle)) {
+                        long since = graph.blockedSince(cycle);
+                        if (since != 0) {
+                            detect(since, "Wait-for cycle: " + graph.describe(cycle));
+                            return;
+                        }
+                    }
+                    previousCycle = cycle;
+
+                    List<Thread> stalled = graph.findStall();
+                    long since = graph.blockedSince(stalled);
+                    if (!stalled.isEmpty() && since != 0
+                            && System.nanoTime() - since >= TimeUnit.MILLISECONDS.toNanos(stallTimeoutMs)) {
+                        detect(since, "Permanent stall: all " + stalled.size()
+                                + " participants are blocked with nobody left to release them");
+                        return;
+                    }
+
+                    String jvmReport = findJvmDeadlock();
+                    if (jvmReport != null) {
+                        detect(System.nanoTime(), "JVM-detected deadlock: " + jvmReport);
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Waits up to the given time for a deadlock.
+     *
+     * @return true if one was detected, so the run can end early
+     */
+    public boolean awaitDetection(long timeoutMs) throws InterruptedException {
+        return detected.await(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isDetected() {
+        return report != null;
+    }
+
+    public String getReport() {
+        return report;
+    }
+
+    public void stop() {
+        if (thread != null)
+            thread.interrupt();
+    }
+
+    private void detect(long sinceNanos, String description) {
+        long timeToDeadlockMs = TimeUnit.NANOSECONDS.toMillis(Math.max(0, sinceNanos - startNanos));
+        report = description;
+        Logger.log("!!! DEADLOCK !!! after " + timeToDeadlockMs + " ms. " + description);
+        if (metrics != null)
+            metrics.recordDeadlock(timeToDeadlockMs, description);
+        detected.countDown();
+    }
+
+    private String findJvmDeadlock() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long[] ids = threads.findDeadlockedThreads();
+        if (ids == null)
+            return null;
+        StringBuilder sb = new StringBuilder();
+        for (ThreadInfo info : threads.getThreadInfo(ids)) {
+            if (info == null || !isParticipant(info.getThreadId()))
+                continue;
+            if (sb.length() > 0)
+                sb.append(" -> ");
+            sb.append(info.getThreadName()).append(" waits for ").append(info.getLockName())
+                    .append(" held by ").append(info.getLockOwnerName());
+        }
+        return sb.length() > 0 ? sb.toString() : null;
+    }
+
+    private boolean isParticipant(long threadId) {
+        for (Thread t : graph.getParticipants()) {
+            if (t.getId() == threadId)
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean sameThreads(List<Thread> a, List<Thread> b) {
+        return a.size() == b.size() && a.containsAll(b);
+    }
+}
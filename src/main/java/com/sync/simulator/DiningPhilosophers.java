@@ -1,17 +1,76 @@
 package com.sync.simulator;
 
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
-public class DiningPhilosophers implements SyncProblem, BenchmarkCapable {
-    private static final int NUM_PHILOSOPHERS = 5;
-    private final Semaphore[] forks = new Semaphore[NUM_PHILOSOPHERS];
-    private final Thread[] threads = new Thread[NUM_PHILOSOPHERS];
+public class DiningPhilosophers implements SyncProblem, BenchmarkCapable, DeadlockDetectable, WorkloadCapable {
+    private static final int DEFAULT_PHILOSOPHERS = 5;
+
+    // TIMED_BACKOFF tuning: how long to wait for the second fork, and the backoff window bounds
+    private static final long SECOND_FORK_TIMEOUT_US = 200;
+    private static final long BACKOFF_BASE_US = 50;
+    private static final long BACKOFF_MAX_US = 20_000;
+
+    public static final String EVENT_RETRIES = "Retries";
+    public static final String EVENT_WASTED_HOLD_US = "Wasted Hold Time (us)";
+
+    /**
+     * Deadlock-free strategies used by {@link #runFixed()}.
+     */
+    public enum Solution {
+        ASYMMETRIC, // Even philosophers pick LEFT first, odd pick RIGHT first
+        WAITER, // An arbitrator admits a bounded number of philosophers to the table
+        RESOURCE_HIERARCHY, // Forks are always picked up in global index order
+        CHANDY_MISRA, // Dirty/clean forks handed between neighbours by message passing
+        TIMED_BACKOFF, // tryAcquire on the second fork, drop the first and back off on timeout
+        STM // Both forks are TVars taken in one transaction that retries until both are free
+    }
+
+    private final int numPhilosophers;
+    private final Solution solution;
+    private final Mutex[] forks;
+    private LockType lockType = null; // Set by setLockType; broken mode uses tracked semaphores instead
+    private final Thread[] threads;
+    private final Semaphore waiter;
+    private final WaitForGraph waitForGraph = new WaitForGraph();
+    private final Stm stm = new Stm();
+    private TVar<Boolean>[] forkTaken; // STM only
     private PerformanceMetrics metrics = null;
 
+    // Think/eat durations in ms (upper bound exclusive, 0 disables the phase)
+    private int thinkMinMs = 500;
+    private int thinkMaxMs = 1000;
+    private int eatMinMs = 500;
+    private int eatMaxMs = 1000;
+    private Workload workload = Workload.sleep();
+
     public DiningPhilosophers() {
-        for (int i = 0; i < NUM_PHILOSOPHERS; i++) {
-            forks[i] = new Semaphore(1);
+        this(DEFAULT_PHILOSOPHERS, Solution.ASYMMETRIC);
+    }
+
+    public DiningPhilosophers(int numPhilosophers, Solution solution) {
+        this(numPhilosophers, solution, numPhilosophers - 1);
+    }
+
+    /**
+     * @param admissionLimit seats the WAITER hands out at once; must be below numPhilosophers
+     */
+    public DiningPhilosophers(int numPhilosophers, Solution solution, int admissionLimit) {
+        if (numPhilosophers < 2)
+            throw new IllegalArgumentException("At least 2 philosophers are required");
+        if (admissionLimit < 1 || admissionLimit >= numPhilosophers)
+            throw new IllegalArgumentException("Admission limit must be between 1 and " + (numPhilosophers - 1));
+        this.numPhilosophers = numPhilosophers;
+        this.solution = solution;
+        this.forks = new Mutex[numPhilosophers];
+        this.threads = new Thread[numPhilosophers];
+        this.waiter = new Semaphore(admissionLimit);
+        for (int i = 0; i < numPhilosophers; i++) {
+            forks[i] = Mutex.of(new Semaphore(1));
         }
     }
 
@@ -20,10 +79,54 @@ public class DiningPhilosophers implements SyncProblem, BenchmarkCapable {
         this.metrics = metrics;
     }
 
+    @Override
+    public void setWorkload(Workload workload) {
+        this.workload = workload;
+    }
+
+    /**
+     * Replaces every fork with a fresh primitive of the given type; call before the problem is started.
+     * Fixed mode only: broken mode always uses tracked semaphores so a watchdog can see the forks.
+     */
+    public void setLockType(LockType lockType) {
+        this.lockType = lockType;
+        for (int i = 0; i < numPhilosophers; i++) {
+            forks[i] = lockType.newMutex();
+        }
+    }
+
+    public void setTiming(int thinkMinMs, int thinkMaxMs, int eatMinMs, int eatMaxMs) {
+        this.thinkMinMs = thinkMinMs;
+        this.thinkMaxMs = thinkMaxMs;
+        this.eatMinMs = eatMinMs;
+        this.eatMaxMs = eatMaxMs;
+    }
+
+    public int getNumPhilosophers() {
+        return numPhilosophers;
+    }
+
+    public Solution getSolution() {
+        return solution;
+    }
+
+    @Override
+    public WaitForGraph getWaitForGraph() {
+        return waitForGraph;
+    }
+
     @Override
     public void runBroken() {
         Logger.log("Starting Dining Philosophers (Broken - Deadlock Prone)...");
-        for (int i = 0; i < NUM_PHILOSOPHERS; i++) {
+        if (metrics != null)
+            metrics.setActorCount(numPhilosophers);
+        // Tracked forks let a watchdog name who holds which fork once the table locks up
+        if (lockType != null)
+            Logger.log("Broken mode uses tracked semaphores for its forks, not " + lockType);
+        for (int i = 0; i < numPhilosophers; i++) {
+            forks[i] = Mutex.of(new TrackedSemaphore("Fork-" + i, 1, true, waitForGraph));
+        }
+        for (int i = 0; i < numPhilosophers; i++) {
             final int id = i;
             threads[i] = new Thread(() -> {
                 try {
@@ -45,7 +148,7 @@ public class DiningPhilosophers implements SyncProblem, BenchmarkCapable {
 
                         Logger.log("Philosopher " + id + " trying to pick up RIGHT fork");
                         waitStart = System.currentTimeMillis();
-                        forks[(id + 1) % NUM_PHILOSOPHERS].acquire();
+                        forks[rightFork(id)].acquire();
                         waitTime = System.currentTimeMillis() - waitStart;
                         if (metrics != null) {
                             metrics.recordWaitTime(waitTime);
@@ -58,11 +161,11 @@ public class DiningPhilosophers implements SyncProblem, BenchmarkCapable {
                         eat(id);
                         if (metrics != null) {
                             metrics.recordActiveTime(System.currentTimeMillis() - eatStart);
-                            metrics.recordOperation();
+                            metrics.recordOperation(id);
                         }
 
                         forks[id].release();
-                        forks[(id + 1) % NUM_PHILOSOPHERS].release();
+                        forks[rightFork(id)].release();
                         Logger.log("Philosopher " + id + " put down forks");
                     }
                 } catch (InterruptedException e) {
@@ -75,47 +178,30 @@ public class DiningPhilosophers implements SyncProblem, BenchmarkCapable {
 
     @Override
     public void runFixed() {
-        Logger.log("Starting Dining Philosophers (Fixed - Asymmetric)...");
-        for (int i = 0; i < NUM_PHILOSOPHERS; i++) {
-            final int id = i;
-            threads[i] = new Thread(() -> {
-                try {
-                    while (!Thread.currentThread().isInterrupted()) {
-                        long thinkStart = System.currentTimeMillis();
-                        think(id);
-                        if (metrics != null)
-                            metrics.recordIdleTime(System.currentTimeMillis() - thinkStart);
+        Logger.log("Starting Dining Philosophers (Fixed - " + solution + ", N=" + numPhilosophers + ")...");
+        if (metrics != null)
+            metrics.setActorCount(numPhilosophers);
 
-                        // Fixed Strategy: Asymmetric
-                        long waitStart = System.currentTimeMillis();
-                        if (id % 2 == 0) { // Even philosophers pick LEFT then RIGHT
-                            forks[id].acquire();
-                            Logger.log("Philosopher " + id + " picked up LEFT fork");
-                            forks[(id + 1) % NUM_PHILOSOPHERS].acquire();
-                            Logger.log("Philosopher " + id + " picked up RIGHT fork");
-                        } else { // Odd philosophers pick RIGHT then LEFT
-                            forks[(id + 1) % NUM_PHILOSOPHERS].acquire();
-                            Logger.log("Philosopher " + id + " picked up RIGHT fork");
-                            forks[id].acquire();
-                            Logger.log("Philosopher " + id + " picked up LEFT fork");
-                        }
-                        long waitTime = System.currentTimeMillis() - waitStart;
-                        if (metrics != null) {
-                            metrics.recordWaitTime(waitTime);
-                            if (waitTime > 100)
-                                metrics.recordContention(waitTime);
-                        }
+        if (solution == Solution.STM)
+            forkTaken = newForkVars();
 
-                        long eatStart = System.currentTimeMillis();
-                        eat(id);
-                        if (metrics != null) {
-                            metrics.recordActiveTime(System.currentTimeMillis() - eatStart);
-                            metrics.recordOperation();
-                        }
+        ChandyMisraPhilosopher[] table = null;
+        if (solution == Solution.CHANDY_MISRA) {
+            table = new ChandyMisraPhilosopher[numPhilosophers];
+            for (int i = 0; i < numPhilosophers; i++) {
+                table[i] = new ChandyMisraPhilosopher(i);
+            }
+        }
 
-                        forks[id].release();
-                        forks[(id + 1) % NUM_PHILOSOPHERS].release();
-                        Logger.log("Philosopher " + id + " put down forks");
+        for (int i = 0; i < numPhilosophers; i++) {
+            final int id = i;
+            final ChandyMisraPhilosopher[] cmTable = table;
+            threads[i] = new Thread(() -> {
+                try {
+                    if (cmTable != null) {
+                        cmTable[id].run(cmTable);
+                    } else {
+                        runWithForks(id);
                     }
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
@@ -125,6 +211,260 @@ public class DiningPhilosophers implements SyncProblem, BenchmarkCapable {
         }
     }
 
+    private void runWithForks(int id) throws InterruptedException {
+        while (!Thread.currentThread().isInterrupted()) {
+            long thinkStart = System.currentTimeMillis();
+            think(id);
+            if (metrics != null)
+                metrics.recordIdleTime(System.currentTimeMillis() - thinkStart);
+
+            long waitStart = System.nanoTime();
+            pickUpForks(id);
+            recordHunger(System.nanoTime() - waitStart);
+
+            long eatStart = System.currentTimeMillis();
+            eat(id);
+            if (metrics != null) {
+                metrics.recordActiveTime(System.currentTimeMillis() - eatStart);
+                metrics.recordOperation(id);
+            }
+
+            putDownForks(id);
+            Logger.log("Philosopher " + id + " put down forks");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private TVar<Boolean>[] newForkVars() {
+        TVar<Boolean>[] vars = (TVar<Boolean>[]) new TVar<?>[numPhilosophers];
+        for (int i = 0; i < numPhilosophers; i++) {
+            vars[i] = new TVar<>(false);
+        }
+        return vars;
+    }
+
+    private void putDownForks(int id) throws InterruptedException {
+        int left = id;
+        int right = rightFork(id);
+        if (solution == Solution.STM) {
+            stm.atomically(txn -> {
+                txn.write(forkTaken[left], false);
+                txn.write(forkTaken[right], false);
+                return null;
+            });
+            return;
+        }
+        forks[left].release();
+        forks[right].release();
+        if (solution == Solution.WAITER)
+            waiter.release();
+    }
+
+    private void pickUpForks(int id) throws InterruptedException {
+        int left = id;
+        int right = rightFork(id);
+        switch (solution) {
+            case WAITER:
+                // Arbitrator: never more than admissionLimit philosophers hold or wait for forks
+                waiter.acquire();
+                forks[left].acquire();
+                forks[right].acquire();
+                break;
+            case RESOURCE_HIERARCHY:
+                // Lower-numbered fork first; only the last philosopher reverses its order
+                forks[Math.min(left, right)].acquire();
+                forks[Math.max(left, right)].acquire();
+                break;
+            case TIMED_BACKOFF:
+                pickUpForksWithBackoff(id, left, right);
+                break;
+            case STM:
+                // All or nothing: no philosopher ever holds one fork while waiting for the other
+                stm.atomically(txn -> {
+                    if (txn.read(forkTaken[left]) || txn.read(forkTaken[right]))
+                        txn.retry();
+                    txn.write(forkTaken[left], true);
+                    txn.write(forkTaken[right], true);
+                    return null;
+                });
+                break;
+            default:
+                // Fixed Strategy: Asymmetric
+                if (id % 2 == 0) { // Even philosophers pick LEFT then RIGHT
+                    forks[left].acquire();
+                    Logger.log("Philosopher " + id + " picked up LEFT fork");
+                    forks[right].acquire();
+                    Logger.log("Philosopher " + id + " picked up RIGHT fork");
+                } else { // Odd philosophers pick RIGHT then LEFT
+                    forks[right].acquire();
+                    Logger.log("Philosopher " + id + " picked up RIGHT fork");
+                    forks[left].acquire();
+                    Logger.log("Philosopher " + id + " picked up LEFT fork");
+                }
+                return;
+        }
+        Logger.log("Philosopher " + id + " picked up both forks");
+    }
+
+    /**
+     * Never blocks indefinitely while holding a fork: if the second fork cannot be had within
+     * the timeout the first one is put back and the philosopher sleeps for a random
+     * ("full jitter") slice of an exponentially growing window before trying again.
+     */
+    private void pickUpForksWithBackoff(int id, int left, int right) throws InterruptedException {
+        long backoffWindowUs = BACKOFF_BASE_US;
+        while (true) {
+            forks[left].acquire();
+            long heldSince = System.nanoTime();
+            if (forks[right].tryAcquire(SECOND_FORK_TIMEOUT_US, TimeUnit.MICROSECONDS)) {
+                return;
+            }
+            forks[left].release();
+            Logger.log("Philosopher " + id + " timed out on RIGHT fork, backing off");
+            if (metrics != null) {
+                metrics.recordEvent(EVENT_RETRIES);
+                metrics.recordEvent(EVENT_WASTED_HOLD_US, (System.nanoTime() - heldSince) / 1_000L);
+            }
+
+            long delayUs = ThreadLocalRandom.current().nextLong(backoffWindowUs + 1);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(delayUs));
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            backoffWindowUs = Math.min(backoffWindowUs * 2, BACKOFF_MAX_US);
+        }
+    }
+
+    private void recordHunger(long waitNanos) {
+        if (metrics != null) {
+            metrics.recordWaitTimeNanos(waitNanos);
+            long waitMs = waitNanos / 1_000_000L;
+            if (waitMs > 100)
+                metrics.recordContention(waitMs);
+        }
+    }
+
+    private int rightFork(int id) {
+        return (id + 1) % numPhilosophers;
+    }
+
+    /**
+     * Chandy-Misra philosopher. Fork f lies between philosophers f-1 and f; it starts dirty
+     * with the lower id, so the precedence graph is acyclic. All state is owned by the
+     * philosopher's thread; neighbours interact only through the mailbox.
+     */
+    private class ChandyMisraPhilosopher {
+        private static final int REQUEST = 0;
+        private static final int FORK = 1;
+        private static final int LEFT = 0;
+        private static final int RIGHT = 1;
+
+        private final int id;
+        private final int[] forkIds = new int[2];
+        private final int[] neighbours = new int[2];
+        private final boolean[] hasFork = new boolean[2];
+        private final boolean[] dirty = new boolean[2];
+        private final boolean[] hasRequestToken = new boolean[2];
+        private final BlockingQueue<Integer> mailbox = new LinkedBlockingQueue<>();
+        private boolean hungry = false;
+
+        ChandyMisraPhilosopher(int id) {
+            this.id = id;
+            forkIds[LEFT] = id;
+            forkIds[RIGHT] = rightFork(id);
+            neighbours[LEFT] = (id - 1 + numPhilosophers) % numPhilosophers;
+            neighbours[RIGHT] = rightFork(id);
+            for (int side = LEFT; side <= RIGHT; side++) {
+                hasFork[side] = id == Math.min(id, neighbours[side]);
+                dirty[side] = hasFork[side];
+                hasRequestToken[side] = !hasFork[side];
+            }
+        }
+
+        void run(ChandyMisraPhilosopher[] table) throws InterruptedException {
+            while (!Thread.currentThread().isInterrupted()) {
+                // Thinking: keep answering requests until the think time has elapsed
+                long thinkStart = System.currentTimeMillis();
+                long thinkNanos = TimeUnit.MILLISECONDS.toNanos(randomBetween(thinkMinMs, thinkMaxMs));
+                long deadline = System.nanoTime() + thinkNanos;
+                Logger.log("Philosopher " + id + " is thinking...");
+                for (long remaining = thinkNanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+                    Integer message = mailbox.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (message != null)
+                        handle(message, table);
+                }
+                if (metrics != null)
+                    metrics.recordIdleTime(System.currentTimeMillis() - thinkStart);
+
+                // Hungry: ask for every missing fork we hold the request token for
+                long waitStart = System.nanoTime();
+                hungry = true;
+                // Requests may be pending even with zero think time; dirty forks must be given up
+                Integer pending;
+                while ((pending = mailbox.poll()) != null) {
+                    handle(pending, table);
+                }
+                for (int side = LEFT; side <= RIGHT; side++) {
+                    if (!hasFork[side] && hasRequestToken[side]) {
+                        hasRequestToken[side] = false;
+                        send(table, side, REQUEST);
+                    }
+                }
+                while (!hasFork[LEFT] || !hasFork[RIGHT]) {
+                    handle(mailbox.take(), table);
+                }
+                recordHunger(System.nanoTime() - waitStart);
+
+                // Requests arriving while eating stay queued in the mailbox
+                long eatStart = System.currentTimeMillis();
+                eat(id);
+                hungry = false;
+                dirty[LEFT] = true;
+                dirty[RIGHT] = true;
+                if (metrics != null) {
+                    metrics.recordActiveTime(System.currentTimeMillis() - eatStart);
+                    metrics.recordOperation(id);
+                }
+
+                // Honour requests deferred while the forks were clean
+                for (int side = LEFT; side <= RIGHT; side++) {
+                    if (hasRequestToken[side])
+                        giveFork(table, side);
+                }
+                Logger.log("Philosopher " + id + " put down forks");
+            }
+        }
+
+        private void handle(int message, ChandyMisraPhilosopher[] table) {
+            int forkId = message >> 1;
+            int side = forkId == forkIds[LEFT] ? LEFT : RIGHT;
+            if ((message & 1) == FORK) {
+                hasFork[side] = true;
+                dirty[side] = false;
+                Logger.log("Philosopher " + id + " received clean fork " + forkId);
+                return;
+            }
+            hasRequestToken[side] = true;
+            // A clean fork was handed over for our next meal; keep it until we have eaten
+            if (hasFork[side] && dirty[side]) {
+                giveFork(table, side);
+                if (hungry) {
+                    hasRequestToken[side] = false;
+                    send(table, side, REQUEST);
+                }
+            }
+        }
+
+        private void giveFork(ChandyMisraPhilosopher[] table, int side) {
+            hasFork[side] = false;
+            dirty[side] = false;
+            send(table, side, FORK);
+        }
+
+        private void send(ChandyMisraPhilosopher[] table, int side, int type) {
+            table[neighbours[side]].mailbox.add((forkIds[side] << 1) | type);
+        }
+    }
+
     @Override
     public void stop() {
         Logger.log("Stopping Dining Philosophers...");
@@ -133,15 +473,28 @@ public class DiningPhilosophers implements SyncProblem, BenchmarkCapable {
                 t.interrupt();
             }
         }
+        if (solution == Solution.STM && metrics != null) {
+            metrics.recordEvent(Stm.EVENT_COMMITS, stm.getCommits());
+            metrics.recordEvent(Stm.EVENT_ABORTS, stm.getAborts());
+            metrics.recordEvent(Stm.EVENT_RETRIES, stm.getRetries());
+        }
     }
 
     private void think(int id) throws InterruptedException {
         Logger.log("Philosopher " + id + " is thinking...");
-        Thread.sleep(ThreadLocalRandom.current().nextInt(500, 1000));
+        sleepBetween(thinkMinMs, thinkMaxMs);
     }
 
     private void eat(int id) throws InterruptedException {
         Logger.log("Philosopher " + id + " is EATING");
-        Thread.sleep(ThreadLocalRandom.current().nextInt(500, 1000));
+        sleepBetween(eatMinMs, eatMaxMs);
+    }
+
+    private void sleepBetween(int minMs, int maxMs) throws InterruptedException {
+        workload.run(randomBetween(minMs, maxMs));
+    }
+
+    private static int randomBetween(int minMs, int maxMs) {
+        return maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : maxMs;
     }
 }
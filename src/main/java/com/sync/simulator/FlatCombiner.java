@@ -0,0 +1,150 @@
+package com.sync.simulator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Flat combining (Hendler et al.): instead of every thread taking a lock for a tiny update,
+ * each thread publishes its update in its own slot and whichever thread wins the combiner
+ * lock applies every pending update in one pass. The shared state stays in the combiner's
+ * cache and the lock changes hands once per pass instead of once per update.
+ *
+ * Subclasses may wrap each pass in {@link #beforePass()} and {@link #afterPass()}, e.g. to
+ * hold a semaphore for the whole batch.
+ */
+public class FlatCombiner {
+    // Passes over the slots per turn; stops early once a pass finds nothing to apply
+    private static final int MAX_SCANS = 4;
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    /**
+     * An update applied by the combining thread. If it throws it must leave the shared state
+     * unchanged, because it is put back in its slot to be applied again later.
+     */
+    public interface Operation {
+        int apply() throws InterruptedException;
+    }
+
+    private static final class Slot {
+        private static final AtomicReferenceFieldUpdater<Slot, Operation> OPERATION =
+                AtomicReferenceFieldUpdater.newUpdater(Slot.class, Operation.class, "operation");
+
+        final Slot next;
+        volatile Operation operation; // Pending request, null when idle or claimed
+        volatile boolean done;
+        int result; // Published by the write to done
+
+        Slot(Slot next) {
+            this.next = next;
+        }
+
+        boolean claim(Operation expected) {
+            return OPERATION.compareAndSet(this, expected, null);
+        }
+    }
+
+    private final AtomicInteger locked = new AtomicInteger(0);
+    private final AtomicReference<Slot> slots = new AtomicReference<>(); // Publication list, newest first
+    private final ThreadLocal<Slot> localSlot = ThreadLocal.withInitial(this::register);
+
+    // Only written by the combining thread
+    private volatile long rounds = 0;
+    private volatile long combinedRequests = 0;
+
+    /**
+     * Publishes the operation and waits until it has been applied, combining other threads'
+     * operations if this thread gets the combiner lock first.
+     *
+     * @return what the operation returned
+     */
+    public int execute(Operation operation) throws InterruptedException {
+        Slot slot = localSlot.get();
+        slot.done = false;
+        slot.operation = operation;
+        for (int spins = 0; !slot.done; spins++) {
+            if (locked.get() == 0 && locked.compareAndSet(0, 1)) {
+                try {
+                    combine();
+                } catch (InterruptedException e) {
+                    if (slot.claim(operation))
+                        throw e;
+                    Thread.currentThread().interrupt(); // Someone else is applying it; wait for the result
+                } finally {
+                    locked.set(0);
+                }
+                continue;
+            }
+            if (Thread.interrupted()) {
+                if (slot.claim(operation))
+                    throw new InterruptedException();
+                Thread.currentThread().interrupt();
+            }
+            if (spins >= SPINS_BEFORE_YIELD)
+                Thread.yield();
+        }
+        return slot.result;
+    }
+
+    /**
+     * Runs on the combining thread before it applies a batch.
+     */
+    protected void beforePass() throws InterruptedException {
+    }
+
+    /**
+     * Runs on the combining thread after it applied a batch, even if the batch failed.
+     */
+    protected void afterPass() {
+    }
+
+    /**
+     * Number of times a thread took the combiner lock and applied a batch.
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    public long getCombinedRequests() {
+        return combinedRequests;
+    }
+
+    private void combine() throws InterruptedException {
+        beforePass();
+        long applied = 0;
+        try {
+            for (int scan = 0; scan < MAX_SCANS; scan++) {
+                long found = 0;
+                for (Slot slot = slots.get(); slot != null; slot = slot.next) {
+                    Operation operation = slot.operation;
+                    if (operation == null || !slot.claim(operation))
+                        continue;
+                    try {
+                        slot.result = operation.apply();
+                    } catch (InterruptedException e) {
+                        slot.operation = operation; // Only this thread was interrupted; leave it for the next combiner
+                        throw e;
+                    }
+                    slot.done = true;
+                    found++;
+                }
+                applied += found;
+                if (found == 0)
+                    break;
+            }
+        } finally {
+            rounds++;
+            combinedRequests += applied;
+            afterPass();
+        }
+    }
+
+    private Slot register() {
+        while (true) {
+            Slot head = slots.get();
+            Slot slot = new Slot(head);
+            if (slots.compareAndSet(head, slot))
+                return slot;
+        }
+    }
+}
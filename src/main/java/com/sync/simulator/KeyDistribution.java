@@ -0,0 +1,76 @@
+package com.sync.simulator;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks keys in [0, keyCount) either uniformly or from a Zipfian distribution where key 0 is
+ * the hottest. Zipfian sampling follows Gray et al. ("Quickly Generating Billion-Record
+ * Synthetic Databases"), so it is O(1) per key after an O(n) setup.
+ */
+public class KeyDistribution {
+    private final int keyCount;
+    private final double theta;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+    private final double secondKeyThreshold;
+
+    private KeyDistribution(int keyCount, double theta) {
+        if (keyCount < 1)
+            throw new IllegalArgumentException("Key count must be positive");
+        if (theta < 0 || theta >= 1)
+            throw new IllegalArgumentException("Zipfian theta must be in [0, 1)");
+        this.keyCount = keyCount;
+        this.theta = theta;
+        if (theta == 0) {
+            this.zetaN = 0;
+            this.alpha = 0;
+            this.eta = 0;
+            this.secondKeyThreshold = 0;
+            return;
+        }
+        double zeta2 = 1.0 + Math.pow(0.5, theta);
+        double zeta = 0;
+        for (int i = 1; i <= keyCount; i++) {
+            zeta += 1.0 / Math.pow(i, theta);
+        }
+        this.zetaN = zeta;
+        this.alpha = 1.0 / (1.0 - theta);
+        this.eta = (1.0 - Math.pow(2.0 / keyCount, 1.0 - theta)) / (1.0 - zeta2 / zetaN);
+        this.secondKeyThreshold = 1.0 + Math.pow(0.5, theta);
+    }
+
+    public static KeyDistribution uniform(int keyCount) {
+        return new KeyDistribution(keyCount, 0);
+    }
+
+    /**
+     * @param theta skew in [0, 1); 0 is uniform, 0.99 is the usual "hot key" setting
+     */
+    public static KeyDistribution zipfian(int keyCount, double theta) {
+        return new KeyDistribution(keyCount, theta);
+    }
+
+    public int nextKey() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (theta == 0)
+            return random.nextInt(keyCount);
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0)
+            return 0;
+        if (uz < secondKeyThreshold)
+            return Math.min(1, keyCount - 1);
+        int key = (int) (keyCount * Math.pow(eta * u - eta + 1.0, alpha));
+        return Math.min(key, keyCount - 1);
+    }
+
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    @Override
+    public String toString() {
+        return theta == 0 ? "uniform" : String.format("zipf(%.2f)", theta);
+    }
+}
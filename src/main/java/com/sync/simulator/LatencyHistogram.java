@@ -0,0 +1,95 @@
+package com.sync.simulator;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Lock-free log-linear histogram of latencies in nanoseconds.
+ * Each power of two is split into 32 sub-buckets, so percentiles are accurate to about 3%.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong(0);
+    private final AtomicLong sum = new AtomicLong(0);
+    private final AtomicLong max = new AtomicLong(0);
+    private final DoubleAdder sumOfSquares = new DoubleAdder(); // A long would overflow at ms latencies
+
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        buckets.incrementAndGet(indexFor(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+        sumOfSquares.add((double) nanos * nanos);
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos)) {
+            current = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    public double getMeanNanos() {
+        long n = count.get();
+        return n > 0 ? (double) sum.get() / n : 0.0;
+    }
+
+    /**
+     * Population standard deviation from the exact sums, not the buckets.
+     */
+    public double getStdDevNanos() {
+        long n = count.get();
+        if (n == 0)
+            return 0.0;
+        double mean = (double) sum.get() / n;
+        return Math.sqrt(Math.max(0.0, sumOfSquares.sum() / n - mean * mean));
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile (0-100).
+     */
+    public long getPercentileNanos(double percentile) {
+        long total = count.get();
+        if (total == 0)
+            return 0;
+        long rank = (long) Math.ceil(total * (percentile / 100.0));
+        if (rank < 1)
+            rank = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int indexFor(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        long lower = (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,36 @@
+package com.sync.simulator;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Mutual exclusion primitives a problem can use for its forks or mutex. All of them are
+ * {@link Mutex}es, so problem code does not change with the choice.
+ */
+public enum LockType {
+    SEMAPHORE, // java.util.concurrent.Semaphore, barging
+    FAIR_SEMAPHORE, // java.util.concurrent.Semaphore, FIFO
+    TICKET, // Ticket spin lock, FIFO, global spinning
+    CLH, // CLH queue lock, FIFO, spins on predecessor
+    MCS, // MCS queue lock, FIFO, spins on own node
+    TTAS_BACKOFF, // Test-and-test-and-set with exponential backoff, not FIFO
+    SPIN_THEN_PARK; // Adaptive spinning, then parks like a Semaphore
+
+    public Mutex newMutex() {
+        switch (this) {
+            case FAIR_SEMAPHORE:
+                return Mutex.of(new Semaphore(1, true));
+            case TICKET:
+                return new TicketLock();
+            case CLH:
+                return new ClhLock();
+            case MCS:
+                return new McsLock();
+            case TTAS_BACKOFF:
+                return new TtasBackoffLock();
+            case SPIN_THEN_PARK:
+                return Mutex.of(new SpinThenParkSemaphore(1));
+            default:
+                return Mutex.of(new Semaphore(1));
+        }
+    }
+}
@@ -5,8 +5,20 @@ import java.time.format.DateTimeFormatter;
 
 public class Logger {
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static volatile boolean enabled = true;
+
+    // Scaling benchmarks run thousands of threads; per-step logging would dominate the run
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
 
     public static void log(String message) {
+        if (!enabled)
+            return;
         String threadName = Thread.currentThread().getName();
         String timestamp = LocalDateTime.now().format(formatter);
         System.out.printf("[%s] [%s] : %s%n", threadName, timestamp, message);
@@ -14,8 +14,10 @@ public class Main {
             System.out.println("3. Sleeping Barber");
             System.out.println("4. Cigarette Smokers");
             System.out.println("5. Producer-Consumer");
-            System.out.println("6. Run Performance Benchmarks");
-            System.out.println("7. Exit");
+            System.out.println("6. Bank Transfer");
+            System.out.println("7. Phase Barrier");
+            System.out.println("8. Run Performance Benchmarks");
+            System.out.println("9. Exit");
             System.out.print("Select a problem to simulate: ");
 
             int choice = -1;
@@ -26,7 +28,7 @@ public class Main {
                 continue;
             }
 
-            if (choice == 7) {
+            if (choice == 9) {
                 if (currentProblem != null) {
                     currentProblem.stop();
                 }
@@ -34,7 +36,7 @@ public class Main {
                 break;
             }
 
-            if (choice == 6) {
+            if (choice == 8) {
                 // Run benchmarks
                 if (currentProblem != null) {
                     currentProblem.stop();
@@ -44,7 +46,121 @@ public class Main {
                     }
                     currentProblem = null;
                 }
-                BenchmarkRunner.runAllBenchmarks();
+                System.out.println("\nSelect Benchmark Suite:");
+                System.out.println("1. All Problems (Broken vs Fixed)");
+                System.out.println("2. Dining Philosophers Scaling (Solutions vs Table Size)");
+                System.out.println("3. Dining Philosophers Contention (Blocking vs Timed Backoff)");
+                System.out.println("4. Readers-Writers Policies (Read:Write Ratios)");
+                System.out.println("5. Readers-Writers Snapshot Scaling (Copy-on-Write vs Semaphores)");
+                System.out.println("6. Sharded Readers-Writers (Stripe Count vs Key Skew)");
+                System.out.println("7. Sleeping Barber Pool Sizing (Barbers vs Dispatch Policy)");
+                System.out.println("8. Open-Loop Load Curves (Offered Rate vs Latency)");
+                System.out.println("9. Sleeping Barber Handoff (Lock-Free vs Blocking Waiting Room)");
+                System.out.println("10. Sleeping Barber Service Classes (Priority and Deadline Scheduling)");
+                System.out.println("11. Cigarette Smokers Table State (Pushers vs Atomic Bitmask)");
+                System.out.println("12. Cigarette Smokers Matching Engine (Ingredient Types vs Smokers)");
+                System.out.println("13. Sleep vs CPU-Bound Workloads (Hashing and Cache-Line Traffic)");
+                System.out.println("14. Lock Primitives (Ticket, CLH, MCS, TTAS, Spin-Then-Park vs Semaphore)");
+                System.out.println("15. Flat Combining vs Per-Operation Mutex (8-64 Threads)");
+                System.out.println("16. Shared Counter Primitives (Monitor, Locks, Semaphore, Atomics)");
+                System.out.println("17. Condition Wakeups (signalAll vs signal vs Specific Notification)");
+                System.out.println("18. Actor Engine vs Thread per Actor (Throughput, Memory, 100k Actors)");
+                System.out.println("19. Async Semaphores vs Blocking Threads (CompletableFuture Continuations)");
+                System.out.println("20. Software Transactional Memory vs Locks (Dining, Smokers)");
+                System.out.println("21. Barriers (CyclicBarrier, Phaser, Sense-Reversing, Tree, Dissemination)");
+                System.out.println("22. Bank Transfers (Lock Ordering, Striping, Try-Lock, Global Lock)");
+                System.out.println("23. Multi-Tenant Co-Run (Several Problems at Once vs Solo)");
+                System.out.print("Enter choice: ");
+
+                int suite = -1;
+                try {
+                    suite = Integer.parseInt(scanner.nextLine());
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid input. Running all problems.");
+                    suite = 1;
+                }
+
+                switch (suite) {
+                    case 2:
+                        BenchmarkRunner.runDiningPhilosophersScaling();
+                        break;
+                    case 3:
+                        BenchmarkRunner.runDiningPhilosophersContention();
+                        break;
+                    case 4:
+                        BenchmarkRunner.runReadersWritersPolicies();
+                        break;
+                    case 5:
+                        BenchmarkRunner.runReadersWritersSnapshotScaling();
+                        break;
+                    case 6:
+                        BenchmarkRunner.runShardedReadersWriters();
+                        break;
+                    case 7:
+                        BenchmarkRunner.runBarberPoolSizing();
+                        break;
+                    case 8:
+                        BenchmarkRunner.runOpenLoopLoadCurves();
+                        break;
+                    case 9:
+                        BenchmarkRunner.runBarberHandoff();
+                        break;
+                    case 10:
+                        BenchmarkRunner.runBarberServiceClasses();
+                        break;
+                    case 11:
+                        BenchmarkRunner.runSmokersTableState();
+                        break;
+                    case 12:
+                        BenchmarkRunner.runSmokersMatchingScaling();
+                        break;
+                    case 13:
+                        BenchmarkRunner.runWorkloadComparison();
+                        break;
+                    case 14:
+                        BenchmarkRunner.runLockComparison();
+                        break;
+                    case 15:
+                        BenchmarkRunner.runFlatCombining();
+                        break;
+                    case 16:
+                        BenchmarkRunner.runCounterShootout();
+                        break;
+                    case 17:
+                        BenchmarkRunner.runConditionWakeup();
+                        break;
+                    case 18:
+                        BenchmarkRunner.runActorComparison();
+                        break;
+                    case 19:
+                        BenchmarkRunner.runAsyncComparison();
+                        break;
+                    case 20:
+                        BenchmarkRunner.runStmComparison();
+                        break;
+                    case 21:
+                        BenchmarkRunner.runBarrierScaling();
+                        break;
+                    case 22:
+                        BenchmarkRunner.runBankTransfers();
+                        break;
+                    case 23: {
+                        System.out.print("Tenant mix (Enter for " + TenantMix.DEFAULT + "): ");
+                        String spec = scanner.nextLine().trim();
+                        TenantMix mix;
+                        try {
+                            mix = TenantMix.parse(spec.isEmpty() ? TenantMix.DEFAULT : spec);
+                        } catch (IllegalArgumentException e) {
+                            System.out.println("Invalid mix: " + e.getMessage() + ". Using " + TenantMix.DEFAULT + ".");
+                            mix = TenantMix.parse(TenantMix.DEFAULT);
+                        }
+                        BenchmarkRunner.runCoRun(mix);
+                        break;
+                    }
+                    default:
+                        BenchmarkRunner.runAllBenchmarks();
+                        break;
+                }
                 continue;
             }
 
@@ -74,6 +190,12 @@ public class Main {
                 case 5:
                     problem = new ProducerConsumer();
                     break;
+                case 6:
+                    problem = new BankTransfer();
+                    break;
+                case 7:
+                    problem = new PhaseBarrier();
+                    break;
                 default:
                     System.out.println("Invalid number. Try again.");
                     continue;
@@ -96,13 +218,21 @@ public class Main {
             System.out.println(
                     "\n--- Starting Simulation (Press Enter to stop and return to menu) ---");
 
+            DeadlockWatchdog watchdog = null;
             if (mode == 2) {
                 problem.runFixed();
             } else {
                 problem.runBroken();
+                if (problem instanceof DeadlockDetectable) {
+                    // Logs the wait-for cycle if the simulation locks up
+                    watchdog = new DeadlockWatchdog(((DeadlockDetectable) problem).getWaitForGraph(), null);
+                    watchdog.start();
+                }
             }
 
             scanner.nextLine();
+            if (watchdog != null)
+                watchdog.stop();
             problem.stop();
             System.out.println("--- Simulation Stopped ---");
         }
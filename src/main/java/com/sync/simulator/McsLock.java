@@ -0,0 +1,54 @@
+package com.sync.simulator;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mellor-Crummey and Scott queue lock: each waiter spins on a flag in its own node and the
+ * releaser hands the lock to its successor explicitly, so spinning stays local.
+ */
+public class McsLock extends SpinLock {
+    private static final class Node {
+        volatile boolean locked;
+        volatile Node next;
+    }
+
+    private final AtomicReference<Node> tail = new AtomicReference<>();
+    private final ThreadLocal<Node> myNode = ThreadLocal.withInitial(Node::new);
+
+    @Override
+    protected void lock() {
+        Node node = myNode.get();
+        node.next = null;
+        node.locked = true;
+        Node predecessor = tail.getAndSet(node);
+        if (predecessor == null)
+            return;
+        predecessor.next = node;
+        for (int i = 0; node.locked; i++) {
+            spinWait(i);
+        }
+    }
+
+    @Override
+    protected boolean tryLock() {
+        Node node = myNode.get();
+        node.next = null;
+        return tail.compareAndSet(null, node);
+    }
+
+    @Override
+    protected void unlock() {
+        Node node = myNode.get();
+        Node successor = node.next;
+        if (successor == null) {
+            if (tail.compareAndSet(node, null))
+                return;
+            // A successor has swapped the tail but not linked itself in yet
+            for (int i = 0; (successor = node.next) == null; i++) {
+                spinWait(i);
+            }
+        }
+        node.next = null;
+        successor.locked = false;
+    }
+}
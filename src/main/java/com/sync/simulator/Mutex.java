@@ -0,0 +1,39 @@
+package com.sync.simulator;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A lock that guards a fork or a buffer, released by the thread that acquired it. Spin locks
+ * implement it directly; a {@link Semaphore} with one permit is adapted by {@link #of}.
+ */
+public interface Mutex {
+    void acquire() throws InterruptedException;
+
+    boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException;
+
+    void release();
+
+    /**
+     * Uses a single-permit semaphore as a mutex, keeping whatever the semaphore itself does,
+     * e.g. wait-for tracking in a {@link TrackedSemaphore}.
+     */
+    static Mutex of(Semaphore semaphore) {
+        return new Mutex() {
+            @Override
+            public void acquire() throws InterruptedException {
+                semaphore.acquire();
+            }
+
+            @Override
+            public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+                return semaphore.tryAcquire(timeout, unit);
+            }
+
+            @Override
+            public void release() {
+                semaphore.release();
+            }
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.sync.simulator;
+
+/**
+ * Interface for problems whose request side can be driven by an {@link OpenLoopLoadGenerator}
+ * instead of by a fixed set of self-pacing threads.
+ */
+public interface OpenLoopCapable {
+    /**
+     * Starts only the serving side (barbers, consumers, ...); requests come from the generator.
+     */
+    void startServers();
+
+    /**
+     * Performs one request on the calling client thread and returns once it has been served.
+     *
+     * @return false if the request was turned away (e.g. the waiting room was full)
+     */
+    boolean serveRequest(int clientId) throws InterruptedException;
+}
@@ -0,0 +1,161 @@
+package com.sync.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Issues requests against an {@link OpenLoopCapable} problem on a fixed schedule, whether or
+ * not earlier requests have finished. Latency is measured from each request's intended
+ * arrival time, so time spent queued behind a saturated system is counted instead of being
+ * silently omitted (the "coordinated omission" a closed-loop client suffers from).
+ */
+public class OpenLoopLoadGenerator {
+    public static final String EVENT_OFFERED = "Offered Requests";
+    public static final String EVENT_COMPLETED = "Completed Requests";
+    public static final String EVENT_REJECTED = "Rejected Requests";
+    public static final String EVENT_DROPPED = "Dropped Requests";
+    public static final String EVENT_UNFINISHED = "Unfinished Requests";
+    public static final String LATENCY_RESPONSE = "Response Time";
+    public static final String LATENCY_SERVICE = "Response Time (from actual start)";
+
+    private static final int MAX_BACKLOG = 100_000; // Arrivals beyond this are dropped and counted
+    private static final long BURST_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+    private static final int BURST_DUTY_PERCENT = 25; // BURSTY is on for 25% of each period
+
+    public enum ArrivalProcess {
+        CONSTANT, // Evenly spaced arrivals
+        POISSON, // Exponentially distributed gaps
+        BURSTY // Poisson at 4x the rate during the first quarter of every second, silent otherwise
+    }
+
+    private final OpenLoopCapable target;
+    private final ArrivalProcess process;
+    private final double ratePerSecond;
+    private final int clientThreads;
+    private final LinkedBlockingQueue<Long> backlog = new LinkedBlockingQueue<>();
+    private final AtomicInteger backlogSize = new AtomicInteger(0);
+    private final List<Thread> activeThreads = new ArrayList<>();
+    private PerformanceMetrics metrics = null;
+
+    public OpenLoopLoadGenerator(OpenLoopCapable target, ArrivalProcess process, double ratePerSecond,
+            int clientThreads) {
+        this.target = target;
+        this.process = process;
+        this.ratePerSecond = ratePerSecond;
+        this.clientThreads = clientThreads;
+    }
+
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void start() {
+        Logger.log("Starting open-loop generator (" + process + ", " + ratePerSecond + " req/s)...");
+        for (int i = 0; i < clientThreads; i++) {
+            final int clientId = i;
+            Thread t = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        long intended = backlog.take();
+                        backlogSize.decrementAndGet();
+                        long actualStart = System.nanoTime();
+                        boolean served = target.serveRequest(clientId);
+                        long finished = System.nanoTime();
+                        if (metrics == null)
+                            continue;
+                        if (served) {
+                            metrics.recordEvent(EVENT_COMPLETED);
+                            metrics.recordLatency(LATENCY_RESPONSE, finished - intended);
+                            metrics.recordLatency(LATENCY_SERVICE, finished - actualStart);
+                        } else {
+                            metrics.recordEvent(EVENT_REJECTED);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Client-" + i);
+            t.start();
+            activeThreads.add(t);
+        }
+
+        Thread dispatcher = new Thread(() -> {
+            long start = System.nanoTime();
+            double scheduledNanos = 0; // Position on the arrival schedule, independent of lateness
+            while (!Thread.currentThread().isInterrupted()) {
+                scheduledNanos += nextGapNanos();
+                long intended = start + toWallClock((long) scheduledNanos);
+                long delay = intended - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                    if (Thread.currentThread().isInterrupted())
+                        break;
+                }
+                if (metrics != null)
+                    metrics.recordEvent(EVENT_OFFERED);
+                if (backlogSize.incrementAndGet() > MAX_BACKLOG) {
+                    backlogSize.decrementAndGet();
+                    if (metrics != null)
+                        metrics.recordEvent(EVENT_DROPPED);
+                    continue;
+                }
+                backlog.add(intended);
+                if (metrics != null)
+                    metrics.updateQueueLength(backlogSize.get());
+            }
+        }, "Arrival-Generator");
+        dispatcher.start();
+        activeThreads.add(dispatcher);
+    }
+
+    private double nextGapNanos() {
+        double meanGap = 1_000_000_000.0 / ratePerSecond;
+        switch (process) {
+            case CONSTANT:
+                return meanGap;
+            case BURSTY:
+                // Gaps are drawn on "on-time" only; toWallClock() spreads them over the bursts
+                return exponential(meanGap * BURST_DUTY_PERCENT / 100.0);
+            default:
+                return exponential(meanGap);
+        }
+    }
+
+    private static double exponential(double mean) {
+        return -mean * Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+    }
+
+    private long toWallClock(long scheduleNanos) {
+        if (process != ArrivalProcess.BURSTY)
+            return scheduleNanos;
+        long onNanos = BURST_PERIOD_NANOS * BURST_DUTY_PERCENT / 100;
+        return (scheduleNanos / onNanos) * BURST_PERIOD_NANOS + scheduleNanos % onNanos;
+    }
+
+    public void stop() {
+        Logger.log("Stopping open-loop generator...");
+        for (Thread t : activeThreads) {
+            if (t != null && t.isAlive()) {
+                t.interrupt();
+            }
+        }
+        activeThreads.clear();
+
+        // Requests still waiting for a client have been late at least this long; dropping them
+        // would hide exactly the tail an overloaded run is supposed to show
+        long now = System.nanoTime();
+        Long intended;
+        while ((intended = backlog.poll()) != null) {
+            backlogSize.decrementAndGet();
+            if (metrics != null) {
+                metrics.recordEvent(EVENT_UNFINISHED);
+                metrics.recordLatency(LATENCY_RESPONSE, now - intended);
+            }
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.sync.simulator;
 
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Tracks performance metrics for synchronization primitives
@@ -11,11 +16,12 @@ public class PerformanceMetrics {
     private final boolean isFixed;
 
     // Timing metrics
-    private final AtomicLong totalWaitTime = new AtomicLong(0);
+    private final AtomicLong totalWaitNanos = new AtomicLong(0);
     private final AtomicInteger waitCount = new AtomicInteger(0);
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
 
     // Throughput metrics
-    private final AtomicInteger completedOperations = new AtomicInteger(0);
+    private final AtomicLong completedOperations = new AtomicLong(0);
     private long startTime;
     private long endTime;
 
@@ -30,22 +36,173 @@ public class PerformanceMetrics {
     // Fairness metrics
     private final AtomicInteger maxQueueLength = new AtomicInteger(0);
     private final AtomicInteger currentQueueLength = new AtomicInteger(0);
+    private volatile AtomicLongArray actorOperations = null;
+
+    // Problem-specific counters (retries, wasted acquisitions, ...)
+    private final ConcurrentHashMap<String, LongAdder> events = new ConcurrentHashMap<>();
+
+    // Problem-specific latency distributions (e.g. writer wait vs reader wait)
+    private final ConcurrentHashMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    // Invariant violations seen by broken modes, indexed by Violation ordinal
+    private final LongAdder[] violations = new LongAdder[Violation.values().length];
+
+    // Scheduler counters of the problem's own threads (Linux only); -1 threads while not sampled
+    private volatile int scheduledThreads = -1;
+    private volatile long voluntarySwitches = 0;
+    private volatile long involuntarySwitches = 0;
+    private volatile long runNanos = 0;
+    private volatile long runQueueNanos = 0;
+
+    // Set by a DeadlockWatchdog; -1 while no deadlock has been detected
+    private volatile long timeToDeadlockMs = -1;
+    private volatile String deadlockReport = null;
 
     public PerformanceMetrics(String problemName, boolean isFixed) {
         this.problemName = problemName;
         this.isFixed = isFixed;
         this.startTime = System.currentTimeMillis();
+        for (int i = 0; i < violations.length; i++) {
+            violations[i] = new LongAdder();
+        }
     }
 
     public void recordWaitTime(long waitTimeMs) {
-        totalWaitTime.addAndGet(waitTimeMs);
+        recordWaitTimeNanos(waitTimeMs * 1_000_000L);
+    }
+
+    public void recordWaitTimeNanos(long waitTimeNanos) {
+        totalWaitNanos.addAndGet(waitTimeNanos);
         waitCount.incrementAndGet();
+        waitHistogram.record(waitTimeNanos);
     }
 
     public void recordOperation() {
         completedOperations.incrementAndGet();
     }
 
+    /**
+     * Records an operation completed by a specific actor, used for fairness.
+     * Requires {@link #setActorCount(int)} to have been called first.
+     */
+    public void recordOperation(int actorId) {
+        completedOperations.incrementAndGet();
+        AtomicLongArray perActor = actorOperations;
+        if (perActor != null && actorId >= 0 && actorId < perActor.length()) {
+            perActor.incrementAndGet(actorId);
+        }
+    }
+
+    /**
+     * Records a batch of operations by one actor, for loops too tight to report every one.
+     */
+    public void recordOperations(int actorId, long count) {
+        completedOperations.addAndGet(count);
+        AtomicLongArray perActor = actorOperations;
+        if (perActor != null && actorId >= 0 && actorId < perActor.length()) {
+            perActor.addAndGet(actorId, count);
+        }
+    }
+
+    public void recordEvent(String name) {
+        recordEvent(name, 1);
+    }
+
+    public void recordEvent(String name, long amount) {
+        LongAdder counter = events.get(name);
+        if (counter == null) {
+            counter = events.computeIfAbsent(name, k -> new LongAdder());
+        }
+        counter.add(amount);
+    }
+
+    public long getEventCount(String name) {
+        LongAdder counter = events.get(name);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    public double getEventsPerOperation(String name) {
+        long total = completedOperations.get();
+        return total > 0 ? (double) getEventCount(name) / total : 0.0;
+    }
+
+    public void recordLatency(String name, long nanos) {
+        LatencyHistogram histogram = latencies.get(name);
+        if (histogram == null) {
+            histogram = latencies.computeIfAbsent(name, k -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    public double getLatencyPercentile(String name, double percentile) {
+        LatencyHistogram histogram = latencies.get(name);
+        return histogram != null ? histogram.getPercentileNanos(percentile) / 1_000_000.0 : 0.0;
+    }
+
+    public double getMaxLatency(String name) {
+        LatencyHistogram histogram = latencies.get(name);
+        return histogram != null ? histogram.getMaxNanos() / 1_000_000.0 : 0.0;
+    }
+
+    public double getLatencyStdDev(String name) {
+        LatencyHistogram histogram = latencies.get(name);
+        return histogram != null ? histogram.getStdDevNanos() / 1_000_000.0 : 0.0;
+    }
+
+    public double getEventRate(String name) {
+        long duration = endTime - startTime;
+        return duration > 0 ? getEventCount(name) / (duration / 1000.0) : 0.0;
+    }
+
+    public void recordViolation(Violation violation) {
+        violations[violation.ordinal()].increment();
+    }
+
+    public void recordViolation(Violation violation, long count) {
+        violations[violation.ordinal()].add(count);
+    }
+
+    public long getViolationCount(Violation violation) {
+        return violations[violation.ordinal()].sum();
+    }
+
+    public long getTotalViolations() {
+        long total = 0;
+        for (LongAdder count : violations) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    public double getViolationRate() {
+        long duration = endTime - startTime;
+        return duration > 0 ? getTotalViolations() / (duration / 1000.0) : 0.0;
+    }
+
+    public void recordDeadlock(long timeToDeadlockMs, String report) {
+        this.deadlockReport = report;
+        this.timeToDeadlockMs = timeToDeadlockMs;
+    }
+
+    public boolean isDeadlocked() {
+        return timeToDeadlockMs >= 0;
+    }
+
+    /**
+     * @return ms from the start of the run until the deadlock formed, or -1 if none was detected
+     */
+    public long getTimeToDeadlock() {
+        return timeToDeadlockMs;
+    }
+
+    public String getDeadlockReport() {
+        return deadlockReport;
+    }
+
+    public void setActorCount(int actorCount) {
+        this.actorOperations = new AtomicLongArray(actorCount);
+    }
+
     public void recordContention(long contentionTimeMs) {
         contentionCount.incrementAndGet();
         totalContentionTime.addAndGet(contentionTimeMs);
@@ -67,6 +224,52 @@ public class PerformanceMetrics {
         }
     }
 
+    /**
+     * Context switches and CPU/run-queue time of the problem's threads over the run, as
+     * sampled by {@link SchedulerStats}.
+     */
+    public void recordSchedulerStats(int threads, long voluntary, long involuntary, long runNanos,
+            long runQueueNanos) {
+        this.voluntarySwitches = voluntary;
+        this.involuntarySwitches = involuntary;
+        this.runNanos = runNanos;
+        this.runQueueNanos = runQueueNanos;
+        this.scheduledThreads = threads;
+    }
+
+    public boolean hasSchedulerStats() {
+        return scheduledThreads >= 0;
+    }
+
+    public long getVoluntarySwitches() {
+        return voluntarySwitches;
+    }
+
+    public long getInvoluntarySwitches() {
+        return involuntarySwitches;
+    }
+
+    public double getContextSwitchesPerOperation() {
+        long total = completedOperations.get();
+        return total > 0 ? (double) (voluntarySwitches + involuntarySwitches) / total : 0.0;
+    }
+
+    /**
+     * Time the problem's threads were runnable but waiting for a CPU, per operation, in ms.
+     */
+    public double getRunQueueDelayPerOperation() {
+        long total = completedOperations.get();
+        return total > 0 ? runQueueNanos / 1_000_000.0 / total : 0.0;
+    }
+
+    /**
+     * Share of the time the problem's threads were runnable that they spent waiting for a CPU.
+     */
+    public double getRunQueueShare() {
+        long runnable = runNanos + runQueueNanos;
+        return runnable > 0 ? (double) runQueueNanos / runnable : 0.0;
+    }
+
     public void finish() {
         this.endTime = System.currentTimeMillis();
     }
@@ -74,7 +277,33 @@ public class PerformanceMetrics {
     // Calculated metrics
     public double getAverageWaitTime() {
         int count = waitCount.get();
-        return count > 0 ? (double) totalWaitTime.get() / count : 0.0;
+        return count > 0 ? (double) totalWaitNanos.get() / count / 1_000_000.0 : 0.0;
+    }
+
+    public double getWaitTimePercentile(double percentile) {
+        return waitHistogram.getPercentileNanos(percentile) / 1_000_000.0;
+    }
+
+    public double getMaxWaitTime() {
+        return waitHistogram.getMaxNanos() / 1_000_000.0;
+    }
+
+    /**
+     * Jain's fairness index over per-actor operation counts: 1.0 means every actor
+     * completed the same number of operations, 1/n means one actor did all the work.
+     */
+    public double getFairnessIndex() {
+        AtomicLongArray perActor = actorOperations;
+        if (perActor == null || perActor.length() == 0)
+            return 0.0;
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (int i = 0; i < perActor.length(); i++) {
+            long ops = perActor.get(i);
+            sum += ops;
+            sumOfSquares += (double) ops * ops;
+        }
+        return sumOfSquares > 0 ? (sum * sum) / (perActor.length() * sumOfSquares) : 0.0;
     }
 
     public double getThroughput() {
@@ -83,7 +312,7 @@ public class PerformanceMetrics {
     }
 
     public double getContentionRate() {
-        int total = completedOperations.get();
+        long total = completedOperations.get();
         return total > 0 ? (double) contentionCount.get() / total : 0.0;
     }
 
@@ -110,7 +339,7 @@ public class PerformanceMetrics {
         return isFixed;
     }
 
-    public int getCompletedOperations() {
+    public long getCompletedOperations() {
         return completedOperations.get();
     }
 
@@ -119,21 +348,37 @@ public class PerformanceMetrics {
     }
 
     public long getTotalWaitTime() {
-        return totalWaitTime.get();
+        return totalWaitNanos.get() / 1_000_000L;
     }
 
     public int getContentionCount() {
         return contentionCount.get();
     }
 
+    private String schedulerSummary() {
+        if (!hasSchedulerStats())
+            return "";
+        return String.format(
+                "  Context Switches: %.2f per op (%d voluntary, %d involuntary over %d threads)\n" +
+                        "  Run-Queue Delay: %.3f ms per op (%.1f%% of runnable time)\n",
+                getContextSwitchesPerOperation(),
+                voluntarySwitches,
+                involuntarySwitches,
+                scheduledThreads,
+                getRunQueueDelayPerOperation(),
+                getRunQueueShare() * 100);
+    }
+
     @Override
     public String toString() {
-        return String.format(
+        String summary = String.format(
                 "%s (%s):\n" +
                         "  Duration: %d ms\n" +
                         "  Completed Operations: %d\n" +
                         "  Throughput: %.2f ops/sec\n" +
+                        "%s" +
                         "  Avg Wait Time: %.2f ms\n" +
+                        "  P99 Wait Time: %.2f ms\n" +
                         "  Contention Rate: %.2f%%\n" +
                         "  Avg Contention Time: %.2f ms\n" +
                         "  CPU Utilization: %.2f%%\n" +
@@ -143,10 +388,35 @@ public class PerformanceMetrics {
                 getDuration(),
                 completedOperations.get(),
                 getThroughput(),
+                schedulerSummary(),
                 getAverageWaitTime(),
+                getWaitTimePercentile(99),
                 getContentionRate() * 100,
                 getAverageContentionTime(),
                 getCpuUtilization(),
                 maxQueueLength.get());
+        if (actorOperations != null) {
+            summary += String.format("\n  Fairness (Jain): %.3f", getFairnessIndex());
+        }
+        for (Violation violation : Violation.values()) {
+            long count = getViolationCount(violation);
+            if (count > 0)
+                summary += String.format("\n  Violations (%s): %d", violation, count);
+        }
+        if (isDeadlocked()) {
+            summary += String.format("\n  Deadlock: after %d ms (%s)", timeToDeadlockMs, deadlockReport);
+        }
+        for (Map.Entry<String, LongAdder> event : new TreeMap<>(events).entrySet()) {
+            summary += String.format("\n  %s: %d", event.getKey(), event.getValue().sum());
+        }
+        for (Map.Entry<String, LatencyHistogram> latency : new TreeMap<>(latencies).entrySet()) {
+            LatencyHistogram h = latency.getValue();
+            summary += String.format("\n  %s: p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+                    latency.getKey(),
+                    h.getPercentileNanos(50) / 1_000_000.0,
+                    h.getPercentileNanos(99) / 1_000_000.0,
+                    h.getMaxNanos() / 1_000_000.0);
+        }
+        return summary;
     }
 }
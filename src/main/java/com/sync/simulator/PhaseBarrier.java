@@ -0,0 +1,436 @@
+package com.sync.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * N workers run in lock-step phases: each does a short piece of work, then waits at a
+ * barrier until every worker has finished the phase. Release latency is how long the barrier
+ * takes to get going again once the last worker has arrived, as seen by worker 0, and phase
+ * latency is the time between two of worker 0's departures. The broken mode counts arrivals
+ * with an unsynchronized read-modify-write, so an arrival can be lost and its phase never
+ * completes.
+ */
+public class PhaseBarrier implements SyncProblem, BenchmarkCapable, WorkloadCapable {
+    public static final String EVENT_PHASES = "Phases";
+    public static final String LATENCY_PHASE = "Phase Latency";
+    public static final String LATENCY_RELEASE = "Release Latency";
+
+    /**
+     * Solutions used by {@link #runFixed()}.
+     */
+    public enum Solution {
+        CYCLIC_BARRIER, // java.util.concurrent.CyclicBarrier: one lock, one condition
+        PHASER, // One flat Phaser with every worker registered
+        TIERED_PHASER, // Child Phasers of TIER_SIZE workers under a root Phaser
+        SENSE_REVERSING, // Centralized counter; the last arrival flips a shared sense flag
+        COMBINING_TREE, // Counters in a tree of fan-in TREE_FAN_IN; the root flips each node on the way down
+        DISSEMINATION // log2(N) rounds of pairwise signals, no shared counter at all
+    }
+
+    private static final int TIER_SIZE = 16;
+    private static final int TREE_FAN_IN = 4;
+    // Spinning before parking only helps when the releasing thread can run at the same time
+    private static final int SPIN_LIMIT = Runtime.getRuntime().availableProcessors() > 1 ? 256 : 0;
+
+    private final int numWorkers;
+    private final Solution solution;
+    private final Thread[] workers;
+    private final List<Thread> activeThreads = new ArrayList<>();
+    private PerformanceMetrics metrics = null;
+    private Workload workload = Workload.sleep();
+
+    // Per-phase bookkeeping, indexed by worker. Arrival times alternate between two halves
+    // by phase parity: a worker can be at most one phase ahead of worker 0.
+    private final AtomicLongArray arrivedAt;
+    private final AtomicLongArray arrivedPhase; // Last phase each worker arrived at
+    private RacyBarrier racyBarrier = null; // Set while the broken mode runs
+
+    // Work duration per phase in ms (upper bound exclusive)
+    private int workMinMs = 200;
+    private int workMaxMs = 800;
+
+    public PhaseBarrier() {
+        this(5, Solution.CYCLIC_BARRIER);
+    }
+
+    public PhaseBarrier(int numWorkers, Solution solution) {
+        if (numWorkers < 2)
+            throw new IllegalArgumentException("A barrier needs at least two workers");
+        this.numWorkers = numWorkers;
+        this.solution = solution;
+        this.workers = new Thread[numWorkers];
+        this.arrivedAt = new AtomicLongArray(2 * numWorkers);
+        this.arrivedPhase = new AtomicLongArray(numWorkers);
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void setWorkload(Workload workload) {
+        this.workload = workload;
+    }
+
+    public void setTiming(int workMinMs, int workMaxMs) {
+        this.workMinMs = workMinMs;
+        this.workMaxMs = workMaxMs;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Phase Barrier (Broken - Unsynchronized Arrival Count)...");
+        racyBarrier = new RacyBarrier();
+        startThreads(racyBarrier);
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Phase Barrier (Fixed - " + solution + ", " + numWorkers + " workers)...");
+        startThreads(newBarrier(solution));
+    }
+
+    private Barrier newBarrier(Solution solution) {
+        switch (solution) {
+            case CYCLIC_BARRIER:
+                return new CyclicBarrierAdapter();
+            case PHASER:
+                return new PhaserAdapter(false);
+            case TIERED_PHASER:
+                return new PhaserAdapter(true);
+            case SENSE_REVERSING:
+                return new SenseReversingBarrier();
+            case COMBINING_TREE:
+                return new CombiningTreeBarrier();
+            default:
+                return new DisseminationBarrier();
+        }
+    }
+
+    private void startThreads(Barrier barrier) {
+        if (metrics != null)
+            metrics.setActorCount(numWorkers);
+        for (int i = 0; i < numWorkers; i++) {
+            arrivedAt.set(i, 0);
+            arrivedAt.set(numWorkers + i, 0);
+            arrivedPhase.set(i, 0);
+        }
+        // Every worker exists before any starts, so the barriers can unpark any of them
+        for (int i = 0; i < numWorkers; i++) {
+            final int id = i;
+            workers[i] = new Thread(() -> {
+                try {
+                    work(id, barrier);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Worker-" + id);
+        }
+        for (Thread t : workers) {
+            t.start();
+            activeThreads.add(t);
+        }
+    }
+
+    private void work(int id, Barrier barrier) throws InterruptedException {
+        long lastDeparture = System.nanoTime();
+        for (long phase = 1; !Thread.currentThread().isInterrupted(); phase++) {
+            workload.run(randomBetween(workMinMs, workMaxMs));
+
+            long arrival = System.nanoTime();
+            int half = (int) (phase & 1) * numWorkers;
+            arrivedAt.set(half + id, arrival);
+            arrivedPhase.set(id, phase);
+            Logger.log("Worker " + id + " reached the barrier in phase " + phase);
+            barrier.await(id);
+            long departure = System.nanoTime();
+
+            // A cheap partial check: the next worker must have arrived at this phase too
+            long neighbour = arrivedPhase.get((id + 1) % numWorkers);
+            if (neighbour < phase) {
+                Logger.log("!!! VIOLATION !!! Worker " + id + " left phase " + phase + " before Worker "
+                        + ((id + 1) % numWorkers) + " arrived");
+                if (metrics != null)
+                    metrics.recordViolation(Violation.PHASE_OVERRUN);
+            }
+            if (metrics != null) {
+                metrics.recordWaitTimeNanos(departure - arrival);
+                metrics.recordOperation(id);
+            }
+            if (id == 0) {
+                long lastArrival = 0;
+                for (int i = 0; i < numWorkers; i++) {
+                    lastArrival = Math.max(lastArrival, arrivedAt.get(half + i));
+                }
+                if (metrics != null) {
+                    metrics.recordLatency(LATENCY_RELEASE, departure - lastArrival);
+                    metrics.recordLatency(LATENCY_PHASE, departure - lastDeparture);
+                    metrics.recordEvent(EVENT_PHASES);
+                }
+                Logger.log("Phase " + phase + " complete");
+            }
+            lastDeparture = departure;
+        }
+    }
+
+    private static int randomBetween(int minMs, int maxMs) {
+        return maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : maxMs;
+    }
+
+    /**
+     * Spins for a while, then parks, until {@code released} holds. Whoever makes it true
+     * unparks this thread afterwards; if that happens before we park, the permit is kept
+     * and the park returns at once.
+     */
+    private static void awaitRelease(BooleanSupplier released) throws InterruptedException {
+        for (int spins = 0; !released.getAsBoolean(); spins++) {
+            if (spins < SPIN_LIMIT)
+                continue;
+            LockSupport.park();
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+
+    private void unparkAll() {
+        for (Thread worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    // One barrier episode per call; id is the calling worker's index
+    private interface Barrier {
+        void await(int id) throws InterruptedException;
+    }
+
+    private final class CyclicBarrierAdapter implements Barrier {
+        private final CyclicBarrier barrier = new CyclicBarrier(numWorkers);
+
+        @Override
+        public void await(int id) throws InterruptedException {
+            try {
+                barrier.await();
+            } catch (BrokenBarrierException e) {
+                throw new InterruptedException("Barrier broken"); // Another worker was interrupted
+            }
+        }
+    }
+
+    private final class PhaserAdapter implements Barrier {
+        private final Phaser[] phasers; // Indexed by worker
+
+        PhaserAdapter(boolean tiered) {
+            phasers = new Phaser[numWorkers];
+            if (!tiered) {
+                Phaser flat = new Phaser(numWorkers);
+                for (int i = 0; i < numWorkers; i++) {
+                    phasers[i] = flat;
+                }
+                return;
+            }
+            Phaser root = new Phaser();
+            for (int first = 0; first < numWorkers; first += TIER_SIZE) {
+                int size = Math.min(TIER_SIZE, numWorkers - first);
+                Phaser child = new Phaser(root, size); // Registers itself as one party of root
+                for (int i = first; i < first + size; i++) {
+                    phasers[i] = child;
+                }
+            }
+        }
+
+        @Override
+        public void await(int id) throws InterruptedException {
+            Phaser phaser = phasers[id];
+            phaser.awaitAdvanceInterruptibly(phaser.arrive()); // arriveAndAwaitAdvance ignores interrupts
+        }
+    }
+
+    private final class SenseReversingBarrier implements Barrier {
+        private final AtomicInteger remaining = new AtomicInteger(numWorkers);
+        private volatile boolean sense = false;
+        private final boolean[] localSense = new boolean[numWorkers]; // Each slot used by its own worker only
+
+        @Override
+        public void await(int id) throws InterruptedException {
+            boolean mySense = !localSense[id];
+            localSense[id] = mySense;
+            if (remaining.decrementAndGet() == 0) {
+                remaining.set(numWorkers); // Before the flip, so nobody can arrive early at the old count
+                sense = mySense;
+                unparkAll();
+            } else {
+                awaitRelease(() -> sense == mySense);
+            }
+        }
+    }
+
+    private final class CombiningTreeBarrier implements Barrier {
+        private final Node[] leaves; // Indexed by worker
+        private final boolean[] localSense = new boolean[numWorkers];
+
+        CombiningTreeBarrier() {
+            leaves = new Node[numWorkers];
+            List<Node> level = new ArrayList<>();
+            for (int first = 0; first < numWorkers; first += TREE_FAN_IN) {
+                Node leaf = new Node(Math.min(TREE_FAN_IN, numWorkers - first));
+                for (int i = first; i < first + leaf.size; i++) {
+                    leaves[i] = leaf;
+                }
+                level.add(leaf);
+            }
+            while (level.size() > 1) {
+                List<Node> parents = new ArrayList<>();
+                for (int first = 0; first < level.size(); first += TREE_FAN_IN) {
+                    Node parent = new Node(Math.min(TREE_FAN_IN, level.size() - first));
+                    for (int i = first; i < first + parent.size; i++) {
+                        level.get(i).parent = parent;
+                    }
+                    parents.add(parent);
+                }
+                level = parents;
+            }
+        }
+
+        @Override
+        public void await(int id) throws InterruptedException {
+            boolean mySense = !localSense[id];
+            localSense[id] = mySense;
+            arrive(leaves[id], mySense);
+        }
+
+        /**
+         * The last arrival at a node carries on to its parent; once the root is complete the
+         * last arrivals come back down, each releasing the workers that waited at its node.
+         */
+        private void arrive(Node node, boolean mySense) throws InterruptedException {
+            int remaining = node.remaining.decrementAndGet();
+            if (remaining == 0) {
+                if (node.parent != null)
+                    arrive(node.parent, mySense);
+                node.remaining.set(node.size);
+                node.sense = mySense;
+                for (int i = 0; i < node.size - 1; i++) {
+                    LockSupport.unpark(node.waiters.get(i));
+                }
+            } else {
+                // Registered before checking, so a flip after the check still unparks us
+                node.waiters.set(node.size - 1 - remaining, Thread.currentThread());
+                awaitRelease(() -> node.sense == mySense);
+            }
+        }
+    }
+
+    private static final class Node {
+        final int size;
+        final AtomicInteger remaining;
+        final AtomicReferenceArray<Thread> waiters; // By arrival order; the last arrival does not wait
+        Node parent = null; // Set while building, before any worker starts
+        volatile boolean sense = false;
+
+        Node(int size) {
+            this.size = size;
+            this.remaining = new AtomicInteger(size);
+            this.waiters = new AtomicReferenceArray<>(size);
+        }
+    }
+
+    private final class DisseminationBarrier implements Barrier {
+        private final int rounds = 32 - Integer.numberOfLeadingZeros(numWorkers - 1); // ceil(log2 N)
+        // flags[(parity * rounds + round) * N + worker]; two sets so a fast worker cannot
+        // overwrite a flag its partner has not seen yet
+        private final AtomicIntegerArray flags = new AtomicIntegerArray(2 * rounds * numWorkers);
+        private final int[] parity = new int[numWorkers]; // Each slot used by its own worker only
+        private final int[] sense = new int[numWorkers];
+
+        DisseminationBarrier() {
+            for (int i = 0; i < numWorkers; i++) {
+                sense[i] = 1;
+            }
+        }
+
+        @Override
+        public void await(int id) throws InterruptedException {
+            int p = parity[id];
+            int s = sense[id];
+            for (int round = 0; round < rounds; round++) {
+                int base = (p * rounds + round) * numWorkers;
+                int partner = (id + (1 << round)) % numWorkers;
+                flags.set(base + partner, s);
+                LockSupport.unpark(workers[partner]);
+                awaitRelease(() -> flags.get(base + id) == s);
+            }
+            if (p == 1)
+                sense[id] = 1 - s;
+            parity[id] = 1 - p;
+        }
+    }
+
+    private final class RacyBarrier implements Barrier {
+        private volatile int count = 0;
+        private volatile long generation = 0;
+        private final AtomicLong arrivals = new AtomicLong(0); // What count should have added up to
+
+        @Override
+        public void await(int id) throws InterruptedException {
+            long myGeneration = generation;
+            // BROKEN: read-modify-write without synchronization; two workers that read the
+            // same count both write count + 1 and one arrival is lost
+            int arrived = count + 1;
+            Thread.yield(); // Widen the race window
+            count = arrived;
+            arrivals.incrementAndGet();
+            if (arrived == numWorkers) {
+                count = 0;
+                generation = myGeneration + 1;
+                unparkAll();
+            } else {
+                awaitRelease(() -> generation != myGeneration);
+            }
+        }
+
+        long lostArrivals() {
+            return Math.max(0, arrivals.get() - generation * numWorkers - count);
+        }
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Phase Barrier...");
+        for (Thread t : activeThreads) {
+            if (t != null && t.isAlive()) {
+                t.interrupt();
+            }
+        }
+        for (Thread t : activeThreads) {
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        activeThreads.clear();
+        if (racyBarrier != null) {
+            long lost = racyBarrier.lostArrivals();
+            if (lost > 0) {
+                Logger.log("!!! VIOLATION !!! " + lost + " barrier arrivals were never counted; phase "
+                        + (racyBarrier.generation + 1) + " could not complete");
+                if (metrics != null)
+                    metrics.recordViolation(Violation.LOST_ARRIVAL, lost);
+            }
+            racyBarrier = null;
+        }
+    }
+}
@@ -4,30 +4,89 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class ProducerConsumer implements SyncProblem, BenchmarkCapable {
-    private static final int BUFFER_SIZE = 5;
-    private static final int NUM_PRODUCERS = 2;
-    private static final int NUM_CONSUMERS = 3;
+public class ProducerConsumer implements SyncProblem, BenchmarkCapable, OpenLoopCapable, WorkloadCapable {
+    public static final String LATENCY_MUTEX_WAIT = "Mutex Wait";
+    public static final String LATENCY_CRITICAL_SECTION = "Critical Section"; // Wait plus update, either mode
+    public static final String EVENT_COMBINING_ROUNDS = "Combining Rounds";
+    public static final String EVENT_COMBINED_REQUESTS = "Combined Requests";
 
-    private int[] buffer = new int[BUFFER_SIZE];
+    private static final int DEFAULT_BUFFER_SIZE = 5;
+    private static final int DEFAULT_PRODUCERS = 2;
+    private static final int DEFAULT_CONSUMERS = 3;
+
+    private final int bufferSize;
+    private final int numProducers;
+    private final int numConsumers;
+    private final int[] buffer;
     private int count = 0; // Number of items in buffer
     private int in = 0; // Index where producer will insert
     private int out = 0; // Index where consumer will remove
 
     // Semaphores for Fixed solution
-    private final Semaphore mutex = new Semaphore(1);
-    private final Semaphore empty = new Semaphore(BUFFER_SIZE); // Count of empty slots
+    private Mutex mutex = Mutex.of(new Semaphore(1));
+    private FlatCombiner combiner = null; // Replaces the mutex when set
+    private final Semaphore empty; // Count of empty slots
     private final Semaphore full = new Semaphore(0); // Count of full slots
 
     private final List<Thread> activeThreads = new ArrayList<>();
+    private final AtomicInteger openLoopItems = new AtomicInteger(0);
     private PerformanceMetrics metrics = null;
 
+    // Produce/consume durations in ms for the fixed solution (upper bound exclusive)
+    private int produceMinMs = 100;
+    private int produceMaxMs = 300;
+    private int consumeMinMs = 150;
+    private int consumeMaxMs = 400;
+    private Workload workload = Workload.sleep();
+
+    public ProducerConsumer() {
+        this(DEFAULT_PRODUCERS, DEFAULT_CONSUMERS, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ProducerConsumer(int numProducers, int numConsumers, int bufferSize) {
+        if (bufferSize < 1)
+            throw new IllegalArgumentException("Buffer size must be positive");
+        this.numProducers = numProducers;
+        this.numConsumers = numConsumers;
+        this.bufferSize = bufferSize;
+        this.buffer = new int[bufferSize];
+        this.empty = new Semaphore(bufferSize);
+    }
+
     @Override
     public void setMetrics(PerformanceMetrics metrics) {
         this.metrics = metrics;
     }
 
+    /**
+     * Replaces the mutex guarding the buffer indices; call before the problem is started.
+     */
+    public void setLockType(LockType lockType) {
+        this.mutex = lockType.newMutex();
+    }
+
+    /**
+     * Applies buffer updates through a {@link FlatCombiner} instead of taking the mutex per
+     * item; call before the problem is started.
+     */
+    public void setFlatCombining(boolean enabled) {
+        this.combiner = enabled ? new FlatCombiner() : null;
+    }
+
+    @Override
+    public void setWorkload(Workload workload) {
+        this.workload = workload;
+    }
+
+    public void setTiming(int produceMinMs, int produceMaxMs, int consumeMinMs, int consumeMaxMs) {
+        this.produceMinMs = produceMinMs;
+        this.produceMaxMs = produceMaxMs;
+        this.consumeMinMs = consumeMinMs;
+        this.consumeMaxMs = consumeMaxMs;
+    }
+
     @Override
     public void runBroken() {
         Logger.log("Starting Producer-Consumer (Broken - Race Condition)...");
@@ -36,7 +95,7 @@ public class ProducerConsumer implements SyncProblem, BenchmarkCapable {
         out = 0;
 
         // Broken Producers - No synchronization
-        for (int i = 0; i < NUM_PRODUCERS; i++) {
+        for (int i = 0; i < numProducers; i++) {
             final int id = i;
             Thread t = new Thread(() -> {
                 try {
@@ -44,22 +103,36 @@ public class ProducerConsumer implements SyncProblem, BenchmarkCapable {
                     while (!Thread.currentThread().isInterrupted()) {
                         // Produce item
                         item++;
+                        long idleStart = System.currentTimeMillis();
                         Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
+                        if (metrics != null)
+                            metrics.recordIdleTime(System.currentTimeMillis() - idleStart);
 
                         // BROKEN: Check-then-act race condition
-                        if (count < BUFFER_SIZE) {
+                        if (count < bufferSize) {
+                            long workStart = System.currentTimeMillis();
                             Thread.sleep(50); // Widen race window
                             buffer[in] = item;
-                            in = (in + 1) % BUFFER_SIZE;
+                            in = (in + 1) % bufferSize;
                             count++;
                             Logger.log("Producer " + id + " produced item " + item + " (count=" + count + ")");
 
-                            if (count > BUFFER_SIZE) {
+                            if (count > bufferSize) {
                                 Logger.log("!!! VIOLATION !!! Buffer overflow! count=" + count);
+                                if (metrics != null)
+                                    metrics.recordViolation(Violation.BUFFER_OVERFLOW);
+                            }
+                            if (metrics != null) {
+                                metrics.recordActiveTime(System.currentTimeMillis() - workStart);
+                                metrics.recordOperation();
+                                metrics.updateQueueLength(count);
                             }
                         } else {
                             Logger.log("Producer " + id + " waiting (buffer full)");
+                            long waitStart = System.nanoTime();
                             Thread.sleep(100);
+                            if (metrics != null)
+                                metrics.recordWaitTimeNanos(System.nanoTime() - waitStart);
                         }
                     }
                 } catch (InterruptedException e) {
@@ -71,29 +144,43 @@ public class ProducerConsumer implements SyncProblem, BenchmarkCapable {
         }
 
         // Broken Consumers - No synchronization
-        for (int i = 0; i < NUM_CONSUMERS; i++) {
+        for (int i = 0; i < numConsumers; i++) {
             final int id = i;
             Thread t = new Thread(() -> {
                 try {
                     while (!Thread.currentThread().isInterrupted()) {
                         // BROKEN: Check-then-act race condition
                         if (count > 0) {
+                            long workStart = System.currentTimeMillis();
                             Thread.sleep(50); // Widen race window
                             int item = buffer[out];
-                            out = (out + 1) % BUFFER_SIZE;
+                            out = (out + 1) % bufferSize;
                             count--;
                             Logger.log("Consumer " + id + " consumed item " + item + " (count=" + count + ")");
 
                             if (count < 0) {
                                 Logger.log("!!! VIOLATION !!! Buffer underflow! count=" + count);
+                                if (metrics != null)
+                                    metrics.recordViolation(Violation.BUFFER_UNDERFLOW);
+                            }
+                            if (metrics != null) {
+                                metrics.recordActiveTime(System.currentTimeMillis() - workStart);
+                                metrics.recordOperation();
+                                metrics.updateQueueLength(count);
                             }
                         } else {
                             Logger.log("Consumer " + id + " waiting (buffer empty)");
+                            long waitStart = System.nanoTime();
                             Thread.sleep(100);
+                            if (metrics != null)
+                                metrics.recordWaitTimeNanos(System.nanoTime() - waitStart);
                         }
 
                         // Consume item
+                        long idleStart = System.currentTimeMillis();
                         Thread.sleep(ThreadLocalRandom.current().nextInt(150, 400));
+                        if (metrics != null)
+                            metrics.recordIdleTime(System.currentTimeMillis() - idleStart);
                     }
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
@@ -106,13 +193,15 @@ public class ProducerConsumer implements SyncProblem, BenchmarkCapable {
 
     @Override
     public void runFixed() {
-        Logger.log("Starting Producer-Consumer (Fixed - Semaphores)...");
+        Logger.log("Starting Producer-Consumer (Fixed - Semaphores" + (combiner != null ? ", Flat Combining" : "") + ")...");
         count = 0;
         in = 0;
         out = 0;
+        if (metrics != null)
+            metrics.setActorCount(numProducers + numConsumers); // Consumers follow the producers
 
         // Fixed Producers - Using semaphores
-        for (int i = 0; i < NUM_PRODUCERS; i++) {
+        for (int i = 0; i < numProducers; i++) {
             final int id = i;
             Thread t = new Thread(() -> {
                 try {
@@ -121,33 +210,11 @@ public class ProducerConsumer implements SyncProblem, BenchmarkCapable {
                         // Produce item
                         item++;
                         long idleStart = System.currentTimeMillis();
-                        Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
+                        sleepBetween(produceMinMs, produceMaxMs);
                         if (metrics != null)
                             metrics.recordIdleTime(System.currentTimeMillis() - idleStart);
 
-                        // Wait for empty slot
-                        long waitStart = System.currentTimeMillis();
-                        empty.acquire();
-                        if (metrics != null)
-                            metrics.recordWaitTime(System.currentTimeMillis() - waitStart);
-
-                        // Critical section
-                        mutex.acquire();
-                        long workStart = System.currentTimeMillis();
-
-                        buffer[in] = item;
-                        in = (in + 1) % BUFFER_SIZE;
-                        count++;
-                        Logger.log("Producer " + id + " produced item " + item + " (count=" + count + ")");
-
-                        if (metrics != null) {
-                            metrics.recordActiveTime(System.currentTimeMillis() - workStart);
-                            metrics.recordOperation();
-                            metrics.updateQueueLength(count);
-                        }
-
-                        mutex.release();
-                        full.release(); // Signal that there's a new item
+                        insert(id, item);
                     }
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
@@ -157,8 +224,69 @@ public class ProducerConsumer implements SyncProblem, BenchmarkCapable {
             activeThreads.add(t);
         }
 
+        startFixedConsumers();
+    }
+
+    private void insert(int id, int item) throws InterruptedException {
+        // Wait for empty slot
+        long waitStart = System.currentTimeMillis();
+        empty.acquire();
+        if (metrics != null)
+            metrics.recordWaitTime(System.currentTimeMillis() - waitStart);
+
+        // Critical section
+        int queued = exclusive(() -> put(id, item));
+        if (metrics != null) {
+            metrics.recordOperation(id);
+            metrics.updateQueueLength(queued);
+        }
+
+        full.release(); // Signal that there's a new item
+    }
+
+    private int put(int id, int item) {
+        long workStart = System.currentTimeMillis();
+        buffer[in] = item;
+        in = (in + 1) % bufferSize;
+        count++;
+        Logger.log("Producer " + id + " produced item " + item + " (count=" + count + ")");
+        if (metrics != null)
+            metrics.recordActiveTime(System.currentTimeMillis() - workStart);
+        return count;
+    }
+
+    private int take(int id) {
+        long workStart = System.currentTimeMillis();
+        int item = buffer[out];
+        out = (out + 1) % bufferSize;
+        count--;
+        Logger.log("Consumer " + id + " consumed item " + item + " (count=" + count + ")");
+        if (metrics != null)
+            metrics.recordActiveTime(System.currentTimeMillis() - workStart);
+        return count;
+    }
+
+    @Override
+    public void startServers() {
+        Logger.log("Starting Producer-Consumer consumers (open-loop producers)...");
+        count = 0;
+        in = 0;
+        out = 0;
+        startFixedConsumers();
+    }
+
+    /**
+     * One open-loop request is one item handed to the buffer; it completes once inserted.
+     */
+    @Override
+    public boolean serveRequest(int clientId) throws InterruptedException {
+        insert(clientId, openLoopItems.incrementAndGet());
+        return true;
+    }
+
+    private void startFixedConsumers() {
         // Fixed Consumers - Using semaphores
-        for (int i = 0; i < NUM_CONSUMERS; i++) {
+        for (int i = 0; i < numConsumers; i++) {
             final int id = i;
             Thread t = new Thread(() -> {
                 try {
@@ -170,26 +298,17 @@ public class ProducerConsumer implements SyncProblem, BenchmarkCapable {
                             metrics.recordWaitTime(System.currentTimeMillis() - waitStart);
 
                         // Critical section
-                        mutex.acquire();
-                        long workStart = System.currentTimeMillis();
-
-                        int item = buffer[out];
-                        out = (out + 1) % BUFFER_SIZE;
-                        count--;
-                        Logger.log("Consumer " + id + " consumed item " + item + " (count=" + count + ")");
-
+                        int queued = exclusive(() -> take(id));
                         if (metrics != null) {
-                            metrics.recordActiveTime(System.currentTimeMillis() - workStart);
-                            metrics.recordOperation();
-                            metrics.updateQueueLength(count);
+                            metrics.recordOperation(numProducers + id);
+                            metrics.updateQueueLength(queued);
                         }
 
-                        mutex.release();
                         empty.release(); // Signal that there's an empty slot
 
                         // Consume item
                         long idleStart = System.currentTimeMillis();
-                        Thread.sleep(ThreadLocalRandom.current().nextInt(150, 400));
+                        sleepBetween(consumeMinMs, consumeMaxMs);
                         if (metrics != null)
                             metrics.recordIdleTime(System.currentTimeMillis() - idleStart);
                     }
@@ -202,6 +321,33 @@ public class ProducerConsumer implements SyncProblem, BenchmarkCapable {
         }
     }
 
+    /**
+     * Runs a buffer update under the mutex, or hands it to the combiner.
+     */
+    private int exclusive(FlatCombiner.Operation update) throws InterruptedException {
+        long lockStart = System.nanoTime();
+        int result;
+        if (combiner != null) {
+            result = combiner.execute(update);
+        } else {
+            mutex.acquire();
+            if (metrics != null)
+                metrics.recordLatency(LATENCY_MUTEX_WAIT, System.nanoTime() - lockStart);
+            try {
+                result = update.apply();
+            } finally {
+                mutex.release();
+            }
+        }
+        if (metrics != null)
+            metrics.recordLatency(LATENCY_CRITICAL_SECTION, System.nanoTime() - lockStart);
+        return result;
+    }
+
+    private void sleepBetween(int minMs, int maxMs) throws InterruptedException {
+        workload.run(maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : maxMs);
+    }
+
     @Override
     public void stop() {
         Logger.log("Stopping Producer-Consumer...");
@@ -211,5 +357,9 @@ public class ProducerConsumer implements SyncProblem, BenchmarkCapable {
             }
         }
         activeThreads.clear();
+        if (combiner != null && metrics != null) {
+            metrics.recordEvent(EVENT_COMBINING_ROUNDS, combiner.getRounds());
+            metrics.recordEvent(EVENT_COMBINED_REQUESTS, combiner.getCombinedRequests());
+        }
     }
 }
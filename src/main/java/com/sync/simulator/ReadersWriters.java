@@ -2,26 +2,172 @@ package com.sync.simulator;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 
-public class ReadersWriters implements SyncProblem, BenchmarkCapable {
-    private static int sharedData = 0;
+public class ReadersWriters implements SyncProblem, BenchmarkCapable, WorkloadCapable {
+    public static final String EVENT_READS = "Reads";
+    public static final String EVENT_WRITES = "Writes";
+    public static final String EVENT_OPTIMISTIC_RETRIES = "Optimistic Read Retries";
+    public static final String EVENT_CAS_RETRIES = "Snapshot CAS Retries";
+    public static final String EVENT_SNAPSHOTS_RECLAIMED = "Snapshots Reclaimed";
+    public static final String LATENCY_WRITE = "Write Latency";
+    public static final String LATENCY_WRITER_WAIT = "Writer Wait";
+    public static final String LATENCY_READER_WAIT = "Reader Wait";
+    public static final String EVENT_COMBINING_ROUNDS = "Combining Rounds";
+    public static final String EVENT_COMBINED_REQUESTS = "Combined Requests";
+
+    /**
+     * Solutions used by {@link #runFixed()}.
+     */
+    public enum Solution {
+        READER_PRIORITY, // mutex/wrt pair: readers never wait for queued writers
+        WRITER_PRIORITY, // readTry gate: a waiting writer blocks newly arriving readers
+        FAIR, // FIFO service queue: readers and writers take turns in arrival order
+        READ_WRITE_LOCK, // java.util.concurrent ReentrantReadWriteLock
+        STAMPED_OPTIMISTIC, // StampedLock: readers validate a stamp instead of locking
+        COPY_ON_WRITE, // RCU-style: readers dereference an immutable snapshot, writers copy and CAS
+        FLAT_COMBINING // READER_PRIORITY with readCount and writes applied in batches by a combiner
+    }
+
+    /**
+     * Immutable once published; its buffer is only reused after every reader that could
+     * have seen it has left its read-side critical section.
+     */
+    private static final class Snapshot {
+        final long version;
+        final int[] data;
+
+        Snapshot(long version, int[] data) {
+            this.version = version;
+            this.data = data;
+        }
+    }
+
+    private static final class RetiredSnapshot {
+        final Snapshot snapshot;
+        final long epoch;
+
+        RetiredSnapshot(Snapshot snapshot, long epoch) {
+            this.snapshot = snapshot;
+            this.epoch = epoch;
+        }
+    }
+
+    private int sharedData = 0;
     private int readCount = 0;
+    private int writeCount = 0;
+
+    private final int numReaders;
+    private final int numWriters;
+    private final Solution solution;
+
+    // Read-mostly structure scanned by every reader; size 1 behaves like the original single int
+    private final int[] sharedState;
+    private final long[] readerChecksums; // keeps the scans observable, padded to avoid false sharing
+
+    // COPY_ON_WRITE state: published snapshot plus epoch-based tracking of retired versions
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong globalEpoch = new AtomicLong(1);
+    private final AtomicLongArray readerEpochs; // epoch announced by each reader, 0 when quiescent
+    private final ConcurrentLinkedQueue<RetiredSnapshot> retired = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<int[]> recycledBuffers = new ConcurrentLinkedQueue<>();
 
     // Semaphores for Fixed solution
     private final Semaphore mutex = new Semaphore(1);
     private final Semaphore wrt = new Semaphore(1);
+    private final Semaphore writerMutex = new Semaphore(1); // protects writeCount
+    private final Semaphore readTry = new Semaphore(1); // held by writers to hold back new readers
+    private final Semaphore serviceQueue = new Semaphore(1, true); // FIFO turnstile for FAIR
+
+    private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
+    private final StampedLock stampedLock = new StampedLock();
 
     private final List<Thread> activeThreads = new ArrayList<>();
 
     // Monitors for detection
     private final AtomicInteger activeReaders = new AtomicInteger(0);
     private final AtomicInteger activeWriters = new AtomicInteger(0);
+    private final AtomicLongArray writerWaitSince; // nanoTime a writer started waiting, 0 if not waiting
 
     private PerformanceMetrics metrics = null;
 
+    // Section and idle durations in ms for the fixed solutions (idle upper bound exclusive)
+    private int readMs = 500;
+    private int writeMs = 0;
+    private int readerIdleMinMs = 500;
+    private int readerIdleMaxMs = 1000;
+    private int writerIdleMinMs = 1000;
+    private int writerIdleMaxMs = 2000;
+    private Workload workload = Workload.sleep();
+
+    // FLAT_COMBINING: readCount updates replace the mutex; each write batch holds wrt once
+    private final FlatCombiner readCombiner = new FlatCombiner();
+    private final FlatCombiner writeCombiner = new FlatCombiner() {
+        @Override
+        protected void beforePass() throws InterruptedException {
+            wrt.acquire();
+            activeWriters.incrementAndGet();
+            if (activeReaders.get() > 0 || activeWriters.get() > 1) {
+                Logger.log("!!! FAILURE IN FIXED MODE !!! Writer accessing while others active!");
+            }
+        }
+
+        @Override
+        protected void afterPass() {
+            activeWriters.decrementAndGet();
+            wrt.release();
+        }
+    };
+    private final FlatCombiner.Operation enterRead = this::combinedEnterRead;
+    private final FlatCombiner.Operation exitRead = this::combinedExitRead;
+    private final FlatCombiner.Operation applyWrite = this::combinedWrite;
+
+
+    public ReadersWriters() {
+        this(5, 2, Solution.READER_PRIORITY);
+    }
+
+    public ReadersWriters(int numReaders, int numWriters, Solution solution) {
+        this(numReaders, numWriters, solution, 1);
+    }
+
+    public ReadersWriters(int numReaders, int numWriters, Solution solution, int sharedStateSize) {
+        this.numReaders = numReaders;
+        this.numWriters = numWriters;
+        this.solution = solution;
+        this.writerWaitSince = new AtomicLongArray(numWriters);
+        this.sharedState = new int[sharedStateSize];
+        this.readerChecksums = new long[numReaders * 8];
+        this.readerEpochs = new AtomicLongArray(numReaders);
+        this.snapshot.set(new Snapshot(0, new int[sharedStateSize]));
+    }
+
+    @Override
+    public void setWorkload(Workload workload) {
+        this.workload = workload;
+    }
+
+    /**
+     * Uses the same idle range for readers and writers, so the reader:writer thread ratio is
+     * also the offered read:write ratio.
+     */
+    public void setTiming(int readMs, int writeMs, int idleMinMs, int idleMaxMs) {
+        this.readMs = readMs;
+        this.writeMs = writeMs;
+        this.readerIdleMinMs = idleMinMs;
+        this.readerIdleMaxMs = idleMaxMs;
+        this.writerIdleMinMs = idleMinMs;
+        this.writerIdleMaxMs = idleMaxMs;
+    }
+
     @Override
     public void setMetrics(PerformanceMetrics metrics) {
         this.metrics = metrics;
@@ -30,10 +176,9 @@ public class ReadersWriters implements SyncProblem, BenchmarkCapable {
     @Override
     public void runBroken() {
         Logger.log("Starting Readers-Writers (Broken - Race Condition)...");
-        // Start 5 readers and 2 writers
-        for (int i = 0; i < 5; i++)
+        for (int i = 0; i < numReaders; i++)
             startBrokenReader(i);
-        for (int i = 0; i < 2; i++)
+        for (int i = 0; i < numWriters; i++)
             startBrokenWriter(i);
     }
 
@@ -45,12 +190,20 @@ public class ReadersWriters implements SyncProblem, BenchmarkCapable {
                     activeReaders.incrementAndGet();
                     if (activeWriters.get() > 0) {
                         Logger.log("!!! VIOLATION !!! Reader " + id + " is reading while Writer is writing!");
+                        if (metrics != null)
+                            metrics.recordViolation(Violation.READER_WRITER_OVERLAP);
                     }
 
                     Logger.log("Reader " + id + " is reading data: " + sharedData);
+                    long workStart = System.currentTimeMillis();
                     Thread.sleep(500);
 
                     activeReaders.decrementAndGet();
+                    if (metrics != null) {
+                        metrics.recordActiveTime(System.currentTimeMillis() - workStart);
+                        metrics.recordOperation();
+                        metrics.recordEvent(EVENT_READS);
+                    }
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -68,16 +221,33 @@ public class ReadersWriters implements SyncProblem, BenchmarkCapable {
                     activeWriters.incrementAndGet();
                     if (activeReaders.get() > 0 || activeWriters.get() > 1) {
                         Logger.log("!!! VIOLATION !!! Writer " + id + " is writing while others are active!");
+                        if (metrics != null)
+                            metrics.recordViolation(Violation.READER_WRITER_OVERLAP);
                     }
 
+                    long workStart = System.currentTimeMillis();
                     int temp = sharedData;
                     temp++;
                     Thread.sleep(200); // Simulate processing to widen race window
+                    if (sharedData != temp - 1) {
+                        // Another writer committed since we read; this write discards theirs
+                        Logger.log("!!! VIOLATION !!! Writer " + id + " overwrote a concurrent update!");
+                        if (metrics != null)
+                            metrics.recordViolation(Violation.LOST_UPDATE);
+                    }
                     sharedData = temp;
                     Logger.log("Writer " + id + " updated data to: " + sharedData);
 
                     activeWriters.decrementAndGet();
+                    if (metrics != null) {
+                        metrics.recordActiveTime(System.currentTimeMillis() - workStart);
+                        metrics.recordOperation();
+                        metrics.recordEvent(EVENT_WRITES);
+                    }
+                    long idleStart = System.currentTimeMillis();
                     Thread.sleep(1000);
+                    if (metrics != null)
+                        metrics.recordIdleTime(System.currentTimeMillis() - idleStart);
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -89,10 +259,10 @@ public class ReadersWriters implements SyncProblem, BenchmarkCapable {
 
     @Override
     public void runFixed() {
-        Logger.log("Starting Readers-Writers (Fixed - Reader Priority)...");
-        for (int i = 0; i < 5; i++)
+        Logger.log("Starting Readers-Writers (Fixed - " + solution + ")...");
+        for (int i = 0; i < numReaders; i++)
             startFixedReader(i);
-        for (int i = 0; i < 2; i++)
+        for (int i = 0; i < numWriters; i++)
             startFixedWriter(i);
     }
 
@@ -100,38 +270,40 @@ public class ReadersWriters implements SyncProblem, BenchmarkCapable {
         Thread t = new Thread(() -> {
             try {
                 while (!Thread.currentThread().isInterrupted()) {
-                    long waitStart = System.currentTimeMillis();
-                    mutex.acquire();
-                    readCount++;
-                    if (readCount == 1)
-                        wrt.acquire(); // First reader locks writer
-                    mutex.release();
-                    long waitTime = System.currentTimeMillis() - waitStart;
-                    if (metrics != null)
-                        metrics.recordWaitTime(waitTime);
+                    if (solution == Solution.STAMPED_OPTIMISTIC) {
+                        readOptimistically(id);
+                    } else if (solution == Solution.COPY_ON_WRITE) {
+                        readSnapshot(id);
+                    } else {
+                        long waitStart = System.nanoTime();
+                        acquireRead();
+                        long waitNanos = System.nanoTime() - waitStart;
+                        if (metrics != null) {
+                            metrics.recordWaitTimeNanos(waitNanos);
+                            metrics.recordLatency(LATENCY_READER_WAIT, waitNanos);
+                        }
 
-                    // Reading Section
-                    long readStart = System.currentTimeMillis();
-                    activeReaders.incrementAndGet();
-                    if (activeWriters.get() > 0) {
-                        Logger.log("!!! FAILURE IN FIXED MODE !!! Reader accessing while writer active!");
-                    }
-                    Logger.log("Reader " + id + " is reading data: " + sharedData);
-                    Thread.sleep(500);
-                    activeReaders.decrementAndGet();
-                    if (metrics != null) {
-                        metrics.recordActiveTime(System.currentTimeMillis() - readStart);
-                        metrics.recordOperation();
-                    }
+                        // Reading Section
+                        long readStart = System.currentTimeMillis();
+                        activeReaders.incrementAndGet();
+                        if (activeWriters.get() > 0) {
+                            Logger.log("!!! FAILURE IN FIXED MODE !!! Reader accessing while writer active!");
+                        }
+                        readerChecksums[id * 8] = scan(sharedState);
+                        Logger.log("Reader " + id + " is reading data: " + sharedData);
+                        sleep(readMs);
+                        activeReaders.decrementAndGet();
+                        if (metrics != null) {
+                            metrics.recordActiveTime(System.currentTimeMillis() - readStart);
+                            metrics.recordOperation();
+                            metrics.recordEvent(EVENT_READS);
+                        }
 
-                    mutex.acquire();
-                    readCount--;
-                    if (readCount == 0)
-                        wrt.release(); // Last reader releases writer
-                    mutex.release();
+                        releaseRead();
+                    }
 
                     long idleStart = System.currentTimeMillis();
-                    Thread.sleep(ThreadLocalRandom.current().nextInt(500, 1000));
+                    sleep(randomBetween(readerIdleMinMs, readerIdleMaxMs));
                     if (metrics != null)
                         metrics.recordIdleTime(System.currentTimeMillis() - idleStart);
                 }
@@ -143,15 +315,155 @@ public class ReadersWriters implements SyncProblem, BenchmarkCapable {
         activeThreads.add(t);
     }
 
+    /**
+     * Fast path takes no lock: the reader samples a stamp, copies what it reads, and only
+     * re-reads under a real read lock if a writer got in before the stamp was validated. The
+     * simulated read works on the copy, outside the stamp window, so it is done once either way.
+     */
+    private void readOptimistically(int id) throws InterruptedException {
+        long readStart = System.currentTimeMillis();
+        long stamp = stampedLock.tryOptimisticRead();
+        int value = sharedData;
+        long checksum = scan(sharedState);
+        if (!stampedLock.validate(stamp)) {
+            if (metrics != null)
+                metrics.recordEvent(EVENT_OPTIMISTIC_RETRIES);
+            long waitStart = System.nanoTime();
+            stamp = stampedLock.readLockInterruptibly();
+            long waitNanos = System.nanoTime() - waitStart;
+            if (metrics != null) {
+                metrics.recordWaitTimeNanos(waitNanos);
+                metrics.recordLatency(LATENCY_READER_WAIT, waitNanos);
+            }
+            try {
+                value = sharedData;
+                checksum = scan(sharedState);
+            } finally {
+                stampedLock.unlockRead(stamp);
+            }
+        } else if (metrics != null) {
+            metrics.recordWaitTimeNanos(0);
+            metrics.recordLatency(LATENCY_READER_WAIT, 0);
+        }
+        readerChecksums[id * 8] = checksum;
+        sleep(readMs);
+        Logger.log("Reader " + id + " read data: " + value);
+        if (metrics != null) {
+            metrics.recordActiveTime(System.currentTimeMillis() - readStart);
+            metrics.recordOperation();
+            metrics.recordEvent(EVENT_READS);
+        }
+    }
+
+    /**
+     * Read-side critical section is just an epoch announcement and a reference load; the
+     * reader never blocks and never writes to memory shared with other readers.
+     */
+    private void readSnapshot(int id) throws InterruptedException {
+        long readStart = System.currentTimeMillis();
+        readerEpochs.set(id, globalEpoch.get());
+        Snapshot current = snapshot.get();
+        readerChecksums[id * 8] = scan(current.data);
+        Logger.log("Reader " + id + " is reading snapshot version: " + current.version);
+        sleep(readMs);
+        readerEpochs.set(id, 0);
+        if (metrics != null) {
+            metrics.recordWaitTimeNanos(0);
+            metrics.recordLatency(LATENCY_READER_WAIT, 0);
+            metrics.recordActiveTime(System.currentTimeMillis() - readStart);
+            metrics.recordOperation();
+            metrics.recordEvent(EVENT_READS);
+        }
+    }
+
+    private void writeSnapshot(int id) throws InterruptedException {
+        long writeStart = System.nanoTime();
+        Snapshot next;
+        while (true) {
+            Snapshot current = snapshot.get();
+            int[] copy = recycledBuffers.poll();
+            if (copy == null)
+                copy = new int[current.data.length];
+            System.arraycopy(current.data, 0, copy, 0, copy.length);
+            copy[ThreadLocalRandom.current().nextInt(copy.length)]++;
+            sleep(writeMs);
+            next = new Snapshot(current.version + 1, copy);
+            if (snapshot.compareAndSet(current, next)) {
+                retire(current);
+                break;
+            }
+            recycledBuffers.offer(copy); // Never published, safe to reuse right away
+            if (metrics != null)
+                metrics.recordEvent(EVENT_CAS_RETRIES);
+        }
+        sharedData = (int) next.version;
+        Logger.log("Writer " + id + " published snapshot version: " + next.version);
+        if (metrics != null) {
+            long writeNanos = System.nanoTime() - writeStart;
+            metrics.recordLatency(LATENCY_WRITE, writeNanos);
+            metrics.recordActiveTime(writeNanos / 1_000_000L);
+            metrics.recordOperation();
+            metrics.recordEvent(EVENT_WRITES);
+        }
+    }
+
+    /**
+     * A reader that loaded the old snapshot announced an epoch no later than the one stamped
+     * here, so the buffer can be recycled once every active reader has announced a later one.
+     */
+    private void retire(Snapshot old) {
+        retired.add(new RetiredSnapshot(old, globalEpoch.getAndIncrement()));
+
+        long oldestActive = Long.MAX_VALUE;
+        for (int i = 0; i < readerEpochs.length(); i++) {
+            long epoch = readerEpochs.get(i);
+            if (epoch != 0 && epoch < oldestActive)
+                oldestActive = epoch;
+        }
+        RetiredSnapshot head;
+        while ((head = retired.peek()) != null && head.epoch < oldestActive) {
+            if (retired.remove(head)) {
+                recycledBuffers.offer(head.snapshot.data);
+                if (metrics != null)
+                    metrics.recordEvent(EVENT_SNAPSHOTS_RECLAIMED);
+            }
+        }
+    }
+
+    private static long scan(int[] data) {
+        long sum = 0;
+        for (int value : data) {
+            sum += value;
+        }
+        return sum;
+    }
+
     private void startFixedWriter(int id) {
         Thread t = new Thread(() -> {
             try {
                 while (!Thread.currentThread().isInterrupted()) {
-                    long waitStart = System.currentTimeMillis();
-                    wrt.acquire();
-                    long waitTime = System.currentTimeMillis() - waitStart;
-                    if (metrics != null) {
-                        metrics.recordWaitTime(waitTime);
+                    if (solution == Solution.COPY_ON_WRITE || solution == Solution.FLAT_COMBINING) {
+                        if (solution == Solution.COPY_ON_WRITE)
+                            writeSnapshot(id);
+                        else
+                            writeCombined(id);
+                        long idleStart = System.currentTimeMillis();
+                        sleep(randomBetween(writerIdleMinMs, writerIdleMaxMs));
+                        if (metrics != null)
+                            metrics.recordIdleTime(System.currentTimeMillis() - idleStart);
+                        continue;
+                    }
+
+                    long waitStart = System.nanoTime();
+                    writerWaitSince.set(id, waitStart);
+                    long stamp = acquireWrite();
+                    // stop() may have claimed and recorded this wait already
+                    boolean unrecorded = writerWaitSince.getAndSet(id, 0) != 0;
+                    long waitNanos = System.nanoTime() - waitStart;
+                    if (metrics != null && unrecorded) {
+                        metrics.recordWaitTimeNanos(waitNanos);
+                        metrics.recordLatency(LATENCY_WRITER_WAIT, waitNanos);
+                        long waitTime = waitNanos / 1_000_000L;
                         if (waitTime > 100)
                             metrics.recordContention(waitTime);
                     }
@@ -166,18 +478,22 @@ public class ReadersWriters implements SyncProblem, BenchmarkCapable {
                     Logger.log("Writer " + id + " entering critical section.");
                     int temp = sharedData;
                     temp++;
+                    sharedState[ThreadLocalRandom.current().nextInt(sharedState.length)]++;
+                    sleep(writeMs);
                     sharedData = temp;
                     Logger.log("Writer " + id + " updated data to: " + sharedData);
 
                     activeWriters.decrementAndGet();
+                    releaseWrite(stamp);
                     if (metrics != null) {
                         metrics.recordActiveTime(System.currentTimeMillis() - writeStart);
+                        metrics.recordLatency(LATENCY_WRITE, System.nanoTime() - waitStart);
                         metrics.recordOperation();
+                        metrics.recordEvent(EVENT_WRITES);
                     }
-                    wrt.release();
 
                     long idleStart = System.currentTimeMillis();
-                    Thread.sleep(ThreadLocalRandom.current().nextInt(1000, 2000));
+                    sleep(randomBetween(writerIdleMinMs, writerIdleMaxMs));
                     if (metrics != null)
                         metrics.recordIdleTime(System.currentTimeMillis() - idleStart);
                 }
@@ -189,14 +505,173 @@ public class ReadersWriters implements SyncProblem, BenchmarkCapable {
         activeThreads.add(t);
     }
 
+    private void acquireRead() throws InterruptedException {
+        switch (solution) {
+            case WRITER_PRIORITY:
+                readTry.acquire(); // Blocked while any writer is waiting
+                mutex.acquire();
+                readCount++;
+                if (readCount == 1)
+                    wrt.acquire();
+                mutex.release();
+                readTry.release();
+                break;
+            case FAIR:
+                serviceQueue.acquire(); // Wait our turn in arrival order
+                mutex.acquire();
+                readCount++;
+                if (readCount == 1)
+                    wrt.acquire();
+                serviceQueue.release();
+                mutex.release();
+                break;
+            case READ_WRITE_LOCK:
+                rwLock.readLock().lockInterruptibly();
+                break;
+            case FLAT_COMBINING:
+                readCombiner.execute(enterRead);
+                break;
+            default:
+                mutex.acquire();
+                readCount++;
+                if (readCount == 1)
+                    wrt.acquire(); // First reader locks writer
+                mutex.release();
+                break;
+        }
+    }
+
+    private void releaseRead() throws InterruptedException {
+        if (solution == Solution.READ_WRITE_LOCK) {
+            rwLock.readLock().unlock();
+            return;
+        }
+        if (solution == Solution.FLAT_COMBINING) {
+            readCombiner.execute(exitRead);
+            return;
+        }
+        mutex.acquire();
+        readCount--;
+        if (readCount == 0)
+            wrt.release(); // Last reader releases writer
+        mutex.release();
+    }
+
+    /**
+     * @return the StampedLock stamp, or 0 for the other solutions
+     */
+    private long acquireWrite() throws InterruptedException {
+        switch (solution) {
+            case WRITER_PRIORITY:
+                writerMutex.acquire();
+                writeCount++;
+                if (writeCount == 1)
+                    readTry.acquire(); // First waiting writer shuts the door on new readers
+                writerMutex.release();
+                wrt.acquire();
+                return 0;
+            case FAIR:
+                serviceQueue.acquire();
+                wrt.acquire();
+                serviceQueue.release();
+                return 0;
+            case READ_WRITE_LOCK:
+                rwLock.writeLock().lockInterruptibly();
+                return 0;
+            case STAMPED_OPTIMISTIC:
+                return stampedLock.writeLockInterruptibly();
+            default:
+                wrt.acquire();
+                return 0;
+        }
+    }
+
+    private void releaseWrite(long stamp) throws InterruptedException {
+        switch (solution) {
+            case WRITER_PRIORITY:
+                wrt.release();
+                writerMutex.acquire();
+                writeCount--;
+                if (writeCount == 0)
+                    readTry.release(); // Last writer lets readers in again
+                writerMutex.release();
+                break;
+            case READ_WRITE_LOCK:
+                rwLock.writeLock().unlock();
+                break;
+            case STAMPED_OPTIMISTIC:
+                stampedLock.unlockWrite(stamp);
+                break;
+            default:
+                wrt.release();
+                break;
+        }
+    }
+
+    // Checks before touching readCount so a throwing acquire leaves it unchanged
+    private int combinedEnterRead() throws InterruptedException {
+        if (readCount == 0)
+            wrt.acquire(); // First reader locks writer
+        return ++readCount;
+    }
+
+    private int combinedExitRead() {
+        if (--readCount == 0)
+            wrt.release(); // Last reader releases writer
+        return readCount;
+    }
+
+    private int combinedWrite() throws InterruptedException {
+        sleep(writeMs);
+        sharedState[ThreadLocalRandom.current().nextInt(sharedState.length)]++;
+        return ++sharedData;
+    }
+
+    /**
+     * Hands the increment to the write combiner; whichever writer combines applies every
+     * pending write under a single wrt acquisition.
+     */
+    private void writeCombined(int id) throws InterruptedException {
+        long waitStart = System.nanoTime();
+        int value = writeCombiner.execute(applyWrite);
+        Logger.log("Writer " + id + " updated data to: " + value);
+        if (metrics != null) {
+            long latency = System.nanoTime() - waitStart;
+            metrics.recordLatency(LATENCY_WRITE, latency);
+            metrics.recordWaitTimeNanos(latency);
+            metrics.recordOperation();
+            metrics.recordEvent(EVENT_WRITES);
+        }
+    }
+
+    private void sleep(int ms) throws InterruptedException {
+        workload.run(ms);
+    }
+
+    private static int randomBetween(int minMs, int maxMs) {
+        return maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : maxMs;
+    }
+
     @Override
     public void stop() {
         Logger.log("Stopping Readers-Writers...");
+        // Writers still waiting are starving; count their wait so far instead of dropping it
+        long now = System.nanoTime();
+        for (int i = 0; i < writerWaitSince.length(); i++) {
+            long since = writerWaitSince.getAndSet(i, 0);
+            if (since != 0 && metrics != null)
+                metrics.recordLatency(LATENCY_WRITER_WAIT, now - since);
+        }
         for (Thread t : activeThreads) {
             if (t != null && t.isAlive()) {
                 t.interrupt();
             }
         }
         activeThreads.clear();
+        if (solution == Solution.FLAT_COMBINING && metrics != null) {
+            metrics.recordEvent(EVENT_COMBINING_ROUNDS, readCombiner.getRounds() + writeCombiner.getRounds());
+            metrics.recordEvent(EVENT_COMBINED_REQUESTS,
+                    readCombiner.getCombinedRequests() + writeCombiner.getCombinedRequests());
+        }
     }
 }
@@ -0,0 +1,167 @@
+package com.sync.simulator;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Matches suppliers of K resource types to consumers that each need an arbitrary subset of
+ * them, given as a bitmask. Waiting consumers are indexed by the mask they need, so a
+ * supply only looks at the distinct masks that are waiting, and the consumer it satisfies
+ * is handed its resources and woken directly on its own condition.
+ */
+public class ResourceMatcher {
+    public static final int MAX_TYPES = 30;
+
+    private static final class Waiter {
+        final int mask;
+        final long sequence;
+        final Condition granted;
+        boolean done = false;
+
+        Waiter(int mask, long sequence, Condition granted) {
+            this.mask = mask;
+            this.sequence = sequence;
+            this.granted = granted;
+        }
+    }
+
+    private final int types;
+    private final int capacity;
+    private final int[] stock;
+    private int availableMask = 0; // Bit i set while stock[i] > 0
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition space = lock.newCondition();
+    private final Map<Integer, ArrayDeque<Waiter>> waiting = new HashMap<>();
+    private long nextSequence = 0;
+
+    /**
+     * @param capacity how many units of each type may sit unclaimed before suppliers wait
+     */
+    public ResourceMatcher(int types, int capacity) {
+        if (types < 1 || types > MAX_TYPES)
+            throw new IllegalArgumentException("Resource types must be in [1, " + MAX_TYPES + "]");
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive");
+        this.types = types;
+        this.capacity = capacity;
+        this.stock = new int[types];
+    }
+
+    public int getTypes() {
+        return types;
+    }
+
+    /**
+     * Blocks until one unit of every type in the mask has been claimed for the caller.
+     */
+    public void acquire(int mask) throws InterruptedException {
+        checkMask(mask);
+        lock.lockInterruptibly();
+        try {
+            // Anyone already queued is unsatisfiable with the current stock, so taking it is not barging
+            if ((mask & ~availableMask) == 0 && !waiting.containsKey(mask)) {
+                consume(mask);
+                return;
+            }
+            Waiter waiter = new Waiter(mask, nextSequence++, lock.newCondition());
+            waiting.computeIfAbsent(mask, m -> new ArrayDeque<>()).addLast(waiter);
+            try {
+                while (!waiter.done) {
+                    waiter.granted.await();
+                }
+            } catch (InterruptedException e) {
+                if (!waiter.done) {
+                    dequeue(waiter);
+                    throw e;
+                }
+                // Already granted: keep the resources and leave the interrupt for the caller
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds one unit of each type in the mask that is below capacity and hands out whatever
+     * now completes a waiting consumer's set. Waits only while every type in the mask is full.
+     *
+     * @return the types actually supplied, or 0 if the timeout elapsed first
+     */
+    public int supply(int mask, long timeoutNanos) throws InterruptedException {
+        checkMask(mask);
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                int supplied = 0;
+                for (int i = 0; i < types; i++) {
+                    int bit = 1 << i;
+                    if ((mask & bit) != 0 && stock[i] < capacity) {
+                        stock[i]++;
+                        availableMask |= bit;
+                        supplied |= bit;
+                    }
+                }
+                if (supplied != 0) {
+                    match();
+                    return supplied;
+                }
+                if (timeoutNanos <= 0)
+                    return 0;
+                timeoutNanos = space.awaitNanos(timeoutNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Grants satisfiable waiters oldest first until no waiting mask fits the stock.
+     */
+    private void match() {
+        while (!waiting.isEmpty()) {
+            Waiter oldest = null;
+            for (ArrayDeque<Waiter> queue : waiting.values()) {
+                Waiter head = queue.peekFirst();
+                if ((head.mask & ~availableMask) == 0 && (oldest == null || head.sequence < oldest.sequence))
+                    oldest = head;
+            }
+            if (oldest == null)
+                return;
+            dequeue(oldest);
+            consume(oldest.mask);
+            oldest.done = true;
+            oldest.granted.signal();
+        }
+    }
+
+    private void consume(int mask) {
+        for (int i = 0; i < types; i++) {
+            if ((mask & (1 << i)) != 0 && --stock[i] == 0)
+                availableMask &= ~(1 << i);
+        }
+        space.signalAll();
+    }
+
+    private void dequeue(Waiter waiter) {
+        ArrayDeque<Waiter> queue = waiting.get(waiter.mask);
+        for (Iterator<Waiter> it = queue.iterator(); it.hasNext();) {
+            if (it.next() == waiter) {
+                it.remove();
+                break;
+            }
+        }
+        if (queue.isEmpty())
+            waiting.remove(waiter.mask);
+    }
+
+    private void checkMask(int mask) {
+        if (mask == 0 || (mask >>> types) != 0)
+            throw new IllegalArgumentException("Mask must name at least one of " + types + " resource types");
+    }
+}
@@ -0,0 +1,115 @@
+package com.sync.simulator;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Linux scheduler counters for the threads a problem starts: voluntary and involuntary context
+ * switches from /proc/self/task/&lt;tid&gt;/status, and time spent running and waiting on a run
+ * queue from /proc/self/task/&lt;tid&gt;/schedstat. /proc/self/status alone is no use here, as
+ * its switch counts are the main thread's only.
+ * <p>
+ * Java cannot map a Thread to its tid, so tasks are matched by name instead: the JVM names
+ * each native thread after its Java thread, cut to 15 characters. A task counts if it and its
+ * Java thread are both newer than {@link #begin()}. A thread that has already exited has no
+ * task directory left, so sample before stopping the problem. Elsewhere nothing is recorded.
+ */
+public final class SchedulerStats {
+    private static final Path TASKS = Paths.get("/proc/self/task");
+    private static final int TASK_NAME_LENGTH = 15; // TASK_COMM_LEN minus the terminator
+
+    private final Set<String> tasksBefore;
+    private final Set<Thread> threadsBefore;
+
+    private SchedulerStats(Set<String> tasksBefore, Set<Thread> threadsBefore) {
+        this.tasksBefore = tasksBefore;
+        this.threadsBefore = threadsBefore;
+    }
+
+    public static boolean isSupported() {
+        return Files.isDirectory(TASKS);
+    }
+
+    /**
+     * Notes the tasks and Java threads that exist before a problem starts.
+     */
+    public static SchedulerStats begin() {
+        return new SchedulerStats(taskIds(), new HashSet<>(Thread.getAllStackTraces().keySet()));
+    }
+
+    /**
+     * Adds up the counters of the threads started since {@link #begin()}, except those named
+     * in {@code ignoredNames} (benchmark infrastructure), and records them on the metrics.
+     */
+    public void recordProblemThreads(PerformanceMetrics metrics, Collection<String> ignoredNames) {
+        if (!isSupported())
+            return;
+        Set<String> names = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (!threadsBefore.contains(thread) && !ignoredNames.contains(thread.getName()))
+                names.add(taskName(thread.getName()));
+        }
+        int threads = 0;
+        long voluntary = 0;
+        long involuntary = 0;
+        long runNanos = 0;
+        long runQueueNanos = 0;
+        for (String tid : taskIds()) {
+            if (tasksBefore.contains(tid))
+                continue;
+            Path task = TASKS.resolve(tid);
+            try {
+                if (!names.contains(new String(Files.readAllBytes(task.resolve("comm"))).trim()))
+                    continue;
+                long[] switches = readSwitches(task.resolve("status"));
+                // "<ns on cpu> <ns runnable but waiting for a cpu> <timeslices>"
+                String[] schedstat = new String(Files.readAllBytes(task.resolve("schedstat"))).trim().split("\\s+");
+                voluntary += switches[0];
+                involuntary += switches[1];
+                runNanos += Long.parseLong(schedstat[0]);
+                runQueueNanos += Long.parseLong(schedstat[1]);
+                threads++;
+            } catch (IOException | RuntimeException e) {
+                // The thread exited while we were reading it
+            }
+        }
+        metrics.recordSchedulerStats(threads, voluntary, involuntary, runNanos, runQueueNanos);
+    }
+
+    private static long[] readSwitches(Path status) throws IOException {
+        long[] switches = new long[2];
+        List<String> lines = Files.readAllLines(status);
+        for (String line : lines) {
+            if (line.startsWith("voluntary_ctxt_switches:"))
+                switches[0] = Long.parseLong(line.substring(line.indexOf(':') + 1).trim());
+            else if (line.startsWith("nonvoluntary_ctxt_switches:"))
+                switches[1] = Long.parseLong(line.substring(line.indexOf(':') + 1).trim());
+        }
+        return switches;
+    }
+
+    private static Set<String> taskIds() {
+        Set<String> ids = new HashSet<>();
+        if (!isSupported())
+            return ids;
+        try (DirectoryStream<Path> tasks = Files.newDirectoryStream(TASKS)) {
+            for (Path task : tasks) {
+                ids.add(task.getFileName().toString());
+            }
+        } catch (IOException e) {
+            // Leave the set partial; affected tasks are simply not attributed
+        }
+        return ids;
+    }
+
+    private static String taskName(String threadName) {
+        return threadName.length() > TASK_NAME_LENGTH ? threadName.substring(0, TASK_NAME_LENGTH) : threadName;
+    }
+}
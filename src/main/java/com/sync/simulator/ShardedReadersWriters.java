@@ -0,0 +1,214 @@
+package com.sync.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Readers-Writers over a large keyspace. Instead of one wrt semaphore guarding everything,
+ * key k is guarded by stripe k % stripeCount, so readers only wait for writers of keys that
+ * share their stripe.
+ */
+public class ShardedReadersWriters implements SyncProblem, BenchmarkCapable, WorkloadCapable {
+    public static final String EVENT_READS = "Reads";
+    public static final String EVENT_WRITES = "Writes";
+    public static final String EVENT_LOST_UPDATES = "Lost Updates";
+
+    private final int numReaders;
+    private final int numWriters;
+    private final int[] values;
+    private final ReentrantReadWriteLock[] stripes;
+    private final KeyDistribution keys;
+
+    private final AtomicLong committedWrites = new AtomicLong(0);
+    private final List<Thread> activeThreads = new ArrayList<>();
+    private PerformanceMetrics metrics = null;
+
+    // Section and idle durations in ms (idle upper bound exclusive)
+    private int readMs = 0;
+    private int writeMs = 1;
+    private int idleMinMs = 0;
+    private int idleMaxMs = 2;
+    private Workload workload = Workload.sleep();
+
+    public ShardedReadersWriters() {
+        this(8, 2, KeyDistribution.uniform(1_000_000), 64);
+    }
+
+    public ShardedReadersWriters(int numReaders, int numWriters, KeyDistribution keys, int stripeCount) {
+        this.numReaders = numReaders;
+        this.numWriters = numWriters;
+        this.keys = keys;
+        this.values = new int[keys.getKeyCount()];
+        this.stripes = new ReentrantReadWriteLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void setWorkload(Workload workload) {
+        this.workload = workload;
+    }
+
+    public void setTiming(int readMs, int writeMs, int idleMinMs, int idleMaxMs) {
+        this.readMs = readMs;
+        this.writeMs = writeMs;
+        this.idleMinMs = idleMinMs;
+        this.idleMaxMs = idleMaxMs;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Sharded Readers-Writers (Broken - Unlocked Read-Modify-Write)...");
+        startThreads(false);
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Sharded Readers-Writers (Fixed - " + stripes.length + " Striped Locks, "
+                + keys + " over " + values.length + " keys)...");
+        startThreads(true);
+    }
+
+    private void startThreads(boolean locked) {
+        if (metrics != null)
+            metrics.setActorCount(stripes.length); // Fairness index doubles as stripe load balance
+        for (int i = 0; i < numReaders; i++) {
+            final int id = i;
+            Thread t = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        read(id, keys.nextKey(), locked);
+                        idle();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Reader-" + id);
+            t.start();
+            activeThreads.add(t);
+        }
+        for (int i = 0; i < numWriters; i++) {
+            final int id = i;
+            Thread t = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        write(id, keys.nextKey(), locked);
+                        idle();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Writer-" + id);
+            t.start();
+            activeThreads.add(t);
+        }
+    }
+
+    private void read(int id, int key, boolean locked) throws InterruptedException {
+        int stripe = key % stripes.length;
+        ReentrantReadWriteLock.ReadLock lock = stripes[stripe].readLock();
+        long waitStart = System.nanoTime();
+        if (locked)
+            lock.lockInterruptibly();
+        try {
+            if (metrics != null)
+                metrics.recordWaitTimeNanos(System.nanoTime() - waitStart);
+            Logger.log("Reader " + id + " read key " + key + " = " + values[key]);
+            sleep(readMs);
+        } finally {
+            if (locked)
+                lock.unlock();
+        }
+        if (metrics != null) {
+            metrics.recordOperation(stripe);
+            metrics.recordEvent(EVENT_READS);
+        }
+    }
+
+    private void write(int id, int key, boolean locked) throws InterruptedException {
+        int stripe = key % stripes.length;
+        ReentrantReadWriteLock.WriteLock lock = stripes[stripe].writeLock();
+        long waitStart = System.nanoTime();
+        if (locked)
+            lock.lockInterruptibly();
+        try {
+            long waitNanos = System.nanoTime() - waitStart;
+            if (metrics != null) {
+                metrics.recordWaitTimeNanos(waitNanos);
+                long waitTime = waitNanos / 1_000_000L;
+                if (waitTime > 100)
+                    metrics.recordContention(waitTime);
+            }
+            int temp = values[key];
+            sleep(writeMs); // Without the stripe lock this widens the lost-update window
+            values[key] = temp + 1;
+            committedWrites.incrementAndGet();
+            Logger.log("Writer " + id + " updated key " + key + " to " + (temp + 1));
+        } finally {
+            if (locked)
+                lock.unlock();
+        }
+        if (metrics != null) {
+            metrics.recordOperation(stripe);
+            metrics.recordEvent(EVENT_WRITES);
+        }
+    }
+
+    private void idle() throws InterruptedException {
+        long idleStart = System.currentTimeMillis();
+        sleep(idleMaxMs > idleMinMs ? ThreadLocalRandom.current().nextInt(idleMinMs, idleMaxMs) : idleMaxMs);
+        if (metrics != null)
+            metrics.recordIdleTime(System.currentTimeMillis() - idleStart);
+    }
+
+    private void sleep(int ms) throws InterruptedException {
+        workload.run(ms);
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Sharded Readers-Writers...");
+        for (Thread t : activeThreads) {
+            if (t != null && t.isAlive()) {
+                t.interrupt();
+            }
+        }
+        boolean quiescent = true;
+        for (Thread t : activeThreads) {
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            quiescent &= !t.isAlive();
+        }
+        activeThreads.clear();
+        if (!quiescent) {
+            Logger.log("A worker did not stop; skipping the lost update audit");
+            return;
+        }
+
+        // Every committed write added exactly one; anything missing from the sum was overwritten
+        long sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        long lost = committedWrites.get() - sum;
+        if (lost > 0) {
+            Logger.log("!!! VIOLATION !!! " + lost + " updates were lost");
+            if (metrics != null) {
+                metrics.recordEvent(EVENT_LOST_UPDATES, lost);
+                metrics.recordViolation(Violation.LOST_UPDATE, lost);
+            }
+        }
+    }
+}
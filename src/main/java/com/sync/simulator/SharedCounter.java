@@ -0,0 +1,225 @@
+package com.sync.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The shared-counter examples at the repository root (lock, monitor and semaphore) as one
+ * benchmarkable problem: every thread increments one counter as fast as it can, guarded by
+ * the chosen primitive. The critical section is a single add, so what is measured is the
+ * cost of the primitive itself.
+ */
+public class SharedCounter implements SyncProblem, BenchmarkCapable {
+    public static final String LATENCY_INCREMENT = "Increment";
+    public static final String EVENT_CAS_RETRIES = "CAS Retries";
+    public static final String EVENT_LOST_UPDATES = "Lost Updates";
+
+    // Threads report in batches, and time one increment per batch, so metrics stay out of the loop
+    private static final int BATCH = 64;
+
+    private static final AtomicLongFieldUpdater<SharedCounter> CAS_COUNTER =
+            AtomicLongFieldUpdater.newUpdater(SharedCounter.class, "casCounter");
+
+    /**
+     * Solutions used by {@link #runFixed()}.
+     */
+    public enum Solution {
+        SYNCHRONIZED, // Intrinsic monitor, as in the monitor example
+        REENTRANT_LOCK, // Unfair ReentrantLock, as in the lock example
+        FAIR_REENTRANT_LOCK, // ReentrantLock(true): strict FIFO handoff
+        SEMAPHORE, // Binary Semaphore, as in the semaphore example
+        ATOMIC_LONG, // One getAndIncrement per operation
+        LONG_ADDER, // Striped cells summed on read
+        CAS_LOOP // Hand-written compareAndSet retry loop on a volatile field
+    }
+
+    private final int numThreads;
+    private final Solution solution;
+
+    private volatile long unsafeCounter = 0; // Broken: volatile, but ++ is still read-modify-write
+    private long lockedCounter = 0; // Guarded by monitor, lock or semaphore
+    private volatile long casCounter = 0;
+    private final AtomicLong atomicCounter = new AtomicLong(0);
+    private final LongAdder adderCounter = new LongAdder();
+
+    private final Object monitor = new Object();
+    private final ReentrantLock lock;
+    private final Semaphore semaphore = new Semaphore(1);
+
+    private final long[] increments; // Per-thread totals, padded to avoid false sharing
+    private final List<Thread> activeThreads = new ArrayList<>();
+    private PerformanceMetrics metrics = null;
+    private boolean broken = false;
+
+    public SharedCounter() {
+        this(Solution.REENTRANT_LOCK, 3);
+    }
+
+    public SharedCounter(Solution solution, int numThreads) {
+        if (numThreads < 1)
+            throw new IllegalArgumentException("Thread count must be positive");
+        this.solution = solution;
+        this.numThreads = numThreads;
+        this.lock = new ReentrantLock(solution == Solution.FAIR_REENTRANT_LOCK);
+        this.increments = new long[numThreads * 8];
+    }
+
+    @Override
+    public void setMetrics(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void runBroken() {
+        Logger.log("Starting Shared Counter (Broken - Unsynchronized Increment)...");
+        broken = true;
+        startThreads();
+    }
+
+    @Override
+    public void runFixed() {
+        Logger.log("Starting Shared Counter (Fixed - " + solution + ", " + numThreads + " threads)...");
+        broken = false;
+        startThreads();
+    }
+
+    private void startThreads() {
+        if (metrics != null)
+            metrics.setActorCount(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            final int id = i;
+            Thread t = new Thread(() -> {
+                long done = 0;
+                long retries = 0; // CAS retries since the last batch was recorded
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        long start = System.nanoTime();
+                        retries += increment();
+                        long latency = System.nanoTime() - start;
+                        for (int n = 1; n < BATCH; n++) {
+                            retries += increment();
+                        }
+                        done += BATCH;
+                        increments[id * 8] = done;
+                        if (metrics != null) {
+                            metrics.recordLatency(LATENCY_INCREMENT, latency);
+                            metrics.recordOperations(id, BATCH);
+                            if (retries > 0)
+                                metrics.recordEvent(EVENT_CAS_RETRIES, retries);
+                        }
+                        retries = 0;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                Logger.log("Counter thread " + id + " finished after " + done + " increments");
+            }, "Counter-" + id);
+            t.start();
+            activeThreads.add(t);
+        }
+    }
+
+    /**
+     * @return the CAS retries it took, always 0 for the other solutions
+     */
+    private int increment() throws InterruptedException {
+        if (broken) {
+            unsafeCounter++;
+            return 0;
+        }
+        switch (solution) {
+            case SYNCHRONIZED:
+                synchronized (monitor) {
+                    lockedCounter++;
+                }
+                break;
+            case REENTRANT_LOCK:
+            case FAIR_REENTRANT_LOCK:
+                lock.lock();
+                try {
+                    lockedCounter++;
+                } finally {
+                    lock.unlock();
+                }
+                break;
+            case SEMAPHORE:
+                semaphore.acquire();
+                try {
+                    lockedCounter++;
+                } finally {
+                    semaphore.release();
+                }
+                break;
+            case ATOMIC_LONG:
+                atomicCounter.getAndIncrement();
+                break;
+            case LONG_ADDER:
+                adderCounter.increment();
+                break;
+            default:
+                long current;
+                int retries = 0;
+                while (!CAS_COUNTER.compareAndSet(this, current = casCounter, current + 1)) {
+                    retries++;
+                }
+                return retries;
+        }
+        return 0;
+    }
+
+    private long counterValue() {
+        if (broken)
+            return unsafeCounter;
+        switch (solution) {
+            case SYNCHRONIZED:
+            case REENTRANT_LOCK:
+            case FAIR_REENTRANT_LOCK:
+            case SEMAPHORE:
+                return lockedCounter; // Read after the joins, which order every increment before it
+            case ATOMIC_LONG:
+                return atomicCounter.get();
+            case LONG_ADDER:
+                return adderCounter.sum();
+            default:
+                return casCounter;
+        }
+    }
+
+    @Override
+    public void stop() {
+        Logger.log("Stopping Shared Counter...");
+        for (Thread t : activeThreads) {
+            if (t != null && t.isAlive()) {
+                t.interrupt();
+            }
+        }
+        for (Thread t : activeThreads) {
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        activeThreads.clear();
+
+        // A batch cut short by the interrupt goes unrecorded, so the counter may run ahead but never behind
+        long expected = 0;
+        for (int i = 0; i < numThreads; i++) {
+            expected += increments[i * 8];
+        }
+        long lost = expected - counterValue();
+        Logger.log("Counter: expected at least " + expected + ", lost " + Math.max(0, lost));
+        if (lost > 0) {
+            Logger.log("!!! VIOLATION !!! " + lost + " increments were lost");
+            if (metrics != null) {
+                metrics.recordEvent(EVENT_LOST_UPDATES, lost);
+                metrics.recordViolation(Violation.LOST_UPDATE, lost);
+            }
+        }
+    }
+}
@@ -1,14 +1,164 @@
 package com.sync.simulator;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Exchanger;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 
-public class SleepingBarber implements SyncProblem, BenchmarkCapable {
-    private static final int CHAIRS = 3;
+public class SleepingBarber implements SyncProblem, BenchmarkCapable, OpenLoopCapable, WorkloadCapable {
+    public static final String EVENT_ARRIVALS = "Arrivals";
+    public static final String EVENT_BALKS = "Balks";
+    public static final String EVENT_STEALS = "Steals";
+    public static final String EVENT_HANDOFF_MISMATCHES = "Handoff Mismatches";
+    public static final String EVENT_DEADLINE_MISSES = "Deadline Misses";
+    public static final String EVENT_ADMISSION_REJECTS = "Admission Rejects";
+    public static final String LATENCY_QUEUE = "Time in Queue";
+
+    private static final long STEAL_POLL_MS = 2; // How long an idle stealing barber naps between scans
+
+    /**
+     * How customers are dispatched to barbers by {@link #runFixed()}.
+     */
+    public enum Solution {
+        SEMAPHORES, // Classic customers/barber/mutex semaphores; customers arrive once
+        SHARED_QUEUE, // One waiting room queue drained by every barber
+        WORK_STEALING, // Per-barber queues; an idle barber steals from the back of another's
+        JOIN_SHORTEST_QUEUE, // Per-barber queues; customers join the least loaded barber
+        LOCK_FREE_PARKING, // CAS seat counter, lock-free queue of parked customers, direct unpark
+        SYNCHRONOUS_QUEUE, // Seated customers rendezvous with a barber through a SynchronousQueue
+        EXCHANGER, // Seated customers swap themselves for a barber token through an Exchanger
+        PRIORITY_QUEUE, // One waiting room ordered by customer class priority, FIFO within a class
+        EARLIEST_DEADLINE_FIRST // One waiting room ordered by absolute deadline
+    }
+
+    /**
+     * A traffic class of customers. Lower priority values are served first; a deadline of 0
+     * means the class has no deadline. Weights are relative shares of arrivals.
+     */
+    public static final class CustomerClass {
+        private final String name;
+        private final int priority;
+        private final int deadlineMs;
+        private final double weight;
+
+        public CustomerClass(String name, int priority, int deadlineMs, double weight) {
+            if (weight <= 0)
+                throw new IllegalArgumentException("Class weight must be positive");
+            this.name = name;
+            this.priority = priority;
+            this.deadlineMs = deadlineMs;
+            this.weight = weight;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        public int getDeadlineMs() {
+            return deadlineMs;
+        }
+
+        /**
+         * Metric name for this class, e.g. "Time in Queue [Premium]".
+         */
+        public String metric(String base) {
+            return base + " [" + name + "]";
+        }
+    }
+
+    private static final CustomerClass DEFAULT_CLASS = new CustomerClass("Standard", 0, 0, 1);
+
+    private static final class Customer {
+        final int id;
+        final long arrivalNanos;
+        final CustomerClass customerClass;
+        final int classIndex;
+        final long deadlineNanos; // Long.MAX_VALUE when the class has no deadline
+        final long sequence; // Keeps the priority queue FIFO among equals
+        final CountDownLatch served = new CountDownLatch(1);
+        final Thread thread; // Only unparked directly in LOCK_FREE_PARKING
+        volatile boolean taken = false;
+
+        Customer(int id, long arrivalNanos) {
+            this(id, arrivalNanos, DEFAULT_CLASS, 0, 0);
+        }
+
+        Customer(int id, long arrivalNanos, CustomerClass customerClass, int classIndex, long sequence) {
+            this.id = id;
+            this.arrivalNanos = arrivalNanos;
+            this.customerClass = customerClass;
+            this.classIndex = classIndex;
+            this.deadlineNanos = customerClass.deadlineMs > 0
+                    ? arrivalNanos + TimeUnit.MILLISECONDS.toNanos(customerClass.deadlineMs)
+                    : Long.MAX_VALUE;
+            this.sequence = sequence;
+            this.thread = Thread.currentThread();
+        }
+
+        void admit(boolean unpark) {
+            taken = true;
+            if (unpark)
+                LockSupport.unpark(thread);
+            else
+                served.countDown();
+        }
+    }
+
+    // Handed over by barbers in EXCHANGER mode so a customer can tell a barber from another customer
+    private static final Customer BARBER_TOKEN = new Customer(-1, 0);
+
+    private final int numBarbers;
+    private final int chairs;
+    private final int numCustomers;
+    private final Solution solution;
     private int waiting = 0;
 
+    // Queue-based solutions
+    private final AtomicInteger seated = new AtomicInteger(0);
+    private final List<BlockingDeque<Customer>> queues = new ArrayList<>();
+    private final AtomicIntegerArray barberBusy;
+    private final AtomicLongArray barberBusyNanos;
+
+    // Service classes
+    private List<CustomerClass> customerClasses = new ArrayList<>();
+    private AtomicIntegerArray seatedPerClass = new AtomicIntegerArray(1);
+    private boolean admissionControl = false;
+    private final AtomicLong arrivalSequence = new AtomicLong(0);
+    private final PriorityBlockingQueue<Customer> prioritized;
+
+    // Handoff solutions
+    private final ConcurrentLinkedQueue<Customer> parkedCustomers = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Thread> idleBarbers = new ConcurrentLinkedQueue<>();
+    private final SynchronousQueue<Customer> handoff = new SynchronousQueue<>(true);
+    private final Exchanger<Customer> exchanger = new Exchanger<>();
+    private long runStartNanos;
+    private long runEndNanos;
+
+    // Haircut and between-visit durations in ms (visits repeat only in the queue-based solutions)
+    private int haircutMinMs = 1000;
+    private int haircutMaxMs = 1001;
+    private int returnMinMs = 500;
+    private int returnMaxMs = 3000;
+    private Workload workload = Workload.sleep();
+
     // Fixed Semaphores
     private final Semaphore customers = new Semaphore(0);
     private final Semaphore barber = new Semaphore(0);
@@ -17,11 +167,90 @@ public class SleepingBarber implements SyncProblem, BenchmarkCapable {
     private final List<Thread> activeThreads = new ArrayList<>();
     private PerformanceMetrics metrics = null;
 
+    public SleepingBarber() {
+        this(1, 3, 10, Solution.SEMAPHORES);
+    }
+
+    public SleepingBarber(int numBarbers, int chairs, int numCustomers, Solution solution) {
+        this.numBarbers = numBarbers;
+        this.chairs = chairs;
+        this.numCustomers = numCustomers;
+        this.solution = solution;
+        this.barberBusy = new AtomicIntegerArray(numBarbers);
+        this.barberBusyNanos = new AtomicLongArray(numBarbers);
+        boolean perBarberQueues = solution == Solution.WORK_STEALING || solution == Solution.JOIN_SHORTEST_QUEUE;
+        int queueCount = perBarberQueues ? numBarbers : 1;
+        for (int i = 0; i < queueCount; i++) {
+            queues.add(new LinkedBlockingDeque<>());
+        }
+        Comparator<Customer> order = solution == Solution.EARLIEST_DEADLINE_FIRST
+                ? Comparator.comparingLong((Customer c) -> c.deadlineNanos)
+                : Comparator.comparingInt((Customer c) -> c.customerClass.priority);
+        this.prioritized = new PriorityBlockingQueue<>(Math.max(1, chairs),
+                order.thenComparingLong(c -> c.sequence));
+        customerClasses.add(DEFAULT_CLASS);
+    }
+
     @Override
     public void setMetrics(PerformanceMetrics metrics) {
         this.metrics = metrics;
     }
 
+    @Override
+    public void setWorkload(Workload workload) {
+        this.workload = workload;
+    }
+
+    public void setTiming(int haircutMinMs, int haircutMaxMs, int returnMinMs, int returnMaxMs) {
+        this.haircutMinMs = haircutMinMs;
+        this.haircutMaxMs = haircutMaxMs;
+        this.returnMinMs = returnMinMs;
+        this.returnMaxMs = returnMaxMs;
+    }
+
+    /**
+     * Customers of the queue-based solutions pick a class at random by weight on every visit.
+     */
+    public void setCustomerClasses(CustomerClass... classes) {
+        if (classes.length == 0)
+            throw new IllegalArgumentException("At least one customer class is required");
+        List<CustomerClass> list = new ArrayList<>();
+        for (CustomerClass c : classes) {
+            list.add(c);
+        }
+        this.customerClasses = list;
+        this.seatedPerClass = new AtomicIntegerArray(classes.length);
+    }
+
+    public List<CustomerClass> getCustomerClasses() {
+        return customerClasses;
+    }
+
+    /**
+     * When enabled, a customer whose estimated wait already exceeds their deadline is turned
+     * away at the door instead of taking a chair and missing it anyway.
+     */
+    public void setAdmissionControl(boolean admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    public int getNumBarbers() {
+        return numBarbers;
+    }
+
+    /**
+     * Fraction of the run each barber spent cutting hair (queue-based solutions only).
+     */
+    public double[] getBarberUtilization() {
+        long end = runEndNanos != 0 ? runEndNanos : System.nanoTime();
+        long elapsed = Math.max(1, end - runStartNanos);
+        double[] utilization = new double[numBarbers];
+        for (int i = 0; i < numBarbers; i++) {
+            utilization[i] = (double) barberBusyNanos.get(i) / elapsed;
+        }
+        return utilization;
+    }
+
     @Override
     public void runBroken() {
         Logger.log("Starting Sleeping Barber (Broken - Lost Wakeups/Race)...");
@@ -33,11 +262,24 @@ public class SleepingBarber implements SyncProblem, BenchmarkCapable {
                 while (!Thread.currentThread().isInterrupted()) {
                     if (waiting == 0) {
                         Logger.log("Barber is sleeping (busy wait checking).");
+                        long waitStart = System.nanoTime();
                         Thread.sleep(100);
+                        if (metrics != null) {
+                            long waitNanos = System.nanoTime() - waitStart;
+                            metrics.recordWaitTimeNanos(waitNanos);
+                            metrics.recordIdleTime(waitNanos / 1_000_000L);
+                        }
                     } else {
                         waiting--;
+                        if (metrics != null)
+                            metrics.updateQueueLength(waiting);
                         Logger.log("Barber is cutting hair. Waiting: " + waiting);
+                        long workStart = System.currentTimeMillis();
                         Thread.sleep(1000); // Cut hair
+                        if (metrics != null) {
+                            metrics.recordActiveTime(System.currentTimeMillis() - workStart);
+                            metrics.recordOperation();
+                        }
                     }
                 }
             } catch (InterruptedException e) {
@@ -47,24 +289,32 @@ public class SleepingBarber implements SyncProblem, BenchmarkCapable {
         barberThread.start();
         activeThreads.add(barberThread);
 
-        for (int i = 0; i < 10; i++) {
+        for (int i = 0; i < numCustomers; i++) {
             final int id = i;
             Thread t = new Thread(() -> {
                 try {
                     Thread.sleep(ThreadLocalRandom.current().nextInt(100, 2000));
+                    if (metrics != null)
+                        metrics.recordEvent(EVENT_ARRIVALS);
 
                     // BROKEN LOGIC: Check then modify without atomicity
-                    if (waiting < CHAIRS) {
+                    if (waiting < chairs) {
                         int temp = waiting;
                         Thread.sleep(50); // Force race
                         waiting = temp + 1;
                         Logger.log("Customer " + id + " sat down. Waiting: " + waiting);
-                        if (waiting > CHAIRS) {
-                            Logger.log("!!! VIOLATION !!! waiting count (" + waiting + ") exceeds chairs (" + CHAIRS
+                        if (metrics != null)
+                            metrics.updateQueueLength(waiting);
+                        if (waiting > chairs) {
+                            Logger.log("!!! VIOLATION !!! waiting count (" + waiting + ") exceeds chairs (" + chairs
                                     + ")");
+                            if (metrics != null)
+                                metrics.recordViolation(Violation.CHAIR_OVERCOUNT);
                         }
                     } else {
                         Logger.log("Customer " + id + " left (shop full).");
+                        if (metrics != null)
+                            metrics.recordEvent(EVENT_BALKS);
                     }
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
@@ -77,9 +327,68 @@ public class SleepingBarber implements SyncProblem, BenchmarkCapable {
 
     @Override
     public void runFixed() {
+        if (solution != Solution.SEMAPHORES) {
+            runQueued();
+            return;
+        }
         Logger.log("Starting Sleeping Barber (Fixed - Semaphores)...");
         waiting = 0;
 
+        for (int b = 0; b < numBarbers; b++) {
+            startSemaphoreBarber(b);
+        }
+
+        for (int i = 0; i < numCustomers; i++) {
+            final int id = i;
+            Thread t = new Thread(() -> {
+                try {
+                    long idleStart = System.currentTimeMillis();
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(500, 3000));
+                    if (metrics != null)
+                        metrics.recordIdleTime(System.currentTimeMillis() - idleStart);
+
+                    arrive(id);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Customer-" + id);
+            t.start();
+            activeThreads.add(t);
+        }
+    }
+
+    private boolean arrive(int id) throws InterruptedException {
+        Logger.log("Customer " + id + " arrived.");
+        if (metrics != null)
+            metrics.recordEvent(EVENT_ARRIVALS);
+
+        mutex.acquire();
+        if (waiting < chairs) {
+            waiting++;
+            if (metrics != null)
+                metrics.updateQueueLength(waiting);
+            customers.release(); // Wake up barber
+            mutex.release();
+
+            long waitStart = System.nanoTime();
+            barber.acquire(); // Wait for barber to be ready
+            if (metrics != null) {
+                long waitNanos = System.nanoTime() - waitStart;
+                metrics.recordWaitTimeNanos(waitNanos);
+                metrics.recordLatency(LATENCY_QUEUE, waitNanos);
+            }
+            Logger.log("Customer " + id + " is getting a haircut.");
+            return true;
+        } else {
+            mutex.release();
+            Logger.log("Customer " + id + " left (Wait room full).");
+            if (metrics != null)
+                metrics.recordEvent(EVENT_BALKS);
+            return false;
+        }
+    }
+
+    private void startSemaphoreBarber(int barberId) {
         Thread barberThread = new Thread(() -> {
             try {
                 while (!Thread.currentThread().isInterrupted()) {
@@ -98,7 +407,7 @@ public class SleepingBarber implements SyncProblem, BenchmarkCapable {
 
                     Logger.log("Barber is cutting hair.");
                     long workStart = System.currentTimeMillis();
-                    Thread.sleep(1000);
+                    workload.run(randomBetween(haircutMinMs, haircutMaxMs));
                     if (metrics != null) {
                         metrics.recordActiveTime(System.currentTimeMillis() - workStart);
                         metrics.recordOperation();
@@ -107,50 +416,336 @@ public class SleepingBarber implements SyncProblem, BenchmarkCapable {
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
-        }, "Barber");
+        }, numBarbers == 1 ? "Barber" : "Barber-" + barberId);
         barberThread.start();
         activeThreads.add(barberThread);
+    }
+
+    /**
+     * Service-pool model: M barbers, a shared limit of N chairs, and a closed population of
+     * customers who keep coming back. A customer who finds every chair taken balks.
+     */
+    private void runQueued() {
+        Logger.log("Starting Sleeping Barber (Fixed - " + solution + ", " + numBarbers + " barbers, "
+                + chairs + " chairs)...");
+        startQueuedBarbers();
 
-        for (int i = 0; i < 10; i++) {
+        for (int i = 0; i < numCustomers; i++) {
             final int id = i;
             Thread t = new Thread(() -> {
                 try {
-                    long idleStart = System.currentTimeMillis();
-                    Thread.sleep(ThreadLocalRandom.current().nextInt(500, 3000));
-                    if (metrics != null)
-                        metrics.recordIdleTime(System.currentTimeMillis() - idleStart);
+                    while (!Thread.currentThread().isInterrupted()) {
+                        workload.run(randomBetween(returnMinMs, returnMaxMs));
+                        visit(id);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Customer-" + id);
+            t.start();
+            activeThreads.add(t);
+        }
+    }
 
-                    Logger.log("Customer " + id + " arrived.");
+    @Override
+    public void startServers() {
+        Logger.log("Starting Sleeping Barber servers (" + solution + ", " + numBarbers + " barbers, "
+                + chairs + " chairs)...");
+        if (solution == Solution.SEMAPHORES) {
+            waiting = 0;
+            for (int b = 0; b < numBarbers; b++) {
+                startSemaphoreBarber(b);
+            }
+        } else {
+            startQueuedBarbers();
+        }
+    }
 
-                    mutex.acquire();
-                    if (waiting < CHAIRS) {
-                        waiting++;
-                        if (metrics != null)
-                            metrics.updateQueueLength(waiting);
-                        customers.release(); // Wake up barber
-                        mutex.release();
+    @Override
+    public boolean serveRequest(int clientId) throws InterruptedException {
+        return solution == Solution.SEMAPHORES ? arrive(clientId) : visit(clientId);
+    }
+
+    private void startQueuedBarbers() {
+        seated.set(0);
+        runStartNanos = System.nanoTime();
+        runEndNanos = 0;
+        if (metrics != null)
+            metrics.setActorCount(numBarbers);
 
+        for (int b = 0; b < numBarbers; b++) {
+            final int barberId = b;
+            Thread t = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
                         long waitStart = System.currentTimeMillis();
-                        barber.acquire(); // Wait for barber to be ready
+                        Customer customer = nextCustomer(barberId);
                         if (metrics != null)
-                            metrics.recordWaitTime(System.currentTimeMillis() - waitStart);
-                        Logger.log("Customer " + id + " is getting a haircut.");
-                    } else {
-                        mutex.release();
-                        Logger.log("Customer " + id + " left (Wait room full).");
+                            metrics.recordIdleTime(System.currentTimeMillis() - waitStart);
+                        cutHair(barberId, customer);
                     }
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                 }
-            }, "Customer-" + id);
+            }, "Barber-" + b);
             t.start();
             activeThreads.add(t);
         }
     }
 
+    /**
+     * @return once a barber has taken the customer into the chair, or false if they balked
+     */
+    private boolean visit(int id) throws InterruptedException {
+        int classIndex = pickClass();
+        CustomerClass customerClass = customerClasses.get(classIndex);
+        if (metrics != null) {
+            metrics.recordEvent(EVENT_ARRIVALS);
+            metrics.recordEvent(customerClass.metric(EVENT_ARRIVALS));
+        }
+        if (admissionControl && !admissible(customerClass)) {
+            Logger.log("Customer " + id + " turned away (would miss " + customerClass.name + " deadline).");
+            if (metrics != null) {
+                metrics.recordEvent(EVENT_ADMISSION_REJECTS);
+                metrics.recordEvent(customerClass.metric(EVENT_ADMISSION_REJECTS));
+            }
+            return false;
+        }
+        if (!takeSeat()) {
+            Logger.log("Customer " + id + " left (Wait room full).");
+            if (metrics != null) {
+                metrics.recordEvent(EVENT_BALKS);
+                metrics.recordEvent(customerClass.metric(EVENT_BALKS));
+            }
+            return false;
+        }
+        seatedPerClass.incrementAndGet(classIndex);
+        Customer customer = new Customer(id, System.nanoTime(), customerClass, classIndex,
+                arrivalSequence.getAndIncrement());
+        Logger.log("Customer " + id + " (" + customerClass.name + ") sat down.");
+        switch (solution) {
+            case LOCK_FREE_PARKING:
+                parkedCustomers.add(customer);
+                Thread idle = idleBarbers.poll();
+                if (idle != null)
+                    LockSupport.unpark(idle);
+                while (!customer.taken) {
+                    LockSupport.park(this);
+                    if (Thread.interrupted())
+                        throw new InterruptedException();
+                }
+                break;
+            case SYNCHRONOUS_QUEUE:
+                handoff.put(customer); // Returns once a barber has taken us
+                break;
+            case EXCHANGER:
+                while (exchanger.exchange(customer) != BARBER_TOKEN) {
+                    // Paired with another customer; both go back to the exchanger
+                    if (metrics != null)
+                        metrics.recordEvent(EVENT_HANDOFF_MISMATCHES);
+                }
+                break;
+            case PRIORITY_QUEUE:
+            case EARLIEST_DEADLINE_FIRST:
+                prioritized.add(customer);
+                customer.served.await();
+                break;
+            default:
+                queues.get(chooseQueue()).addLast(customer);
+                customer.served.await();
+                break;
+        }
+        return true;
+    }
+
+    private int pickClass() {
+        if (customerClasses.size() == 1)
+            return 0;
+        double total = 0;
+        for (CustomerClass c : customerClasses) {
+            total += c.weight;
+        }
+        double roll = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < customerClasses.size(); i++) {
+            roll -= customerClasses.get(i).weight;
+            if (roll < 0)
+                return i;
+        }
+        return customerClasses.size() - 1;
+    }
+
+    /**
+     * Estimates the wait as the customers who would be served first, spread over all barbers,
+     * times the mean haircut. Who is served first depends on the dispatch order.
+     */
+    private boolean admissible(CustomerClass customerClass) {
+        if (customerClass.deadlineMs <= 0)
+            return true;
+        int ahead = 0;
+        for (int i = 0; i < customerClasses.size(); i++) {
+            CustomerClass other = customerClasses.get(i);
+            boolean servedFirst;
+            switch (solution) {
+                case PRIORITY_QUEUE:
+                    servedFirst = other.priority <= customerClass.priority;
+                    break;
+                case EARLIEST_DEADLINE_FIRST:
+                    servedFirst = other.deadlineMs > 0 && other.deadlineMs <= customerClass.deadlineMs;
+                    break;
+                default:
+                    servedFirst = true; // FIFO: everyone already seated
+                    break;
+            }
+            if (servedFirst)
+                ahead += seatedPerClass.get(i);
+        }
+        double meanHaircutMs = (haircutMinMs + Math.max(haircutMinMs, haircutMaxMs - 1)) / 2.0;
+        double estimatedWaitMs = (double) (ahead / numBarbers + 1) * meanHaircutMs;
+        return estimatedWaitMs <= customerClass.deadlineMs;
+    }
+
+    private boolean takeSeat() {
+        while (true) {
+            int current = seated.get();
+            if (current >= chairs)
+                return false;
+            if (seated.compareAndSet(current, current + 1)) {
+                if (metrics != null)
+                    metrics.updateQueueLength(current + 1);
+                return true;
+            }
+        }
+    }
+
+    private int chooseQueue() {
+        switch (solution) {
+            case WORK_STEALING:
+                return ThreadLocalRandom.current().nextInt(queues.size());
+            case JOIN_SHORTEST_QUEUE:
+                int best = 0;
+                int bestLoad = Integer.MAX_VALUE;
+                for (int i = 0; i < queues.size(); i++) {
+                    int load = queues.get(i).size() + barberBusy.get(i);
+                    if (load < bestLoad) {
+                        best = i;
+                        bestLoad = load;
+                    }
+                }
+                return best;
+            default:
+                return 0;
+        }
+    }
+
+    private Customer nextCustomer(int barberId) throws InterruptedException {
+        switch (solution) {
+            case SHARED_QUEUE:
+                return queues.get(0).takeFirst();
+            case LOCK_FREE_PARKING:
+                return nextParkedCustomer();
+            case SYNCHRONOUS_QUEUE:
+                return handoff.take();
+            case EXCHANGER:
+                while (true) {
+                    Customer customer = exchanger.exchange(BARBER_TOKEN);
+                    if (customer != BARBER_TOKEN)
+                        return customer;
+                    if (metrics != null)
+                        metrics.recordEvent(EVENT_HANDOFF_MISMATCHES);
+                }
+            case PRIORITY_QUEUE:
+            case EARLIEST_DEADLINE_FIRST:
+                return prioritized.take();
+            default:
+                break;
+        }
+        if (solution == Solution.JOIN_SHORTEST_QUEUE)
+            return queues.get(barberId).takeFirst();
+
+        BlockingDeque<Customer> own = queues.get(barberId);
+        while (true) {
+            Customer customer = own.pollFirst();
+            if (customer != null)
+                return customer;
+            // Steal the most recent arrival from another barber, starting at a random victim
+            int start = ThreadLocalRandom.current().nextInt(queues.size());
+            for (int i = 0; i < queues.size(); i++) {
+                int victim = (start + i) % queues.size();
+                if (victim == barberId)
+                    continue;
+                customer = queues.get(victim).pollLast();
+                if (customer != null) {
+                    if (metrics != null)
+                        metrics.recordEvent(EVENT_STEALS);
+                    return customer;
+                }
+            }
+            customer = own.pollFirst(STEAL_POLL_MS, TimeUnit.MILLISECONDS);
+            if (customer != null)
+                return customer;
+        }
+    }
+
+    /**
+     * The barber advertises itself as idle before re-checking the queue, and a customer
+     * enqueues before looking for an idle barber, so one of them always sees the other.
+     */
+    private Customer nextParkedCustomer() throws InterruptedException {
+        Thread self = Thread.currentThread();
+        while (true) {
+            Customer customer = parkedCustomers.poll();
+            if (customer != null)
+                return customer;
+            idleBarbers.add(self);
+            if (parkedCustomers.isEmpty())
+                LockSupport.park(this);
+            idleBarbers.remove(self);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+
+    private void cutHair(int barberId, Customer customer) throws InterruptedException {
+        barberBusy.set(barberId, 1);
+        seated.decrementAndGet();
+        seatedPerClass.decrementAndGet(customer.classIndex);
+        customer.admit(solution == Solution.LOCK_FREE_PARKING);
+        long now = System.nanoTime();
+        long queued = now - customer.arrivalNanos;
+        if (metrics != null) {
+            metrics.recordWaitTimeNanos(queued);
+            metrics.recordLatency(LATENCY_QUEUE, queued);
+            metrics.recordLatency(customer.customerClass.metric(LATENCY_QUEUE), queued);
+            // A deadline is met if the haircut starts in time
+            if (now > customer.deadlineNanos) {
+                metrics.recordEvent(EVENT_DEADLINE_MISSES);
+                metrics.recordEvent(customer.customerClass.metric(EVENT_DEADLINE_MISSES));
+            }
+        }
+
+        Logger.log("Barber " + barberId + " is cutting hair of Customer " + customer.id);
+        long workStart = System.nanoTime();
+        try {
+            workload.run(randomBetween(haircutMinMs, haircutMaxMs));
+        } finally {
+            long worked = System.nanoTime() - workStart;
+            barberBusyNanos.addAndGet(barberId, worked);
+            barberBusy.set(barberId, 0);
+            if (metrics != null)
+                metrics.recordActiveTime(worked / 1_000_000L);
+        }
+        if (metrics != null)
+            metrics.recordOperation(barberId);
+    }
+
+    private static int randomBetween(int minMs, int maxMs) {
+        return maxMs > minMs ? ThreadLocalRandom.current().nextInt(minMs, maxMs) : maxMs;
+    }
+
     @Override
     public void stop() {
         Logger.log("Stopping Sleeping Barber...");
+        runEndNanos = System.nanoTime();
         for (Thread t : activeThreads) {
             if (t != null && t.isAlive()) {
                 t.interrupt();
@@ -0,0 +1,59 @@
+package com.sync.simulator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base for the spin lock {@link Mutex}es. As with any lock, it must be released by the thread
+ * that acquired it.
+ *
+ * Queued spin locks cannot leave their queue, so an interrupted waiter still takes its turn
+ * and then hands the lock straight on before throwing InterruptedException.
+ */
+public abstract class SpinLock implements Mutex {
+    // Busy spins before a waiter starts yielding; yielding keeps oversubscribed cores moving
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    protected abstract void lock();
+
+    protected abstract boolean tryLock();
+
+    protected abstract void unlock();
+
+    protected static void spinWait(int iteration) {
+        if (iteration >= SPINS_BEFORE_YIELD)
+            Thread.yield();
+    }
+
+    @Override
+    public void acquire() throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        lock();
+        if (Thread.interrupted()) {
+            unlock();
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Barges with repeated {@link #tryLock()} rather than queueing, so it is not FIFO.
+     */
+    @Override
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int i = 0;; i++) {
+            if (tryLock())
+                return true;
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (System.nanoTime() - deadline >= 0)
+                return false;
+            spinWait(i);
+        }
+    }
+
+    @Override
+    public void release() {
+        unlock();
+    }
+}
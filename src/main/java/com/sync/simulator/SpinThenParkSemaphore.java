@@ -0,0 +1,50 @@
+package com.sync.simulator;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * A counting semaphore that spins on tryAcquire before parking in the normal way. Like
+ * adaptive monitor spinning, the spin budget grows while spinning pays off and shrinks while
+ * it does not, so long waits quickly stop burning CPU.
+ */
+public class SpinThenParkSemaphore extends Semaphore {
+    private static final long serialVersionUID = 1L;
+
+    private static final int MIN_SPINS = 16;
+    private static final int MAX_SPINS = 4096;
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    private volatile int spinBudget = 256; // Racy updates are fine: it is only a heuristic
+
+    public SpinThenParkSemaphore(int permits) {
+        super(permits);
+    }
+
+    @Override
+    public void acquire() throws InterruptedException {
+        if (spinAcquire())
+            return;
+        super.acquire();
+    }
+
+    @Override
+    public void acquireUninterruptibly() {
+        if (spinAcquire())
+            return;
+        super.acquireUninterruptibly();
+    }
+
+    private boolean spinAcquire() {
+        int budget = spinBudget;
+        for (int i = 0; i < budget; i++) {
+            if (super.tryAcquire()) {
+                spinBudget = Math.min(MAX_SPINS, budget * 2);
+                return true;
+            }
+            if (i >= SPINS_BEFORE_YIELD)
+                Thread.yield();
+        }
+        spinBudget = Math.max(MIN_SPINS, budget / 2);
+        return false;
+    }
+}
@@ -0,0 +1,282 @@
+package com.sync.simulator;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A small word-based software transactional memory in the style of TL2. A transaction
+ * samples a global version clock when it starts, reads {@link TVar}s only if they have not
+ * been committed since, and buffers its writes. At commit it locks its write set in a fixed
+ * order, takes a new clock value, revalidates its read set and publishes. Any conflict
+ * aborts the attempt and it is run again from the start.
+ * <p>
+ * {@link Txn#retry()} is the blocking primitive: the attempt is abandoned and the thread
+ * parks until another transaction commits to one of the variables it read, so "wait until
+ * both forks are free" is just a transaction that retries while one is taken.
+ */
+public class Stm {
+    public static final String EVENT_COMMITS = "STM Commits";
+    public static final String EVENT_ABORTS = "STM Aborts";
+    public static final String EVENT_RETRIES = "STM Retries";
+
+    /**
+     * The body of a transaction. It may run several times and must have no side effects
+     * other than through the {@link Txn}.
+     */
+    public interface Transaction<T> {
+        T run(Txn txn);
+    }
+
+    // Control flow only; preallocated and without stack traces
+    private static final class Conflict extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Conflict() {
+            super("STM conflict", null, false, false);
+        }
+    }
+
+    private static final class Retry extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Retry() {
+            super("STM retry", null, false, false);
+        }
+    }
+
+    private static final Conflict CONFLICT = new Conflict();
+    private static final Retry RETRY = new Retry();
+
+    private final AtomicLong clock = new AtomicLong(0);
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder aborts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final ThreadLocal<Txn> transactions = ThreadLocal.withInitial(Txn::new);
+
+    /**
+     * Runs the transaction until it commits and returns its result.
+     *
+     * @throws InterruptedException if interrupted while blocked in {@link Txn#retry()}
+     */
+    public <T> T atomically(Transaction<T> transaction) throws InterruptedException {
+        Txn txn = transactions.get();
+        if (txn.active)
+            throw new IllegalStateException("Nested transactions are not supported");
+        while (true) {
+            txn.begin(clock.get());
+            try {
+                T result = transaction.run(txn);
+                if (txn.commit(clock)) {
+                    commits.increment();
+                    return result;
+                }
+                aborts.increment();
+            } catch (Conflict e) {
+                aborts.increment();
+            } catch (Retry e) {
+                retries.increment();
+                txn.awaitChange();
+            } finally {
+                txn.active = false;
+            }
+        }
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    /**
+     * Attempts thrown away because another transaction committed a variable they used.
+     */
+    public long getAborts() {
+        return aborts.sum();
+    }
+
+    /**
+     * Attempts that called {@link Txn#retry()} and blocked.
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * One thread's transaction log. Read and write sets are small parallel arrays searched
+     * linearly, sized for transactions that touch a handful of variables.
+     */
+    public static final class Txn {
+        private boolean active = false;
+        private long readVersion;
+        private TVar<?>[] reads = new TVar<?>[8];
+        private long[] readLocks = new long[8]; // Lock word seen by the read
+        private int readCount = 0;
+        private TVar<?>[] writes = new TVar<?>[8];
+        private Object[] writeValues = new Object[8];
+        private long[] writeLocks = new long[8]; // Lock word replaced when locking for commit
+        private int writeCount = 0;
+
+        private Txn() {
+        }
+
+        void begin(long readVersion) {
+            this.readVersion = readVersion;
+            for (int i = 0; i < writeCount; i++) {
+                writeValues[i] = null; // Do not keep old values reachable
+            }
+            readCount = 0;
+            writeCount = 0;
+            active = true;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T read(TVar<T> var) {
+            int w = indexOf(writes, writeCount, var);
+            if (w >= 0)
+                return (T) writeValues[w];
+            long before = var.versionLock.get();
+            T value = var.value;
+            long after = var.versionLock.get();
+            if (before != after || TVar.isLocked(before) || TVar.version(before) > readVersion)
+                throw CONFLICT;
+            if (indexOf(reads, readCount, var) < 0) {
+                if (readCount == reads.length) {
+                    reads = Arrays.copyOf(reads, readCount * 2);
+                    readLocks = Arrays.copyOf(readLocks, readCount * 2);
+                }
+                reads[readCount] = var;
+                readLocks[readCount++] = before;
+            }
+            return value;
+        }
+
+        public <T> void write(TVar<T> var, T value) {
+            int w = indexOf(writes, writeCount, var);
+            if (w >= 0) {
+                writeValues[w] = value;
+                return;
+            }
+            if (writeCount == writes.length) {
+                writes = Arrays.copyOf(writes, writeCount * 2);
+                writeValues = Arrays.copyOf(writeValues, writeCount * 2);
+                writeLocks = Arrays.copyOf(writeLocks, writeCount * 2);
+            }
+            writes[writeCount] = var;
+            writeValues[writeCount++] = value;
+        }
+
+        /**
+         * Abandons this attempt and blocks until a variable it has read is committed by
+         * someone else, then runs the transaction again.
+         */
+        public void retry() {
+            throw RETRY;
+        }
+
+        boolean commit(AtomicLong clock) {
+            if (writeCount == 0)
+                return true; // Every read was already consistent as of readVersion
+            sortWrites();
+            for (int i = 0; i < writeCount; i++) {
+                TVar<?> var = writes[i];
+                long lock = var.versionLock.get();
+                if (TVar.isLocked(lock) || !var.versionLock.compareAndSet(lock, lock | 1L)) {
+                    unlock(i);
+                    return false;
+                }
+                writeLocks[i] = lock;
+            }
+            long writeVersion = clock.incrementAndGet();
+            // Nobody else committed since we started, so nothing we read can have changed
+            if (writeVersion != readVersion + 1 && !validateReads()) {
+                unlock(writeCount);
+                return false;
+            }
+            for (int i = 0; i < writeCount; i++) {
+                publish(writes[i], writeValues[i], writeVersion);
+            }
+            for (int i = 0; i < writeCount; i++) {
+                for (Thread waiter : writes[i].waiters) {
+                    LockSupport.unpark(waiter);
+                }
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> void publish(TVar<T> var, Object value, long writeVersion) {
+            var.value = (T) value;
+            var.versionLock.set(writeVersion << 1); // Also releases the lock
+        }
+
+        private boolean validateReads() {
+            for (int i = 0; i < readCount; i++) {
+                int w = indexOf(writes, writeCount, reads[i]);
+                long lock = w >= 0 ? writeLocks[w] : reads[i].versionLock.get();
+                if (lock != readLocks[i])
+                    return false;
+            }
+            return true;
+        }
+
+        private void unlock(int locked) {
+            for (int i = 0; i < locked; i++) {
+                writes[i].versionLock.set(writeLocks[i]);
+            }
+        }
+
+        // Insertion sort by id: a global lock order, and write sets are tiny
+        private void sortWrites() {
+            for (int i = 1; i < writeCount; i++) {
+                TVar<?> var = writes[i];
+                Object value = writeValues[i];
+                int j = i - 1;
+                while (j >= 0 && writes[j].id > var.id) {
+                    writes[j + 1] = writes[j];
+                    writeValues[j + 1] = writeValues[j];
+                    j--;
+                }
+                writes[j + 1] = var;
+                writeValues[j + 1] = value;
+            }
+        }
+
+        void awaitChange() throws InterruptedException {
+            if (readCount == 0)
+                throw new IllegalStateException("retry() before reading any TVar would block forever");
+            Thread me = Thread.currentThread();
+            for (int i = 0; i < readCount; i++) {
+                reads[i].waiters.add(me);
+            }
+            try {
+                // Registered before checking, so a commit after the check still unparks us
+                while (!changedSinceRead()) {
+                    LockSupport.park(this);
+                    if (Thread.interrupted())
+                        throw new InterruptedException();
+                }
+            } finally {
+                for (int i = 0; i < readCount; i++) {
+                    reads[i].waiters.remove(me);
+                }
+            }
+        }
+
+        private boolean changedSinceRead() {
+            for (int i = 0; i < readCount; i++) {
+                if (reads[i].versionLock.get() != readLocks[i])
+                    return true;
+            }
+            return false;
+        }
+
+        private static int indexOf(TVar<?>[] vars, int count, TVar<?> var) {
+            for (int i = 0; i < count; i++) {
+                if (vars[i] == var)
+                    return i;
+            }
+            return -1;
+        }
+    }
+}
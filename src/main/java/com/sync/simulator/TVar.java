@@ -0,0 +1,38 @@
+package com.sync.simulator;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A transactional variable for {@link Stm}. Its versioned lock word holds the global clock
+ * value of the last commit that wrote it, shifted left one bit, with the low bit set while a
+ * committing transaction holds it. Outside a transaction only {@link #peek()} is allowed.
+ */
+public final class TVar<T> {
+    private static final AtomicLong ids = new AtomicLong(0);
+
+    final long id = ids.getAndIncrement(); // Global lock order for commits
+    final AtomicLong versionLock = new AtomicLong(0);
+    final Set<Thread> waiters = ConcurrentHashMap.newKeySet(); // Parked in Stm retry
+    volatile T value;
+
+    public TVar(T initial) {
+        this.value = initial;
+    }
+
+    /**
+     * The last committed value, without joining any transaction.
+     */
+    public T peek() {
+        return value;
+    }
+
+    static boolean isLocked(long versionLock) {
+        return (versionLock & 1L) != 0;
+    }
+
+    static long version(long versionLock) {
+        return versionLock >>> 1;
+    }
+}
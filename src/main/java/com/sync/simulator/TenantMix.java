@@ -0,0 +1,147 @@
+package com.sync.simulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A set of problem instances to run side by side in one JVM, written as counts and problem
+ * names joined by '+', e.g. "4xProducerConsumer+2xReadersWriters". Every tenant gets short
+ * timings and a CPU-bound workload, so co-running tenants really compete for cores instead of
+ * sleeping past each other.
+ */
+public class TenantMix {
+    public static final String DEFAULT = "4xProducerConsumer+2xReadersWriters";
+
+    /**
+     * The problems a tenant can be, by the name used in a mix.
+     */
+    public enum Kind {
+        DINING_PHILOSOPHERS("DiningPhilosophers"),
+        READERS_WRITERS("ReadersWriters"),
+        SLEEPING_BARBER("SleepingBarber"),
+        CIGARETTE_SMOKERS("CigaretteSmokers"),
+        PRODUCER_CONSUMER("ProducerConsumer");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        static Kind forLabel(String label) {
+            for (Kind kind : values()) {
+                if (kind.label.equalsIgnoreCase(label))
+                    return kind;
+            }
+            throw new IllegalArgumentException("Unknown problem '" + label + "'");
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // Shared so it is calibrated once, before any tenant is running, for solo and co-runs alike
+    private static final Workload WORKLOAD = Workload.hashing(64);
+
+    private final List<Kind> tenants; // One entry per instance, in the order written
+
+    private TenantMix(List<Kind> tenants) {
+        this.tenants = tenants;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a term is not "&lt;count&gt;x&lt;Problem&gt;" or
+     *                                  names an unknown problem
+     */
+    public static TenantMix parse(String spec) {
+        List<Kind> tenants = new ArrayList<>();
+        for (String term : spec.split("\\+")) {
+            term = term.trim();
+            int x = term.toLowerCase().indexOf('x');
+            if (x <= 0)
+                throw new IllegalArgumentException("Expected <count>x<Problem>, got '" + term + "'");
+            int count;
+            try {
+                count = Integer.parseInt(term.substring(0, x).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad count in '" + term + "'");
+            }
+            if (count < 1)
+                throw new IllegalArgumentException("Count must be positive in '" + term + "'");
+            Kind kind = Kind.forLabel(term.substring(x + 1).trim());
+            for (int i = 0; i < count; i++) {
+                tenants.add(kind);
+            }
+        }
+        return new TenantMix(tenants);
+    }
+
+    public List<Kind> getTenants() {
+        return Collections.unmodifiableList(tenants);
+    }
+
+    /**
+     * The distinct problems in the mix, in order of first appearance.
+     */
+    public List<Kind> getKinds() {
+        List<Kind> kinds = new ArrayList<>();
+        for (Kind kind : tenants) {
+            if (!kinds.contains(kind))
+                kinds.add(kind);
+        }
+        return kinds;
+    }
+
+    /**
+     * A fresh instance of the given problem with the tenant timings and workload, identical
+     * for solo and co-run measurements.
+     */
+    public static SyncProblem newTenant(Kind kind) {
+        switch (kind) {
+            case DINING_PHILOSOPHERS: {
+                DiningPhilosophers problem = new DiningPhilosophers();
+                problem.setTiming(1, 3, 1, 3);
+                problem.setWorkload(WORKLOAD);
+                return problem;
+            }
+            case READERS_WRITERS: {
+                ReadersWriters problem = new ReadersWriters();
+                problem.setTiming(1, 1, 0, 2);
+                problem.setWorkload(WORKLOAD);
+                return problem;
+            }
+            case SLEEPING_BARBER: {
+                SleepingBarber problem = new SleepingBarber();
+                problem.setTiming(1, 3, 1, 3);
+                problem.setWorkload(WORKLOAD);
+                return problem;
+            }
+            case CIGARETTE_SMOKERS: {
+                CigaretteSmokers problem = new CigaretteSmokers();
+                problem.setTiming(1);
+                problem.setWorkload(WORKLOAD);
+                return problem;
+            }
+            default: {
+                ProducerConsumer problem = new ProducerConsumer();
+                problem.setTiming(0, 1, 1, 2);
+                problem.setWorkload(WORKLOAD);
+                return problem;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Kind kind : getKinds()) {
+            if (sb.length() > 0)
+                sb.append('+');
+            sb.append(Collections.frequency(tenants, kind)).append('x').append(kind);
+        }
+        return sb.toString();
+    }
+}
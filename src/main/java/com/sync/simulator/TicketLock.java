@@ -0,0 +1,31 @@
+package com.sync.simulator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FIFO spin lock: take a ticket, spin until it is being served. Every waiter spins on the
+ * same counter, so each release invalidates the line in every waiting core.
+ */
+public class TicketLock extends SpinLock {
+    private final AtomicInteger nextTicket = new AtomicInteger(0);
+    private final AtomicInteger nowServing = new AtomicInteger(0);
+
+    @Override
+    protected void lock() {
+        int ticket = nextTicket.getAndIncrement();
+        for (int i = 0; nowServing.get() != ticket; i++) {
+            spinWait(i);
+        }
+    }
+
+    @Override
+    protected boolean tryLock() {
+        int serving = nowServing.get();
+        return nextTicket.compareAndSet(serving, serving + 1);
+    }
+
+    @Override
+    protected void unlock() {
+        nowServing.lazySet(nowServing.get() + 1); // Only the holder writes nowServing
+    }
+}
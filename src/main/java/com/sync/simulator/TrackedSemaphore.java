@@ -0,0 +1,135 @@
+package com.sync.simulator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A semaphore that tells its {@link WaitForGraph} who is waiting for it and, when used as a
+ * lock, who holds it. Only the single-permit methods are tracked.
+ */
+public class TrackedSemaphore extends Semaphore {
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final boolean owned;
+    private final WaitForGraph graph;
+
+    // Thread -> nanoTime it started waiting
+    private final Map<Thread, Long> waiters = new ConcurrentHashMap<>();
+    // Thread -> permits held; only kept when permits are released by the thread that took them
+    private final Map<Thread, Integer> holders = new ConcurrentHashMap<>();
+
+    /**
+     * @param owned true if permits are always released by the thread that acquired them (a fork,
+     *              a mutex), false for signalling semaphores where the releaser is someone else
+     */
+    public TrackedSemaphore(String name, int permits, boolean owned, WaitForGraph graph) {
+        super(permits);
+        this.name = name;
+        this.owned = owned;
+        this.graph = graph;
+        graph.register(this);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    boolean isOwned() {
+        return owned;
+    }
+
+    Map<Thread, Long> getWaiters() {
+        return waiters;
+    }
+
+    Map<Thread, Integer> getHolders() {
+        return holders;
+    }
+
+    @Override
+    public void acquire() throws InterruptedException {
+        if (super.tryAcquire()) {
+            acquired();
+            return;
+        }
+        startWaiting();
+        try {
+            super.acquire();
+        } finally {
+            waiters.remove(Thread.currentThread());
+        }
+        acquired();
+    }
+
+    @Override
+    public void acquireUninterruptibly() {
+        if (super.tryAcquire()) {
+            acquired();
+            return;
+        }
+        startWaiting();
+        try {
+            super.acquireUninterruptibly();
+        } finally {
+            waiters.remove(Thread.currentThread());
+        }
+        acquired();
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        graph.participate(Thread.currentThread());
+        if (!super.tryAcquire())
+            return false;
+        acquired();
+        return true;
+    }
+
+    @Override
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        if (super.tryAcquire()) {
+            acquired();
+            return true;
+        }
+        startWaiting();
+        boolean got;
+        try {
+            got = super.tryAcquire(timeout, unit);
+        } finally {
+            waiters.remove(Thread.currentThread());
+        }
+        if (got)
+            acquired();
+        return got;
+    }
+
+    @Override
+    public void release() {
+        Thread self = Thread.currentThread();
+        graph.participate(self);
+        if (owned)
+            holders.computeIfPresent(self, (t, held) -> held > 1 ? held - 1 : null);
+        super.release();
+    }
+
+    private void startWaiting() {
+        Thread self = Thread.currentThread();
+        graph.participate(self);
+        waiters.put(self, System.nanoTime());
+    }
+
+    private void acquired() {
+        Thread self = Thread.currentThread();
+        graph.participate(self);
+        if (owned)
+            holders.merge(self, 1, Integer::sum);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,41 @@
+package com.sync.simulator;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Test-and-test-and-set spin lock: spin reading the flag and only attempt the atomic swap
+ * once it looks free. A failed swap means others raced for the same release, so the loser
+ * parks for a random, exponentially growing interval. Not FIFO.
+ */
+public class TtasBackoffLock extends SpinLock {
+    private static final long MIN_BACKOFF_NANOS = 1_000;
+    private static final long MAX_BACKOFF_NANOS = 1_000_000;
+
+    private final AtomicBoolean locked = new AtomicBoolean(false);
+
+    @Override
+    protected void lock() {
+        long backoff = MIN_BACKOFF_NANOS;
+        while (true) {
+            for (int i = 0; locked.get(); i++) {
+                spinWait(i);
+            }
+            if (!locked.getAndSet(true))
+                return;
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(backoff) + 1);
+            backoff = Math.min(MAX_BACKOFF_NANOS, backoff * 2);
+        }
+    }
+
+    @Override
+    protected boolean tryLock() {
+        return !locked.get() && !locked.getAndSet(true);
+    }
+
+    @Override
+    protected void unlock() {
+        locked.set(false);
+    }
+}
@@ -0,0 +1,26 @@
+package com.sync.simulator;
+
+/**
+ * Invariants the broken modes are expected to break, counted by {@link PerformanceMetrics}.
+ */
+public enum Violation {
+    BUFFER_OVERFLOW("Buffer Overflow"), // More items in the buffer than it has slots
+    BUFFER_UNDERFLOW("Buffer Underflow"), // An item consumed from an empty buffer
+    READER_WRITER_OVERLAP("Reader-Writer Overlap"), // A reader and a writer, or two writers, active at once
+    LOST_UPDATE("Lost Update"), // A read-modify-write overwrote another writer's update
+    CHAIR_OVERCOUNT("Chair Overcount"), // More customers seated than there are chairs
+    PREMATURE_WAKEUP("Premature Wakeup"), // A waiter went on while its condition was still false
+    PHASE_OVERRUN("Phase Overrun"), // A worker left a barrier before every worker had arrived
+    LOST_ARRIVAL("Lost Arrival"); // A barrier arrival went uncounted, so its phase could never complete
+
+    private final String label;
+
+    Violation(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
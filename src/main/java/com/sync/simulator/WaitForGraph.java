@@ -0,0 +1,144 @@
+package com.sync.simulator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Who waits for which {@link TrackedSemaphore} and who holds it. An edge runs from a waiting
+ * thread to every holder of an exhausted owned semaphore it waits for; a cycle is a deadlock.
+ * The graph is rebuilt from the semaphores on each query, so answers are a racy snapshot and
+ * callers should confirm a cycle before acting on it.
+ */
+public class WaitForGraph {
+    private final List<TrackedSemaphore> semaphores = new CopyOnWriteArrayList<>();
+    private final Set<Thread> participants = ConcurrentHashMap.newKeySet();
+
+    void register(TrackedSemaphore semaphore) {
+        semaphores.add(semaphore);
+    }
+
+    void participate(Thread thread) {
+        participants.add(thread);
+    }
+
+    public Set<Thread> getParticipants() {
+        return participants;
+    }
+
+    /**
+     * @return the threads of one wait-for cycle in order, or an empty list if there is none
+     */
+    public List<Thread> findCycle() {
+        Map<Thread, TrackedSemaphore> waitingFor = waitingFor();
+        Set<Thread> done = new HashSet<>();
+        for (Thread start : waitingFor.keySet()) {
+            List<Thread> path = new ArrayList<>();
+            if (search(start, waitingFor, path, new HashSet<>(), done))
+                return path;
+        }
+        return new ArrayList<>();
+    }
+
+    private boolean search(Thread thread, Map<Thread, TrackedSemaphore> waitingFor, List<Thread> path,
+            Set<Thread> onPath, Set<Thread> done) {
+        if (onPath.contains(thread)) {
+            // Keep only the loop, not the tail that led into it
+            path.subList(0, path.indexOf(thread)).clear();
+            return true;
+        }
+        if (done.contains(thread))
+            return false;
+        TrackedSemaphore semaphore = waitingFor.get(thread);
+        if (semaphore == null || !semaphore.isOwned() || semaphore.availablePermits() > 0) {
+            done.add(thread);
+            return false;
+        }
+        path.add(thread);
+        onPath.add(thread);
+        for (Thread holder : semaphore.getHolders().keySet()) {
+            if (search(holder, waitingFor, path, onPath, done))
+                return true;
+        }
+        path.remove(path.size() - 1);
+        onPath.remove(thread);
+        done.add(thread);
+        return false;
+    }
+
+    /**
+     * "Philosopher-0 holds Fork-0, waits for Fork-1 -> Philosopher-1 holds Fork-1, ..."
+     */
+    public String describe(List<Thread> cycle) {
+        Map<Thread, TrackedSemaphore> waitingFor = waitingFor();
+        StringBuilder sb = new StringBuilder();
+        for (Thread thread : cycle) {
+            if (sb.length() > 0)
+                sb.append(" -> ");
+            sb.append(thread.getName()).append(" holds ").append(held(thread))
+                    .append(", waits for ").append(waitingFor.get(thread));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return nanoTime at which the given threads had all started their current wait, or 0 if
+     *         any of them is not waiting
+     */
+    public long blockedSince(List<Thread> threads) {
+        long latest = 0;
+        for (Thread thread : threads) {
+            Long since = null;
+            for (TrackedSemaphore semaphore : semaphores) {
+                since = semaphore.getWaiters().get(thread);
+                if (since != null)
+                    break;
+            }
+            if (since == null)
+                return 0;
+            latest = Math.max(latest, since);
+        }
+        return latest;
+    }
+
+    /**
+     * A permanent stall: every live participant is waiting on a tracked semaphore, so nobody
+     * is left who could release one.
+     *
+     * @return the live participants if they are all blocked, otherwise an empty list
+     */
+    public List<Thread> findStall() {
+        List<Thread> live = new ArrayList<>();
+        for (Thread thread : participants) {
+            if (thread.isAlive())
+                live.add(thread);
+        }
+        if (live.isEmpty() || blockedSince(live) == 0)
+            return new ArrayList<>();
+        return live;
+    }
+
+    private Map<Thread, TrackedSemaphore> waitingFor() {
+        Map<Thread, TrackedSemaphore> waitingFor = new HashMap<>();
+        for (TrackedSemaphore semaphore : semaphores) {
+            for (Thread waiter : semaphore.getWaiters().keySet()) {
+                waitingFor.put(waiter, semaphore);
+            }
+        }
+        return waitingFor;
+    }
+
+    private List<TrackedSemaphore> held(Thread thread) {
+        List<TrackedSemaphore> held = new ArrayList<>();
+        for (TrackedSemaphore semaphore : semaphores) {
+            if (semaphore.getHolders().containsKey(thread))
+                held.add(semaphore);
+        }
+        return held;
+    }
+}
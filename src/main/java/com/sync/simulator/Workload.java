@@ -0,0 +1,161 @@
+package com.sync.simulator;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * What a think/eat/read/write/haircut phase of N ms actually does. SLEEP is the original
+ * behaviour; the other kinds burn a calibrated amount of CPU instead, so phases compete for
+ * cores and, with cache lines, generate coherence traffic.
+ */
+public class Workload {
+    private static final int LONGS_PER_CACHE_LINE = 8; // 64-byte lines
+    private static final int INTERRUPT_CHECK_UNITS = 256;
+    private static final long CALIBRATION_NANOS = 50_000_000L;
+
+    // Keeps the JIT from discarding work whose result is never used
+    private static volatile long sink;
+
+    public enum Kind {
+        SLEEP, // Thread.sleep; the thread leaves the CPU
+        HASH, // A fixed number of hash rounds per unit on registers only
+        PRIVATE_CACHE_LINES, // Writes N cache lines of a per-thread buffer per unit
+        SHARED_CACHE_LINES // Writes N cache lines of one buffer shared by every thread
+    }
+
+    private final Kind kind;
+    private final int intensity; // Hash rounds or cache lines per unit
+    private final long[] sharedLines;
+    private final ThreadLocal<long[]> privateLines;
+    private final long unitsPerMs; // 0 for SLEEP, which never burns units
+
+    private Workload(Kind kind, int intensity) {
+        if (intensity < 1)
+            throw new IllegalArgumentException("Workload intensity must be positive");
+        this.kind = kind;
+        this.intensity = intensity;
+        this.sharedLines = kind == Kind.SHARED_CACHE_LINES ? new long[intensity * LONGS_PER_CACHE_LINE] : null;
+        this.privateLines = ThreadLocal.withInitial(() -> new long[intensity * LONGS_PER_CACHE_LINE]);
+        // Calibrate up front, on the creating thread, rather than inside a problem's first timed phase
+        this.unitsPerMs = kind == Kind.SLEEP ? 0 : calibrate();
+    }
+
+    public static Workload sleep() {
+        return new Workload(Kind.SLEEP, 1);
+    }
+
+    /**
+     * @param rounds hash rounds per unit of work
+     */
+    public static Workload hashing(int rounds) {
+        return new Workload(Kind.HASH, rounds);
+    }
+
+    /**
+     * @param lines  cache lines written per unit of work
+     * @param shared true to have every thread write the same lines
+     */
+    public static Workload cacheLines(int lines, boolean shared) {
+        return new Workload(shared ? Kind.SHARED_CACHE_LINES : Kind.PRIVATE_CACHE_LINES, lines);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Sleeps for, or burns CPU worth, the given number of ms on the calling thread.
+     */
+    public void run(int ms) throws InterruptedException {
+        if (ms <= 0)
+            return;
+        if (kind == Kind.SLEEP) {
+            Thread.sleep(ms);
+            return;
+        }
+        burn(ms * unitsPerMs());
+    }
+
+    /**
+     * Performs the given number of work units, checking for interrupts along the way.
+     */
+    public void burn(long units) throws InterruptedException {
+        long acc = 0;
+        for (long i = 0; i < units; i++) {
+            acc += unit(acc);
+            if (i % INTERRUPT_CHECK_UNITS == 0 && Thread.interrupted())
+                throw new InterruptedException();
+        }
+        sink = acc;
+    }
+
+    /**
+     * Units per ms, measured once on an uncontended thread when the workload was created. Under
+     * contention the same number of units takes longer, which is the point.
+     */
+    public long unitsPerMs() {
+        return unitsPerMs;
+    }
+
+    private long calibrate() {
+        long units = 0;
+        long acc = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 1024; i++) {
+                acc += unit(acc);
+            }
+            units += 1024;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < CALIBRATION_NANOS);
+        sink = acc;
+        return Math.max(1, units * 1_000_000L / elapsed);
+    }
+
+    private long unit(long seed) {
+        switch (kind) {
+            case HASH: {
+                long h = seed;
+                for (int i = 0; i < intensity; i++) {
+                    h = mix(h + i);
+                }
+                return h;
+            }
+            case SHARED_CACHE_LINES:
+                return touch(sharedLines);
+            default:
+                return touch(privateLines.get());
+        }
+    }
+
+    private long touch(long[] lines) {
+        long acc = 0;
+        int start = ThreadLocalRandom.current().nextInt(intensity);
+        for (int i = 0; i < intensity; i++) {
+            int index = ((start + i) % intensity) * LONGS_PER_CACHE_LINE;
+            acc += ++lines[index]; // A write, so shared lines bounce between cores
+        }
+        return acc;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case HASH:
+                return "hash(" + intensity + ")";
+            case PRIVATE_CACHE_LINES:
+                return "private-lines(" + intensity + ")";
+            case SHARED_CACHE_LINES:
+                return "shared-lines(" + intensity + ")";
+            default:
+                return "sleep";
+        }
+    }
+}
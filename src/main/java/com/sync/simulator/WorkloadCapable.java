@@ -0,0 +1,9 @@
+package com.sync.simulator;
+
+/**
+ * Interface for problems whose timed phases (think, eat, read, write, haircut, ...) can run
+ * a {@link Workload} instead of sleeping.
+ */
+public interface WorkloadCapable {
+    void setWorkload(Workload workload);
+}
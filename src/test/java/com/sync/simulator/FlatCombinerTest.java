@@ -0,0 +1,52 @@
+package com.sync.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class FlatCombinerTest {
+    private static final int THREADS = 4;
+    private static final int OPERATIONS = 20_000;
+    private static final long JOIN_MS = 30_000;
+
+    private int counter = 0; // Only touched by whichever thread is combining
+
+    /**
+     * Every published increment is applied exactly once and its caller gets back the value it
+     * produced, so the results of all operations are exactly 1..N.
+     */
+    @Test
+    public void appliesEveryOperationExactlyOnce() throws InterruptedException {
+        FlatCombiner combiner = new FlatCombiner();
+        boolean[] seen = new boolean[THREADS * OPERATIONS + 1];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    for (int n = 0; n < OPERATIONS; n++) {
+                        int value = combiner.execute(() -> ++counter);
+                        synchronized (seen) {
+                            if (seen[value])
+                                throw new AssertionError("Value " + value + " returned twice");
+                            seen[value] = true;
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join(JOIN_MS);
+            assertFalse("A thread did not finish", t.isAlive());
+        }
+        assertEquals(null, failure.get());
+        assertEquals(THREADS * OPERATIONS, counter);
+        assertEquals(THREADS * OPERATIONS, combiner.getCombinedRequests());
+    }
+}
@@ -0,0 +1,126 @@
+package com.sync.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Runs every {@link LockType}'s mutex through the same checks: one holder at a time, no lost
+ * increments of an unsynchronized counter, timed acquisition, and an interrupted waiter that
+ * leaves the lock usable.
+ */
+public class MutexTest {
+    private static final int THREADS = 4;
+    private static final int INCREMENTS = 20_000;
+    private static final long JOIN_MS = 30_000;
+
+    private long counter = 0; // Only touched under the mutex under test
+
+    @Test
+    public void admitsOneHolderAtATimeAndLosesNoIncrements() throws InterruptedException {
+        for (LockType lockType : LockType.values()) {
+            Mutex mutex = lockType.newMutex();
+            AtomicInteger inside = new AtomicInteger(0);
+            AtomicBoolean overlapped = new AtomicBoolean(false);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            counter = 0;
+            Thread[] threads = new Thread[THREADS];
+            for (int i = 0; i < THREADS; i++) {
+                threads[i] = new Thread(() -> {
+                    try {
+                        for (int n = 0; n < INCREMENTS; n++) {
+                            mutex.acquire();
+                            try {
+                                if (inside.incrementAndGet() != 1)
+                                    overlapped.set(true);
+                                counter++;
+                                inside.decrementAndGet();
+                            } finally {
+                                mutex.release();
+                            }
+                        }
+                    } catch (Throwable t) {
+                        failure.set(t);
+                    }
+                });
+                threads[i].start();
+            }
+            joinAll(lockType, threads);
+            assertEquals(lockType + " failed", null, failure.get());
+            assertFalse(lockType + " let two threads in at once", overlapped.get());
+            assertEquals(lockType + " lost increments", (long) THREADS * INCREMENTS, counter);
+        }
+    }
+
+    @Test
+    public void tryAcquireTimesOutWhileHeldElsewhere() throws InterruptedException {
+        for (LockType lockType : LockType.values()) {
+            Mutex mutex = lockType.newMutex();
+            CountDownLatch held = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(1);
+            Thread holder = new Thread(() -> {
+                try {
+                    mutex.acquire();
+                    held.countDown();
+                    done.await();
+                    mutex.release();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            holder.start();
+            assertTrue(held.await(JOIN_MS, TimeUnit.MILLISECONDS));
+            assertFalse(lockType + " granted a held lock", mutex.tryAcquire(10, TimeUnit.MILLISECONDS));
+            done.countDown();
+            joinAll(lockType, holder);
+            assertTrue(lockType + " stayed locked after release", mutex.tryAcquire(JOIN_MS, TimeUnit.MILLISECONDS));
+            mutex.release();
+        }
+    }
+
+    @Test
+    public void interruptedWaiterLeavesTheLockUsable() throws InterruptedException {
+        for (LockType lockType : LockType.values()) {
+            Mutex mutex = lockType.newMutex();
+            mutex.acquire();
+            AtomicBoolean interrupted = new AtomicBoolean(false);
+            CountDownLatch started = new CountDownLatch(1);
+            Thread waiter = new Thread(() -> {
+                started.countDown();
+                try {
+                    mutex.acquire();
+                    mutex.release();
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+            });
+            waiter.start();
+            assertTrue(started.await(JOIN_MS, TimeUnit.MILLISECONDS));
+            Thread.sleep(20); // Let it queue or spin
+            waiter.interrupt();
+            mutex.release(); // A queued spin lock waiter takes its turn before it gives up
+            joinAll(lockType, waiter);
+            assertTrue(lockType + " ignored the interrupt", interrupted.get());
+            // Whoever the lock was handed to must have passed it on
+            assertTrue(lockType + " was left locked", mutex.tryAcquire(JOIN_MS, TimeUnit.MILLISECONDS));
+            mutex.release();
+        }
+    }
+
+    private static void joinAll(LockType lockType, Thread... threads) throws InterruptedException {
+        for (Thread t : threads) {
+            t.join(JOIN_MS);
+            if (t.isAlive())
+                fail(lockType + ": a thread did not finish");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.sync.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class ResourceMatcherTest {
+    private static final int CONSUMERS = 3;
+    private static final int ACQUIRES = 2_000;
+    private static final long JOIN_MS = 30_000;
+
+    /**
+     * Consumers of three different pairs are fed by one supplier of all three types with a
+     * capacity of one, so a missed wakeup or a unit handed out twice leaves someone blocked
+     * or the supply count off.
+     */
+    @Test
+    public void everySuppliedUnitReachesExactlyOneConsumer() throws InterruptedException {
+        ResourceMatcher matcher = new ResourceMatcher(3, 1);
+        int[] needs = { 0b011, 0b101, 0b110 };
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] consumers = new Thread[CONSUMERS];
+        for (int i = 0; i < CONSUMERS; i++) {
+            final int need = needs[i];
+            consumers[i] = new Thread(() -> {
+                try {
+                    for (int n = 0; n < ACQUIRES; n++) {
+                        matcher.acquire(need);
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            });
+            consumers[i].start();
+        }
+
+        // Each acquire takes one unit of two types: supply exactly that many units per type
+        int[] owed = new int[3];
+        for (int need : needs) {
+            for (int type = 0; type < 3; type++) {
+                if ((need & (1 << type)) != 0)
+                    owed[type] += ACQUIRES;
+            }
+        }
+        int supplied = 0;
+        while (owed[0] + owed[1] + owed[2] > 0) {
+            int mask = 0;
+            for (int type = 0; type < 3; type++) {
+                if (owed[type] > 0)
+                    mask |= 1 << type;
+            }
+            int got = matcher.supply(mask, TimeUnit.MILLISECONDS.toNanos(JOIN_MS));
+            assertTrue("supply timed out with consumers still waiting", got != 0);
+            for (int type = 0; type < 3; type++) {
+                if ((got & (1 << type)) != 0) {
+                    owed[type]--;
+                    supplied++;
+                }
+            }
+        }
+
+        for (Thread t : consumers) {
+            t.join(JOIN_MS);
+            assertFalse("A consumer was never granted its last pair", t.isAlive());
+        }
+        assertEquals(null, failure.get());
+        assertEquals(CONSUMERS * ACQUIRES * 2, supplied);
+    }
+}
@@ -0,0 +1,132 @@
+package com.sync.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class StmTest {
+    private static final int ACCOUNTS = 8;
+    private static final int INITIAL_BALANCE = 1000;
+    private static final int TELLERS = 4;
+    private static final int TRANSFERS = 5_000;
+    private static final long JOIN_MS = 30_000;
+
+    /**
+     * Tellers move money between random accounts while an auditor keeps summing every balance
+     * in one read-only transaction. A commit that skipped revalidation would let the auditor
+     * see a debit without its credit, or lose a transfer outright.
+     */
+    @Test
+    public void transfersConserveTheTotalAndAuditsSeeAConsistentSum() throws InterruptedException {
+        Stm stm = new Stm();
+        List<TVar<Integer>> balances = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            balances.add(new TVar<>(INITIAL_BALANCE));
+        }
+        int expected = ACCOUNTS * INITIAL_BALANCE;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean inconsistent = new AtomicBoolean(false);
+        AtomicBoolean tellersDone = new AtomicBoolean(false);
+
+        List<Thread> tellers = new ArrayList<>();
+        for (int t = 0; t < TELLERS; t++) {
+            Thread teller = new Thread(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int n = 0; n < TRANSFERS; n++) {
+                        TVar<Integer> from = balances.get(random.nextInt(ACCOUNTS));
+                        TVar<Integer> to = balances.get(random.nextInt(ACCOUNTS));
+                        int amount = random.nextInt(1, 50);
+                        stm.atomically(txn -> {
+                            int available = txn.read(from);
+                            if (from == to || available < amount)
+                                return null;
+                            txn.write(from, available - amount);
+                            txn.write(to, txn.read(to) + amount);
+                            return null;
+                        });
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            teller.start();
+            tellers.add(teller);
+        }
+        Thread auditor = new Thread(() -> {
+            try {
+                while (!tellersDone.get()) {
+                    int sum = stm.atomically(txn -> {
+                        int total = 0;
+                        for (TVar<Integer> balance : balances) {
+                            total += txn.read(balance);
+                        }
+                        return total;
+                    });
+                    if (sum != expected)
+                        inconsistent.set(true);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        auditor.start();
+
+        for (Thread teller : tellers) {
+            teller.join(JOIN_MS);
+            assertFalse("A teller did not finish", teller.isAlive());
+        }
+        tellersDone.set(true);
+        auditor.join(JOIN_MS);
+        assertFalse("The auditor did not finish", auditor.isAlive());
+
+        assertEquals(null, failure.get());
+        assertFalse("An audit saw a partial transfer", inconsistent.get());
+        int total = 0;
+        for (TVar<Integer> balance : balances) {
+            total += balance.peek();
+        }
+        assertEquals(expected, total);
+    }
+
+    @Test
+    public void retryWakesUpWhenAVariableItReadIsCommitted() throws InterruptedException {
+        Stm stm = new Stm();
+        TVar<Integer> stock = new TVar<>(0);
+        AtomicReference<Integer> taken = new AtomicReference<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                taken.set(stm.atomically(txn -> {
+                    int count = txn.read(stock);
+                    if (count == 0)
+                        txn.retry();
+                    txn.write(stock, count - 1);
+                    return count;
+                }));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        TimeUnit.MILLISECONDS.sleep(50); // Let it block in retry
+        assertTrue("The consumer should be waiting", consumer.isAlive());
+
+        stm.atomically(txn -> {
+            txn.write(stock, txn.read(stock) + 1);
+            return null;
+        });
+        consumer.join(JOIN_MS);
+        assertFalse("retry was never woken", consumer.isAlive());
+        assertEquals(Integer.valueOf(1), taken.get());
+        assertEquals(Integer.valueOf(0), stock.peek());
+    }
+}